@@ -2,6 +2,7 @@ plugins {
     application
     id("org.openjfx.javafxplugin") version "0.1.0"
     id("org.beryx.jlink") version "3.0.1"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 repositories { mavenCentral() }
@@ -31,6 +32,46 @@ javafx {
     modules = listOf("javafx.controls", "javafx.fxml")
 }
 
+//
+// Benchmarks der Persistenzschicht (src/jmh/java), Ergebnis als JSON:
+//   ./gradlew jmh                                    -> alle Benchmarks, 1k/100k/1M Ideen
+//   ./gradlew jmh -PjmhIncludes=IdeaRepository -PjmhRows=1000,100000
+// Die Testdatenbanken liegen unter build/tmp/jmh/mindstore-jmh/<rows>/ und werden wiederverwendet.
+//
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 2
+    iterations = 5
+    timeOnIteration = "2s"
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+    providers.gradleProperty("jmhRows").orNull?.let {
+        benchmarkParameters.put("rows", objects.listProperty<String>().value(it.split(",")))
+    }
+}
+
+//
+// Synthetische Testdaten (de.kassel.db.DatasetGenerator):
+//   ./gradlew generateDataset -Pideas=1000000 -Pseed=42 -PdataDir=/tmp/mindstore-1m
+// Ohne -PdataDir landet alles in ~/.mindstore (bzw. -Dmindstore.dataDir), "-PdataDir=:memory:" geht auch.
+//
+tasks.register<JavaExec>("generateDataset") {
+    group = "application"
+    description = "Füllt eine MindStore-Datenbank mit synthetischen Ideen, Tags, Erinnerungen und Anhängen"
+    // Klassenpfad statt Modulpfad: build/resources/main (schema.sql) gehört sonst nicht zum Modul
+    classpath = sourceSets.main.get().runtimeClasspath
+    modularity.inferModulePath.set(false)
+    mainClass.set("de.kassel.db.DatasetGenerator")
+    jvmArgs("--enable-native-access=ALL-UNNAMED")
+    args(listOfNotNull(
+        providers.gradleProperty("ideas").getOrElse("10000"),
+        providers.gradleProperty("seed").getOrElse("42"),
+        providers.gradleProperty("dataDir").orNull
+    ))
+}
+
 tasks.withType<JavaCompile>  { options.encoding = "UTF-8" }
 tasks.withType<ProcessResources> { filteringCharset = "UTF-8" }
 
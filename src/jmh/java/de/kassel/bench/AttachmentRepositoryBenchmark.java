@@ -0,0 +1,60 @@
+package de.kassel.bench;
+
+import de.kassel.db.AttachmentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttachmentRepositoryBenchmark extends DatasetState {
+
+    @Param({"4096", "1048576"})
+    public int fileBytes;
+
+    private AttachmentRepository repo;
+    private Path source;
+    private long ideaId;
+    private final List<Long> insertedIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void createSourceFile() throws IOException {
+        repo = new AttachmentRepository();
+        ideaId = Math.max(1, rows / 3);
+        var bytes = new byte[fileBytes];
+        new SplittableRandom(7).nextBytes(bytes);
+        source = Files.createTempFile("mindstore-jmh-", ".bin");
+        Files.write(source, bytes);
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeInserted() {
+        for (long id : insertedIds) repo.deleteById(id);
+        insertedIds.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSourceFile() throws IOException {
+        Files.deleteIfExists(source);
+    }
+
+    @Benchmark
+    public long insertFromPath() {
+        long id = repo.insertFromPath(ideaId, source);
+        insertedIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,55 @@
+package de.kassel.bench;
+
+import de.kassel.db.DatasetGenerator;
+import de.kassel.db.DbConfig;
+import de.kassel.db.DbManager;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+/**
+ * Legt je Datenmenge eine Benchmark-Datenbank unter {@code java.io.tmpdir/mindstore-jmh/<rows>/} an
+ * und richtet {@link DbManager} per {@link DbConfig} darauf aus.
+ * <p>
+ * Die Datei bleibt zwischen Läufen liegen (1M Ideen erzeugt man nicht bei jedem Fork neu);
+ * löschen erzwingt eine Neuerzeugung. JMH startet je {@code @Param}-Wert einen eigenen Fork,
+ * ein Prozess sieht also immer nur eine Datenmenge.
+ */
+final class BenchmarkDatabase {
+
+    private static int openedRows = -1;
+
+    private BenchmarkDatabase() {}
+
+    /** Für genau eine Datenmenge pro Prozess aufrufen (vor dem ersten Repository-Zugriff). */
+    static synchronized void open(int rows) {
+        if (openedRows == rows) return;
+        if (openedRows >= 0) {
+            throw new IllegalStateException("Prozess nutzt bereits die " + openedRows + "er-Datenbank (fork=0?)");
+        }
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "mindstore-jmh", String.valueOf(rows));
+        DbManager.configure(DbConfig.inDirectory(dir));
+        openedRows = rows;
+        fillIfEmpty(rows);
+    }
+
+    /** Füllt per {@link DatasetGenerator} auf {@code rows} Ideen auf (Seed fest, Anhänge nur als Datensätze). */
+    private static void fillIfEmpty(int rows) {
+        long existing;
+        try (var c = DbManager.getConnection();
+             var st = c.createStatement();
+             var rs = st.executeQuery("SELECT COUNT(*) FROM idea")) {
+            rs.next();
+            existing = rs.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Benchmark-DB konnte nicht gelesen werden", e);
+        }
+        if (existing >= rows) return;
+        var d = DatasetGenerator.Spec.defaults();
+        var spec = new DatasetGenerator.Spec(rows - (int) existing, d.tags(), d.seed(), d.bodyMedianChars(),
+                d.reminderShare(), d.attachmentShare(), d.deletedShare(), false);
+        var report = DatasetGenerator.generate(spec, null);
+        System.out.println("Benchmark-DB erzeugt: " + report);
+    }
+}
@@ -0,0 +1,27 @@
+package de.kassel.bench;
+
+import de.kassel.db.DbManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Gemeinsame Basis aller Benchmarks: Datenmenge als Parameter, DB je Fork. */
+@State(Scope.Benchmark)
+public abstract class DatasetState {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Setup(Level.Trial)
+    public void openDatabase() {
+        BenchmarkDatabase.open(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        DbManager.shutdown();
+    }
+}
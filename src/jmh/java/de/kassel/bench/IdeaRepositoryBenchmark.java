@@ -0,0 +1,61 @@
+package de.kassel.bench;
+
+import de.kassel.db.IdeaRepository;
+import de.kassel.model.Idea;
+import de.kassel.model.IdeaStatus;
+import de.kassel.model.Priority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IdeaRepositoryBenchmark extends DatasetState {
+
+    private IdeaRepository repo;
+    private final List<Long> insertedIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void createRepository() {
+        repo = new IdeaRepository();
+    }
+
+    /** Eingefügte Ideen wieder entfernen, damit die Datenmenge über alle Läufe gleich bleibt. */
+    @TearDown(Level.Iteration)
+    public void removeInserted() {
+        for (long id : insertedIds) repo.deleteById(id);
+        insertedIds.clear();
+    }
+
+    @Benchmark
+    public List<Idea> findAll() {
+        return repo.findAll();
+    }
+
+    @Benchmark
+    public List<Idea> findByStatus() {
+        return repo.findByStatus("doing");
+    }
+
+    @Benchmark
+    public List<Idea> search() {
+        return repo.search("garten rezept", 50);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long insert() {
+        long id = repo.insert(new Idea("Benchmark-Idee", "Text für den Insert-Benchmark",
+                Priority.P2, IdeaStatus.INBOX, null));
+        insertedIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,32 @@
+package de.kassel.bench;
+
+import de.kassel.db.ReminderRepository;
+import de.kassel.model.Reminder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReminderRepositoryBenchmark extends DatasetState {
+
+    private static final long THREE_DAYS = 3 * 24 * 60 * 60;
+
+    private ReminderRepository repo;
+
+    @Setup(Level.Trial)
+    public void createRepository() {
+        repo = new ReminderRepository();
+    }
+
+    @Benchmark
+    public List<Reminder> findDueOrUpcoming() {
+        return repo.findDueOrUpcoming(System.currentTimeMillis() / 1000, THREE_DAYS);
+    }
+}
@@ -0,0 +1,45 @@
+package de.kassel.bench;
+
+import de.kassel.db.TagRepository;
+import de.kassel.model.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagRepositoryBenchmark extends DatasetState {
+
+    // abwechselnd zwei Tag-Sätze (Namen wie im DatasetGenerator: häufige und seltene) -> jeder Aufruf ändert wirklich etwas, die Datenmenge bleibt gleich
+    private static final List<List<String>> TAG_SETS = List.of(
+            List.of("idee", "projekt", "kamera"),
+            List.of("idee", "skizze", "datenbank", "lied-3"));
+
+    private TagRepository repo;
+    private long ideaId;
+    private int toggle;
+
+    @Setup(Level.Trial)
+    public void createRepository() {
+        repo = new TagRepository();
+        ideaId = Math.max(1, rows / 2);
+    }
+
+    @Benchmark
+    public int replaceIdeaTags() {
+        toggle ^= 1;
+        repo.replaceIdeaTags(ideaId, TAG_SETS.get(toggle));
+        return toggle;
+    }
+
+    @Benchmark
+    public List<Tag> findTagsForIdea() {
+        return repo.findTagsForIdea(ideaId);
+    }
+}
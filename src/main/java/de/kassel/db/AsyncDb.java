@@ -0,0 +1,54 @@
+package de.kassel.db;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Asynchrone Fassade für die Repositories: Aufrufe laufen auf virtuellen Threads,
+ * nie auf dem JavaFX-Application-Thread.
+ * <pre>
+ * AsyncDb.supply(() -> ideaRepo.findPage("inbox", IdeaSort.CREATED, true, null, 200))
+ *        .thenAccept(...);   // Ergebnis in der UI per Platform.runLater übernehmen
+ * </pre>
+ * Die Verbindungsanzahl begrenzt weiterhin der {@link ConnectionPool}; wartende virtuelle
+ * Threads blockieren keinen Plattform-Thread. Vor jeder Aufgabe werden offene
+ * {@link WriteBehind}-Änderungen geschrieben (read-your-writes).
+ */
+public final class AsyncDb {
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("mindstore-db-", 0).factory());
+
+    private AsyncDb() {}
+
+    /** Führt einen lesenden/schreibenden Repository-Aufruf im Hintergrund aus. */
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            WriteBehind.flush();
+            return call.get();
+        }, EXECUTOR);
+    }
+
+    /** Wie {@link #supply}, für Aufrufe ohne Rückgabewert (updateStatus, snooze, …). */
+    public static CompletableFuture<Void> run(Runnable call) {
+        return CompletableFuture.runAsync(() -> {
+            WriteBehind.flush();
+            call.run();
+        }, EXECUTOR);
+    }
+
+    /** Nimmt keine neuen Aufgaben mehr an und wartet kurz auf laufende (beim Beenden der App). */
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("[MindStore] DB-Aufgaben beim Beenden nicht abgeschlossen.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -10,9 +10,10 @@ import java.util.List;
 
 public class AttachmentRepository {
 
-    private static final Path BASE_DIR = Path.of(
-            System.getProperty("user.home"), ".mindstore", "attachments"
-    );
+    /** {@code <Datenverzeichnis>/attachments}, siehe {@link DbConfig}. */
+    private static Path baseDir() {
+        return DbManager.config().attachmentsDir();
+    }
 
     /** Liefert alle Attachments zu einer Idea, chronologisch. */
     public List<Attachment> listForIdea(long ideaId) {
@@ -51,14 +52,14 @@ public class AttachmentRepository {
     }
 
     /**
-     * Kopiert eine Datei in den App-Speicher (~/.mindstore/attachments/<ideaId>/)
+     * Kopiert eine Datei in den App-Speicher (<Datenverzeichnis>/attachments/<ideaId>/)
      * und legt einen Datensatz in der DB an.
      * @return die neue Attachment-ID
      */
     public long insertFromPath(long ideaId, Path source) {
         try {
-            Files.createDirectories(BASE_DIR.resolve(String.valueOf(ideaId)));
-            Path dest = BASE_DIR.resolve(String.valueOf(ideaId))
+            Files.createDirectories(baseDir().resolve(String.valueOf(ideaId)));
+            Path dest = baseDir().resolve(String.valueOf(ideaId))
                     .resolve(source.getFileName().toString());
 
             // Datei kopieren/überschreiben
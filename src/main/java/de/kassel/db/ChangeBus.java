@@ -0,0 +1,103 @@
+package de.kassel.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Prozessinterner Bus für {@link ChangeEvent}s der Repositories.
+ * <p>
+ * Events werden gesammelt und gebündelt zugestellt: das erste Event plant eine Zustellung
+ * über den Delivery-Executor ein, alle bis dahin eintreffenden Events landen im selben Bündel.
+ * Mit {@code Platform::runLater} (setzt {@link de.kassel.ui.MainApp}) ergibt das ein Bündel
+ * pro UI-Puls; Duplikate fallen weg. Ohne UI wird sofort synchron zugestellt.
+ */
+public final class ChangeBus {
+
+    private static final List<Consumer<List<ChangeEvent>>> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+    private static final Object LOCK = new Object();
+    private static LinkedHashSet<ChangeEvent> pending = new LinkedHashSet<>();
+    private static boolean flushScheduled;
+    private static volatile Executor delivery = Runnable::run;
+
+    private ChangeBus() {}
+
+    /** Zustellung z. B. auf den FX-Thread legen ({@code Platform::runLater}). */
+    public static void setDeliveryExecutor(Executor executor) {
+        delivery = executor == null ? Runnable::run : executor;
+    }
+
+    /** Registriert einen Empfänger; der Rückgabewert meldet ihn wieder ab. */
+    public static Runnable subscribe(Consumer<List<ChangeEvent>> subscriber) {
+        SUBSCRIBERS.add(subscriber);
+        return () -> SUBSCRIBERS.remove(subscriber);
+    }
+
+    /** Von den Repositories nach erfolgreichem Schreiben aufzurufen (beliebiger Thread). */
+    static void publish(ChangeEvent event) {
+        synchronized (LOCK) {
+            pending.add(event);
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        delivery.execute(ChangeBus::flush);
+    }
+
+    /** Mehrere Events auf einmal (Massenänderungen) – landen garantiert im selben Bündel. */
+    static void publishAll(Collection<? extends ChangeEvent> events) {
+        if (events.isEmpty()) return;
+        synchronized (LOCK) {
+            pending.addAll(events);
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        delivery.execute(ChangeBus::flush);
+    }
+
+    private static void flush() {
+        LinkedHashSet<ChangeEvent> batch;
+        synchronized (LOCK) {
+            batch = pending;
+            pending = new LinkedHashSet<>();
+            flushScheduled = false;
+        }
+        var events = coalesce(batch);
+        if (events.isEmpty()) return;
+        for (var s : SUBSCRIBERS) {
+            try {
+                s.accept(events);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace(); // ein fehlerhafter Empfänger soll die anderen nicht blockieren
+            }
+        }
+    }
+
+    /** Gelöscht schlägt Angelegt/Geändert/Tags derselben Idee, Angelegt schlägt Geändert. */
+    static List<ChangeEvent> coalesce(Set<ChangeEvent> batch) {
+        Set<Long> deleted = new HashSet<>();
+        Set<Long> inserted = new HashSet<>();
+        for (var e : batch) {
+            if (e instanceof ChangeEvent.IdeaDeleted d) deleted.add(d.ideaId());
+            else if (e instanceof ChangeEvent.IdeaInserted i) inserted.add(i.ideaId());
+        }
+        var out = new ArrayList<ChangeEvent>(batch.size());
+        for (var e : batch) {
+            boolean keep = switch (e) {
+                case ChangeEvent.IdeaInserted i -> !deleted.contains(i.ideaId());
+                case ChangeEvent.IdeaUpdated u -> !deleted.contains(u.ideaId()) && !inserted.contains(u.ideaId());
+                case ChangeEvent.TagsChanged t -> t.ideaId() == null || !deleted.contains(t.ideaId());
+                case ChangeEvent.IdeaDeleted d -> true;
+                case ChangeEvent.ReminderChanged r -> true;
+                case ChangeEvent.IdeasImported b -> true;
+            };
+            if (keep) out.add(e);
+        }
+        return out;
+    }
+}
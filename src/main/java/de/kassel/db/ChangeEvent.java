@@ -0,0 +1,34 @@
+package de.kassel.db;
+
+/**
+ * Änderung an den Daten, veröffentlicht von den Repositories über den {@link ChangeBus}
+ * (immer erst NACH dem erfolgreichen Schreiben bzw. Commit).
+ * <p>
+ * Events tragen nur IDs – wer Details braucht, lädt sie selbst nach (z. B. als Summary).
+ */
+public sealed interface ChangeEvent {
+
+    /** Neue Idee angelegt. */
+    record IdeaInserted(long ideaId) implements ChangeEvent { }
+
+    /** Felder, Status oder Papierkorb-Zustand (deleted_at) einer Idee haben sich geändert. */
+    record IdeaUpdated(long ideaId) implements ChangeEvent { }
+
+    /** Idee endgültig gelöscht (Tags, Reminder, Anhänge per CASCADE mit). */
+    record IdeaDeleted(long ideaId) implements ChangeEvent { }
+
+    /**
+     * Tag-Zuordnung einer Idee geändert. {@code ideaId == null}: der Tag-Katalog selbst
+     * (anlegen, umbenennen, löschen) – kann alle Ideen betreffen.
+     */
+    record TagsChanged(Long ideaId) implements ChangeEvent { }
+
+    /** Erinnerung einer Idee angelegt, verschoben, erledigt oder entfernt. */
+    record ReminderChanged(long ideaId) implements ChangeEvent { }
+
+    /**
+     * Viele Ideen auf einmal angelegt (Bulk-Import, IDs {@code firstId..lastId} samt Tags und
+     * Erinnerungen) – Ansichten laden neu, statt jede Idee einzeln nachzuziehen.
+     */
+    record IdeasImported(long firstId, long lastId) implements ChangeEvent { }
+}
@@ -0,0 +1,300 @@
+package de.kassel.db;
+
+import de.kassel.db.metrics.QueryMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Einfacher Pool langlebiger SQLite-Verbindungen.
+ * <p>
+ * Physische Verbindungen werden einmalig geöffnet und per {@link ConnectionInitializer}
+ * konfiguriert (PRAGMAs). Ausgeliehen wird ein Proxy, dessen {@code close()} die Verbindung
+ * an den Pool zurückgibt – die Repositories können also unverändert
+ * {@code try (var c = DbManager.getConnection())} verwenden.
+ * <p>
+ * Jede physische Verbindung besitzt einen eigenen {@link StatementCache};
+ * {@code prepareStatement(sql)} auf dem Proxy liefert gecachte Statements.
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    /** Wird genau einmal pro physischer Verbindung nach dem Öffnen aufgerufen. */
+    @FunctionalInterface
+    interface ConnectionInitializer {
+        void init(Connection c) throws SQLException;
+    }
+
+    private final String url;
+    private final PoolConfig config;
+    private final ConnectionInitializer initializer;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Physical> idle = new ConcurrentLinkedDeque<>();
+    private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // ---- Metriken ----
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    private final ScheduledExecutorService leakWatcher;
+    private volatile boolean closed;
+
+    ConnectionPool(String url, PoolConfig config, ConnectionInitializer initializer) {
+        this.url = url;
+        this.config = config;
+        this.initializer = initializer;
+        this.permits = new Semaphore(config.maxSize(), true);
+
+        if (config.leakThresholdMillis() > 0) {
+            leakWatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                var t = new Thread(r, "mindstore-pool-leak-watcher");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(1_000, config.leakThresholdMillis() / 2);
+            leakWatcher.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            leakWatcher = null;
+        }
+    }
+
+    /** Leiht eine Verbindung aus; blockiert höchstens {@code acquireTimeoutMillis}. */
+    Connection acquire() throws SQLException {
+        if (closed) throw new SQLException("Connection-Pool ist geschlossen");
+
+        long start = System.nanoTime();
+        boolean ok;
+        waiting.incrementAndGet();
+        try {
+            ok = permits.tryAcquire(config.acquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf DB-Verbindung unterbrochen", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (!ok) {
+            timeouts.increment();
+            throw new SQLTimeoutException("Keine freie DB-Verbindung nach "
+                    + config.acquireTimeoutMillis() + " ms (" + stats() + ")");
+        }
+        long waited = System.nanoTime() - start;
+        acquireCount.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        QueryMetrics.recordConnectionWait(waited);
+
+        Physical physical;
+        try {
+            physical = takeIdleOrOpen();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        var lease = new Lease(physical, config.leakTraces() ? new Throwable("Verbindung ausgeliehen hier") : null);
+        leased.add(lease);
+        return lease.proxy;
+    }
+
+    private Physical takeIdleOrOpen() throws SQLException {
+        Physical p;
+        while ((p = idle.pollFirst()) != null) {
+            if (!p.conn.isClosed()) return p;
+            p.close(); // tote Verbindung verwerfen
+            total.decrementAndGet();
+        }
+        Connection c = DriverManager.getConnection(url);
+        try {
+            initializer.init(c);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(c);
+            throw e;
+        }
+        total.incrementAndGet();
+        return new Physical(c, new StatementCache(c, config.statementCacheSize(), statementCounters));
+    }
+
+    private void release(Lease lease) {
+        leased.remove(lease);
+        Physical p = lease.physical;
+        p.statements.releaseAll();
+        if (!closed && resetForReuse(p.conn)) {
+            idle.offerFirst(p); // LIFO: "warme" Verbindung (inkl. Statement-Cache) zuerst wiederverwenden
+        } else {
+            p.close();
+            total.decrementAndGet();
+        }
+        permits.release();
+    }
+
+    /** Offene Transaktionen verwerfen und Auto-Commit zurücksetzen. */
+    private static boolean resetForReuse(Connection c) {
+        try {
+            if (c.isClosed()) return false;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("[MindStore] Verbindung nicht wiederverwendbar: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        long threshold = TimeUnit.MILLISECONDS.toNanos(config.leakThresholdMillis());
+        for (Lease l : leased) {
+            if (!l.reported && now - l.acquiredAt > threshold) {
+                l.reported = true;
+                leaks.increment();
+                System.err.println("[MindStore] Mögliches Connection-Leak: seit "
+                        + TimeUnit.NANOSECONDS.toMillis(now - l.acquiredAt) + " ms ausgeliehen von Thread '"
+                        + l.threadName + "'");
+                if (l.origin != null) l.origin.printStackTrace();
+            }
+        }
+    }
+
+    PoolStats stats() {
+        int active = leased.size();
+        return new PoolStats(
+                config.maxSize(),
+                total.get(),
+                active,
+                idle.size(),
+                waiting.get(),
+                acquireCount.sum(),
+                totalWaitNanos.sum(),
+                maxWaitNanos.get(),
+                timeouts.sum(),
+                leaks.sum()
+        );
+    }
+
+    StatementCacheStats statementStats() {
+        int cached = 0;
+        for (Physical p : idle) cached += p.statements.size();
+        return new StatementCacheStats(
+                statementCounters.hits.sum(),
+                statementCounters.misses.sum(),
+                statementCounters.evictions.sum(),
+                statementCounters.bypassed.sum(),
+                cached
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (leakWatcher != null) leakWatcher.shutdownNow();
+        Physical p;
+        while ((p = idle.pollFirst()) != null) {
+            p.close();
+            total.decrementAndGet();
+        }
+        // ausgeliehene Verbindungen werden beim Zurückgeben geschlossen
+    }
+
+    private static void closeQuietly(Connection c) {
+        try { c.close(); } catch (SQLException ignore) { }
+    }
+
+    /** Physische Verbindung samt ihrem Statement-Cache. */
+    private record Physical(Connection conn, StatementCache statements) {
+        void close() {
+            statements.closeAll();
+            closeQuietly(conn);
+        }
+    }
+
+    /** Eine Ausleihe: Proxy um die physische Verbindung, close() gibt zurück. */
+    private final class Lease implements InvocationHandler {
+        final Physical physical;
+        final Connection proxy;
+        final long acquiredAt = System.nanoTime();
+        final String threadName = Thread.currentThread().getName();
+        final Throwable origin;
+        volatile boolean reported;
+        private boolean returned;
+
+        Lease(Physical physical, Throwable origin) {
+            this.physical = physical;
+            this.origin = origin;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+            physical.statements.setOwner(proxy);
+        }
+
+        @Override
+        public Object invoke(Object p, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close" -> {
+                    if (args == null && !returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    if (args == null) return returned || physical.conn.isClosed();
+                }
+                case "prepareStatement" -> {
+                    if (returned) throw new SQLException("Verbindung wurde bereits an den Pool zurückgegeben");
+                    if (args.length == 1) {
+                        return physical.statements.prepare((String) args[0], StatementCache.NO_KEYS);
+                    }
+                    if (args.length == 2 && args[1] instanceof Integer keys) {
+                        return physical.statements.prepare((String) args[0], keys);
+                    }
+                    // übrige Varianten (ResultSet-Typ, Spaltennamen …): ungecacht, aber gemessen
+                    return StatementInstrumentation.wrap(
+                            (java.sql.PreparedStatement) invokePhysical(m, args), (String) args[0]);
+                }
+                case "createStatement" -> {
+                    if (returned) throw new SQLException("Verbindung wurde bereits an den Pool zurückgegeben");
+                    return StatementInstrumentation.wrap((java.sql.Statement) invokePhysical(m, args), null);
+                }
+                case "equals" -> { return p == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(p); }
+                case "toString" -> { return "PooledConnection[" + physical.conn + (returned ? ", returned]" : "]"); }
+                default -> { }
+            }
+            if (returned) throw new SQLException("Verbindung wurde bereits an den Pool zurückgegeben");
+            return invokePhysical(m, args);
+        }
+
+        private Object invokePhysical(Method m, Object[] args) throws Throwable {
+            try {
+                return m.invoke(physical.conn, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package de.kassel.db;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Erzeugt synthetische Testdaten im bestehenden Schema: Ideen mit langen Texten, Tags nach
+ * Potenzgesetz (wenige sehr häufig, viele selten), Erinnerungen über ein Jahr verteilt, Anhänge
+ * unterschiedlicher Größe und ein Anteil Papierkorb-Einträge. Gleicher Seed = gleiche Daten.
+ * <p>
+ * Ladepfad für große Mengen: explizite IDs, Batches in großen Transaktionen, FTS-Trigger und
+ * Sekundärindizes während des Ladens ausgesetzt, danach Indizes neu und der Volltextindex in einem
+ * Rutsch für die neuen Ideen aufgebaut. 1M Ideen samt Tags, Erinnerungen und Anhängen stehen so in
+ * gut 40 s, der FTS-Index (mit Präfix-Index) braucht danach noch etwa eine Minute. Ein abgebrochener
+ * Lauf stellt Trigger und Indizes beim nächsten Aufruf wieder her (SQL steht solange in {@code settings}).
+ * <p>
+ * Kommandozeile: {@code ./gradlew generateDataset -Pideas=1000000 -Pseed=42 [-PdataDir=…]}.
+ */
+public final class DatasetGenerator {
+
+    /** Was erzeugt wird; Anteile beziehen sich auf die Zahl der Ideen. */
+    public record Spec(
+            int ideas,
+            int tags,
+            long seed,
+            int bodyMedianChars,       // Textlänge log-normal um diesen Median (max. 20k)
+            double reminderShare,
+            double attachmentShare,
+            double deletedShare,
+            boolean attachmentFiles    // Anhänge als (sparse) Dateien anlegen, sonst nur Datensätze
+    ) {
+        public Spec {
+            if (ideas < 0 || tags < 1) throw new IllegalArgumentException("ideas >= 0 und tags >= 1");
+            if (bodyMedianChars < 1) throw new IllegalArgumentException("bodyMedianChars >= 1");
+        }
+
+        public static Spec defaults() {
+            return new Spec(10_000, 500, 42L, 400, 0.15, 0.02, 0.03, true);
+        }
+
+        public Spec withIdeas(int ideas) {
+            return new Spec(ideas, tags, seed, bodyMedianChars, reminderShare, attachmentShare, deletedShare, attachmentFiles);
+        }
+
+        public Spec withSeed(long seed) {
+            return new Spec(ideas, tags, seed, bodyMedianChars, reminderShare, attachmentShare, deletedShare, attachmentFiles);
+        }
+    }
+
+    /** Ergebnis eines Laufs. */
+    public record Report(int ideas, long tagLinks, int reminders, int attachments, long millis) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d Ideen, %d Tag-Zuordnungen, %d Erinnerungen, %d Anhänge in %.1f s",
+                    ideas, tagLinks, reminders, attachments, millis / 1000.0);
+        }
+    }
+
+    private static final int BATCH = 2_000;
+    private static final int COMMIT_EVERY = 50_000;
+    private static final String SUSPENDED_KEY = "dataset.suspendedSchema";
+    private static final int FTS_AUTOMERGE = 4; // SQLite-Standard
+    private static final String SEPARATOR = "\n-- next\n";
+
+    private static final String[] STATUSES = {"inbox", "draft", "doing", "done", "archived"};
+    private static final double[] STATUS_WEIGHTS = {0.30, 0.15, 0.15, 0.25, 0.15};
+    private static final String[] MIME = {"image/png", "image/jpeg", "application/pdf", "text/plain", "application/zip"};
+    private static final String[] EXT = {"png", "jpg", "pdf", "txt", "zip"};
+    private static final String[] WORDS = (
+            "idee projekt skizze garten musik rezept reise lernen fotos budget termin artikel podcast sport "
+          + "werkstatt code lesen notiz plan kanban entwurf fahrrad küche urlaub buch film serie spiel "
+          + "sprache kurs training laufen yoga wandern kamera server backup datenbank index abfrage "
+          + "schnell langsam einfach wichtig später heute morgen woche monat jahr kunde team meeting "
+          + "präsentation bericht analyse idee2 prototyp design farbe layout schrift logo website app "
+          + "handy tablet laptop drucker netzwerk router licht heizung fenster balkon pflanze tomate "
+          + "kräuter kompost vogel katze hund futter tierarzt steuer rechnung versicherung vertrag "
+          + "miete strom wasser internet telefon geschenk geburtstag feier freunde familie eltern kinder "
+          + "schule hausaufgabe mathe physik chemie biologie geschichte kunst theater konzert museum "
+          + "bibliothek zeitung magazin blog video kanal stream mikrofon gitarre klavier noten lied"
+    ).split(" ");
+
+    private DatasetGenerator() {}
+
+    /** Erzeugt die Daten in der von {@link DbManager} konfigurierten Datenbank. */
+    public static Report generate(Spec spec, Consumer<String> progress) {
+        long t0 = System.nanoTime();
+        try (Connection c = DbManager.getConnection()) {
+            restoreSuspended(c);
+            var rnd = new SplittableRandom(spec.seed());
+            long[] tagIds = ensureTags(c, spec.tags());
+            double[] tagCdf = zipfCdf(tagIds.length, 1.1);
+
+            long firstId;
+            try (var st = c.createStatement(); var rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM idea")) {
+                rs.next();
+                firstId = rs.getLong(1);
+            }
+
+            List<String> suspended = suspendTriggersAndIndexes(c);
+            long links = 0;
+            int reminders = 0, attachments = 0;
+            try (Statement st = c.createStatement()) {
+                st.execute("PRAGMA synchronous=OFF");
+                st.execute("PRAGMA cache_size=-262144");   // 256 MB, Index-Seiten bleiben im Speicher
+                c.setAutoCommit(false);
+                try (var idea = c.prepareStatement("""
+                        INSERT INTO idea(id, title, body, priority, status, effort_minutes, created_at, updated_at, deleted_at)
+                        VALUES (?,?,?,?,?,?,?,?,?)
+                        """);
+                     var link = c.prepareStatement("INSERT OR IGNORE INTO idea_tag(idea_id, tag_id) VALUES (?,?)");
+                     var reminder = c.prepareStatement("""
+                        INSERT INTO reminder(idea_id, due_at, note, is_done, created_at) VALUES (?,?,?,?,?)
+                        """);
+                     var attachment = c.prepareStatement("""
+                        INSERT INTO attachment(idea_id, file_name, file_path, size_bytes, mime_type, created_at)
+                        VALUES (?,?,?,?,?,?)
+                        """)) {
+
+                    long now = System.currentTimeMillis() / 1000;
+                    long span = 3L * 365 * 24 * 3600;  // Ideen der letzten drei Jahre, IDs chronologisch
+                    var sb = new StringBuilder(4096);
+                    int[] picked = new int[8];
+
+                    for (int i = 0; i < spec.ideas(); i++) {
+                        long id = firstId + i;
+                        long created = now - span + (long) ((double) span * i / Math.max(1, spec.ideas()));
+                        boolean deleted = rnd.nextDouble() < spec.deletedShare();
+
+                        idea.setLong(1, id);
+                        idea.setString(2, text(rnd, sb, 2 + rnd.nextInt(7), true));
+                        idea.setString(3, body(rnd, sb, spec.bodyMedianChars()));
+                        idea.setInt(4, 1 + rnd.nextInt(4));
+                        idea.setString(5, pick(rnd, STATUSES, STATUS_WEIGHTS));
+                        if (rnd.nextInt(3) == 0) idea.setInt(6, 15 * (1 + rnd.nextInt(32)));
+                        else idea.setNull(6, Types.INTEGER);
+                        idea.setLong(7, created);
+                        if (rnd.nextInt(4) == 0) idea.setLong(8, created + rnd.nextLong(Math.max(1, now - created)));
+                        else idea.setNull(8, Types.INTEGER);
+                        if (deleted) idea.setLong(9, created + rnd.nextLong(Math.max(1, now - created)));
+                        else idea.setNull(9, Types.INTEGER);
+                        idea.addBatch();
+
+                        // 0..7 Tags, geometrisch verteilt; Auswahl nach Zipf
+                        int n = 0;
+                        while (n < picked.length - 1 && rnd.nextDouble() < 0.6) n++;
+                        for (int k = 0; k < n; k++) {
+                            int t = zipf(rnd, tagCdf);
+                            picked[k] = t;
+                            boolean dup = false;
+                            for (int j = 0; j < k; j++) dup |= picked[j] == t;
+                            if (dup) continue;
+                            link.setLong(1, id);
+                            link.setLong(2, tagIds[t]);
+                            link.addBatch();
+                            links++;
+                        }
+
+                        if (rnd.nextDouble() < spec.reminderShare()) {
+                            // ein Monat zurück bis elf Monate voraus; Vergangene meist erledigt
+                            long due = now + rnd.nextLong(-30L * 24 * 3600, 335L * 24 * 3600);
+                            reminder.setLong(1, id);
+                            reminder.setLong(2, due);
+                            if (rnd.nextInt(3) == 0) reminder.setString(3, text(rnd, sb, 3 + rnd.nextInt(6), false));
+                            else reminder.setNull(3, Types.VARCHAR);
+                            reminder.setInt(4, due < now && rnd.nextInt(10) < 7 ? 1 : 0);
+                            reminder.setLong(5, Math.min(created, due));
+                            reminder.addBatch();
+                            reminders++;
+                        }
+
+                        if (rnd.nextDouble() < spec.attachmentShare()) {
+                            int kind = rnd.nextInt(MIME.length);
+                            // 1 KB bis ~50 MB, log-normal
+                            long size = Math.min(50L << 20, (long) (1024 * Math.exp(rnd.nextDouble() * rnd.nextDouble() * 11)));
+                            String name = "anhang-" + id + "-" + attachments + "." + EXT[kind];
+                            Path file = DbManager.config().attachmentsDir().resolve(Long.toString(id)).resolve(name);
+                            if (spec.attachmentFiles()) createSparseFile(file, size);
+                            attachment.setLong(1, id);
+                            attachment.setString(2, name);
+                            attachment.setString(3, file.toString());
+                            attachment.setLong(4, size);
+                            attachment.setString(5, MIME[kind]);
+                            attachment.setLong(6, created);
+                            attachment.addBatch();
+                            attachments++;
+                        }
+
+                        if ((i + 1) % BATCH == 0) {
+                            idea.executeBatch();
+                            link.executeBatch();
+                            reminder.executeBatch();
+                            attachment.executeBatch();
+                        }
+                        if ((i + 1) % COMMIT_EVERY == 0) {
+                            c.commit();
+                            if (progress != null) progress.accept(String.format(Locale.ROOT,
+                                    "%,d / %,d Ideen (%.1f s)", i + 1, spec.ideas(), (System.nanoTime() - t0) / 1e9));
+                        }
+                    }
+                    idea.executeBatch();
+                    link.executeBatch();
+                    reminder.executeBatch();
+                    attachment.executeBatch();
+                    c.commit();
+                }
+
+                long tFts = System.nanoTime();
+                if (progress != null) progress.accept("Volltextindex für neue Ideen …");
+                rebuildFullText(c, firstId);
+                c.commit();
+                if (progress != null) progress.accept(String.format(Locale.ROOT, "  FTS %.1f s", (System.nanoTime() - tFts) / 1e9));
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+                long tIdx = System.nanoTime();
+                restore(c, suspended);
+                if (progress != null) progress.accept(String.format(Locale.ROOT, "  Indizes/Trigger %.1f s", (System.nanoTime() - tIdx) / 1e9));
+                try (Statement st = c.createStatement()) {
+                    st.execute("PRAGMA synchronous=NORMAL");
+                    st.execute("PRAGMA cache_size=-2000");
+                }
+            }
+            var report = new Report(spec.ideas(), links, reminders, attachments, (System.nanoTime() - t0) / 1_000_000);
+            if (progress != null) progress.accept(report.toString());
+            return report;
+        } catch (SQLException e) {
+            throw new RuntimeException("Testdaten konnten nicht erzeugt werden", e);
+        }
+    }
+
+    // ---- Tags ----
+
+    /** Legt {@code tag-0001 …} an (sofern fehlend) und liefert die IDs, häufigster Tag zuerst. */
+    private static long[] ensureTags(Connection c, int count) throws SQLException {
+        c.setAutoCommit(false);
+        try (var ins = c.prepareStatement("INSERT OR IGNORE INTO tag(name) VALUES (?)")) {
+            for (int t = 0; t < count; t++) {
+                ins.setString(1, tagName(t));
+                ins.addBatch();
+            }
+            ins.executeBatch();
+            c.commit();
+        } finally {
+            c.setAutoCommit(true);
+        }
+        long[] ids = new long[count];
+        try (var ps = c.prepareStatement("SELECT id FROM tag WHERE name = ?")) {
+            for (int t = 0; t < count; t++) {
+                ps.setString(1, tagName(t));
+                try (var rs = ps.executeQuery()) {
+                    rs.next();
+                    ids[t] = rs.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String tagName(int t) {
+        return WORDS[t % WORDS.length] + (t < WORDS.length ? "" : "-" + (t / WORDS.length));
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) cdf[k] /= sum;
+        return cdf;
+    }
+
+    private static int zipf(SplittableRandom rnd, double[] cdf) {
+        double u = rnd.nextDouble();
+        int lo = 0, hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < u) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // ---- Text ----
+
+    private static String text(SplittableRandom rnd, StringBuilder sb, int words, boolean capitalize) {
+        sb.setLength(0);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        if (capitalize && !sb.isEmpty()) sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    /** Log-normal verteilte Länge: die meisten kurz, einige sehr lang. */
+    private static String body(SplittableRandom rnd, StringBuilder sb, int medianChars) {
+        double gaussian = Math.sqrt(-2 * Math.log(1 - rnd.nextDouble())) * Math.cos(2 * Math.PI * rnd.nextDouble());
+        int target = (int) Math.min(20_000, Math.max(0, medianChars * Math.exp(0.8 * gaussian)));
+        sb.setLength(0);
+        while (sb.length() < target) {
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+            sb.append(rnd.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return sb.toString();
+    }
+
+    private static String pick(SplittableRandom rnd, String[] values, double[] weights) {
+        double u = rnd.nextDouble();
+        for (int i = 0; i < values.length; i++) {
+            u -= weights[i];
+            if (u < 0) return values[i];
+        }
+        return values[values.length - 1];
+    }
+
+    private static void createSparseFile(Path file, long size) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.setLength(size);   // sparse: belegt kaum Platz, hat aber die echte Größe
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Anhang konnte nicht angelegt werden: " + file, e);
+        }
+    }
+
+    // ---- Trigger/Indizes aussetzen ----
+
+    /**
+     * Entfernt die Trigger, die idea_fts pflegen, sowie die Sekundärindizes der befüllten Tabellen
+     * (nachträglich sortiert aufbauen ist viel schneller als 1M Einzel-Updates). Das SQL zum
+     * Wiederherstellen steht vorher in {@code settings} (eigene Transaktion – übersteht auch einen Absturz).
+     */
+    private static List<String> suspendTriggersAndIndexes(Connection c) throws SQLException {
+        var sqls = new ArrayList<String>();
+        var drops = new ArrayList<String>();
+        try (var st = c.createStatement(); var rs = st.executeQuery("""
+                SELECT type, name, sql FROM sqlite_master
+                WHERE sql IS NOT NULL
+                  AND ((type = 'trigger' AND sql LIKE '%idea_fts%')
+                    OR (type = 'index' AND tbl_name IN ('idea', 'idea_tag', 'reminder', 'attachment')))
+                ORDER BY type, name
+                """)) {
+            while (rs.next()) {
+                drops.add("DROP " + rs.getString(1).toUpperCase(Locale.ROOT) + " IF EXISTS " + rs.getString(2));
+                sqls.add(rs.getString(3));
+            }
+        }
+        if (sqls.isEmpty()) return sqls;
+        c.setAutoCommit(false);
+        try (var st = c.createStatement();
+             var ps = c.prepareStatement("""
+                 INSERT INTO settings (key, value) VALUES (?, ?)
+                 ON CONFLICT(key) DO UPDATE SET value = excluded.value
+                 """)) {
+            ps.setString(1, SUSPENDED_KEY);
+            ps.setString(2, String.join(SEPARATOR, sqls));
+            ps.executeUpdate();
+            for (String drop : drops) st.execute(drop);
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(true);
+        }
+        return sqls;
+    }
+
+    private static void restore(Connection c, List<String> sqls) throws SQLException {
+        if (sqls.isEmpty()) return;
+        c.setAutoCommit(false);
+        try (var st = c.createStatement(); var ps = c.prepareStatement("DELETE FROM settings WHERE key = ?")) {
+            for (String sql : sqls) {
+                st.execute(sql.replaceFirst("(?i)^CREATE (UNIQUE )?(TRIGGER|INDEX) ", "CREATE $1$2 IF NOT EXISTS "));
+            }
+            ps.setString(1, SUSPENDED_KEY);
+            ps.executeUpdate();
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+
+    /** Falls ein früherer Lauf abgebrochen wurde: ausgesetzte Trigger/Indizes zurückholen. */
+    private static void restoreSuspended(Connection c) throws SQLException {
+        String stored = null;
+        try (var ps = c.prepareStatement("SELECT value FROM settings WHERE key = ?")) {
+            ps.setString(1, SUSPENDED_KEY);
+            try (var rs = ps.executeQuery()) {
+                if (rs.next()) stored = rs.getString(1);
+            }
+        }
+        if (stored != null) restore(c, List.of(stored.split(SEPARATOR)));
+    }
+
+    // ---- FTS ----
+
+    /** Volltextindex für alle Ideen ab {@code firstId} (inkl. Tag-Namen) in einem Rutsch. */
+    private static void rebuildFullText(Connection c, long firstId) throws SQLException {
+        try (var st = c.createStatement(); var ps = c.prepareStatement("""
+                INSERT INTO idea_fts(rowid, title, body, tags)
+                SELECT i.id, i.title, COALESCE(i.body, ''),
+                       COALESCE((SELECT group_concat(t.name, ' ')
+                                 FROM idea_tag it JOIN tag t ON t.id = it.tag_id
+                                 WHERE it.idea_id = i.id), '')
+                FROM idea i
+                WHERE i.id >= ?
+                """)) {
+            // Während des Ladens nicht laufend Segmente zusammenführen, danach einmal komplett –
+            // spart gut ein Viertel und hinterlässt einen voll gemergten Index
+            st.execute("INSERT INTO idea_fts(idea_fts, rank) VALUES ('automerge', 0)");
+            try {
+                ps.setLong(1, firstId);
+                ps.executeUpdate();
+                st.execute("INSERT INTO idea_fts(idea_fts) VALUES ('optimize')");
+            } finally {
+                st.execute("INSERT INTO idea_fts(idea_fts, rank) VALUES ('automerge', " + FTS_AUTOMERGE + ")");
+            }
+        }
+    }
+
+    // ---- Kommandozeile ----
+
+    /** {@code DatasetGenerator [ideas] [seed] [dataDir|:memory:]} – Standard: 10k Ideen, Seed 42, ~/.mindstore. */
+    public static void main(String[] args) {
+        var spec = Spec.defaults();
+        if (args.length > 0) spec = spec.withIdeas(Integer.parseInt(args[0].replace("_", "")));
+        if (args.length > 1) spec = spec.withSeed(Long.parseLong(args[1]));
+        if (args.length > 2) {
+            DbManager.configure(DbConfig.MEMORY.equals(args[2])
+                    ? DbConfig.inMemory("dataset")
+                    : DbConfig.inDirectory(Paths.get(args[2])));
+        }
+        System.out.println("Erzeuge " + spec + " in " + DbManager.config());
+        try {
+            generate(spec, System.out::println);
+        } finally {
+            DbManager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.kassel.db;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Wo die Datenbank und die übrigen Dateien (Anhänge, Logs, settings.properties) liegen.
+ * <p>
+ * Reihenfolge: {@link DbManager#configure(DbConfig)} vor dem ersten Zugriff, sonst Systemproperty,
+ * sonst Umgebungsvariable, sonst {@code ~/.mindstore/mindstore.db}:
+ * <ul>
+ *   <li>{@code -Dmindstore.dataDir=…} / {@code MINDSTORE_DATA_DIR} – Datenverzeichnis</li>
+ *   <li>{@code -Dmindstore.dbFile=…} / {@code MINDSTORE_DB_FILE} – DB-Datei (relativ zum Datenverzeichnis);
+ *       {@code :memory:} schaltet auf eine In-Memory-DB um</li>
+ * </ul>
+ * Im In-Memory-Modus teilen sich alle Pool-Verbindungen per {@code cache=shared} eine Datenbank;
+ * sie lebt, solange der Pool offen ist, und berührt die Platte nicht.
+ */
+public record DbConfig(
+        Path dataDir,          // Anhänge, Logs, settings.properties
+        Path dbFile,           // null im In-Memory-Modus
+        String memoryName      // != null: benannte In-Memory-DB (mehrere parallel möglich)
+) {
+    public static final String MEMORY = ":memory:";
+
+    public DbConfig {
+        if (dataDir == null) throw new IllegalArgumentException("dataDir fehlt");
+        if ((dbFile == null) == (memoryName == null)) {
+            throw new IllegalArgumentException("entweder dbFile oder memoryName angeben");
+        }
+    }
+
+    /** Datei-DB {@code mindstore.db} im angegebenen Datenverzeichnis. */
+    public static DbConfig inDirectory(Path dataDir) {
+        return new DbConfig(dataDir, dataDir.resolve("mindstore.db"), null);
+    }
+
+    /** Benannte, gemeinsam genutzte In-Memory-DB; Dateien (Anhänge …) landen im Temp-Verzeichnis. */
+    public static DbConfig inMemory(String name) {
+        return new DbConfig(Paths.get(System.getProperty("java.io.tmpdir"), "mindstore-" + name), null, name);
+    }
+
+    public static DbConfig defaults() {
+        return inDirectory(Paths.get(System.getProperty("user.home"), ".mindstore"));
+    }
+
+    /** Defaults, überschrieben durch {@code mindstore.*}-Systemproperties bzw. {@code MINDSTORE_*}-Variablen. */
+    public static DbConfig fromEnvironment() {
+        String dir = setting("mindstore.dataDir", "MINDSTORE_DATA_DIR");
+        String file = setting("mindstore.dbFile", "MINDSTORE_DB_FILE");
+        Path dataDir = dir != null ? Paths.get(dir) : defaults().dataDir();
+        if (MEMORY.equals(file)) {
+            return dir != null ? new DbConfig(dataDir, null, "mindstore") : inMemory("mindstore");
+        }
+        return file != null ? new DbConfig(dataDir, dataDir.resolve(file), null) : inDirectory(dataDir);
+    }
+
+    private static String setting(String property, String env) {
+        String v = System.getProperty(property);
+        if (v == null || v.isBlank()) v = System.getenv(env);
+        return v == null || v.isBlank() ? null : v.trim();
+    }
+
+    public boolean inMemory() {
+        return memoryName != null;
+    }
+
+    public String jdbcUrl() {
+        return inMemory()
+                ? "jdbc:sqlite:file:" + memoryName + "?mode=memory&cache=shared"
+                : "jdbc:sqlite:" + dbFile;
+    }
+
+    public Path attachmentsDir() {
+        return dataDir.resolve("attachments");
+    }
+
+    public Path logsDir() {
+        return dataDir.resolve("logs");
+    }
+
+    @Override
+    public String toString() {
+        return inMemory() ? "DbConfig[memory:" + memoryName + ", dataDir=" + dataDir + "]"
+                : "DbConfig[" + dbFile + "]";
+    }
+}
@@ -1,47 +1,16 @@
 package de.kassel.db;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import de.kassel.db.metrics.MetricsSnapshot;
+import de.kassel.db.metrics.QueryMetrics;
+
 import java.sql.*;
-import java.util.stream.Collectors;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.io.IOException;
 
 public class DbManager {
 
-    // --- Added by packaging helper: ensure SQLite driver & DB directory ---
-    private static final String APP_DIR_NAME__MS = ".mindstore";
-    private static final String DB_FILE_NAME__MS = "mindstore.db";
-
-    private static java.nio.file.Path dbDir__ms() {
-        return java.nio.file.Paths.get(System.getProperty("user.home"), APP_DIR_NAME__MS);
-    }
-    private static java.nio.file.Path dbPath__ms() {
-        return dbDir__ms().resolve(DB_FILE_NAME__MS);
-    }
-    /** Returns a canonical JDBC url for the packaged app. */
-    public static String jdbcUrl__ms() {
-        return "jdbc:sqlite:" + dbPath__ms().toString();
-    }
-    /** Ensures ~/.mindstore exists. */
-    private static void ensureDbDir__ms() {
-        try {
-            java.nio.file.Files.createDirectories(dbDir__ms());
-        } catch (java.io.IOException e) {
-            throw new RuntimeException("Konnte DB-Verzeichnis nicht anlegen: " + dbDir__ms(), e);
-        }
-    }
     static {
-        // Ensure DB directory exists early
-        try {
-            ensureDbDir__ms();
-        } catch (RuntimeException ex) {
-            System.err.println("[MindStore] DB-Verzeichnis-Init fehlgeschlagen: " + ex.getMessage());
-            throw ex;
-        }
         // Ensure SQLite JDBC driver is registered (robust for jlink/jpackage)
         try {
             Class.forName("org.sqlite.JDBC");
@@ -49,83 +18,150 @@ public class DbManager {
             throw new RuntimeException("SQLite JDBC-Treiber nicht gefunden. Abhängigkeit 'org.xerial:sqlite-jdbc' fehlt im Paket?", e);
         }
     }
-// --- end added ---
 
-    private static final String APP_DIR = System.getProperty("user.home") + "/.mindstore";
-    private static final String DB_URL  = "jdbc:sqlite:" + APP_DIR + "/mindstore.db";
-    private static volatile boolean initialized = false;
+    private static volatile DbConfig dbConfig;
+    private static volatile ConnectionPool pool;
 
     private DbManager() {}
 
+    /**
+     * Legt Datenbank und Datenverzeichnis fest (z. B. für Benchmarks oder eine Wegwerf-Workspace).
+     * Nur vor dem ersten {@link #getConnection()} bzw. nach {@link #shutdown()} erlaubt.
+     */
+    public static void configure(DbConfig config) {
+        synchronized (DbManager.class) {
+            if (pool != null) throw new IllegalStateException("DB ist bereits geöffnet: " + dbConfig);
+            dbConfig = config;
+        }
+    }
+
+    /** Aktive Konfiguration; ohne {@link #configure} aus Systemproperties/Umgebung. */
+    public static DbConfig config() {
+        var c = dbConfig;
+        if (c != null) return c;
+        synchronized (DbManager.class) {
+            if (dbConfig == null) dbConfig = DbConfig.fromEnvironment();
+            return dbConfig;
+        }
+    }
+
+    /** Returns a canonical JDBC url for the packaged app. */
+    public static String jdbcUrl__ms() {
+        return config().jdbcUrl();
+    }
+
+
 
 
+    /**
+     * Leiht eine Verbindung aus dem Pool aus. {@code close()} gibt sie zurück,
+     * PRAGMAs und Schema werden nur einmal pro physischer Verbindung bzw. pro Prozess ausgeführt.
+     */
     public static Connection getConnection() throws SQLException {
-        new java.io.File(APP_DIR).mkdirs();
+        return pool().acquire();
+    }
 
-        Connection c = DriverManager.getConnection(DB_URL);
-        try (Statement st = c.createStatement()) {
-            st.execute("PRAGMA foreign_keys=ON;");
-            st.execute("PRAGMA journal_mode=WAL;");
-            st.execute("PRAGMA synchronous=NORMAL;");
-        }
-        if (!initialized) {
-            synchronized (DbManager.class) {
-                if (!initialized) {
-                    initSchema(c);
-                    initialized = true;
+    /** Arbeitsschritt auf einer geliehenen Verbindung (für {@link #inWriteTransaction}). */
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T apply(Connection c) throws SQLException;
+    }
+
+    /**
+     * Führt {@code work} in EINER Schreibtransaktion aus ({@code BEGIN IMMEDIATE}: Schreibsperre
+     * sofort, kein späteres SQLITE_BUSY beim Hochstufen); bei Fehlern ROLLBACK.
+     */
+    static <T> T inWriteTransaction(SqlWork<T> work) {
+        try (Connection c = getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(true);
+            try (Statement st = c.createStatement()) {
+                st.execute("BEGIN IMMEDIATE");
+                try {
+                    T result = work.apply(c);
+                    st.execute("COMMIT");
+                    return result;
+                } catch (SQLException | RuntimeException ex) {
+                    try { st.execute("ROLLBACK"); } catch (SQLException ignore) { }
+                    throw ex;
                 }
+            } finally {
+                c.setAutoCommit(autoCommit);
             }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
         }
-        return c;
     }
 
-    private static void initSchema(Connection c) {
-        try (var in = DbManager.class.getResourceAsStream("/db/schema.sql")) {
-            if (in == null) throw new IllegalStateException("schema.sql not found at /db/schema.sql");
+    /** Aktuelle Pool-Kennzahlen (Wartezeit, aktive/freie Verbindungen …). */
+    public static PoolStats poolStats() {
+        var p = pool;
+        return p == null ? new PoolStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0) : p.stats();
+    }
 
-            String sql = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))
-                    .lines().collect(Collectors.joining("\n"));
+    /** Treffer/Fehlschläge des Statement-Caches über alle Pool-Verbindungen. */
+    public static StatementCacheStats statementCacheStats() {
+        var p = pool;
+        return p == null ? new StatementCacheStats(0, 0, 0, 0, 0) : p.statementStats();
+    }
 
-            var statements = splitSqlStatements(sql);
+    /** Latenz/Zeilen je Repository-Methode und Wartezeit auf Verbindungen (auch per JMX/JFR). */
+    public static MetricsSnapshot queryMetrics() {
+        return QueryMetrics.snapshot();
+    }
 
-            try (Statement st = c.createStatement()) {
-                // 1) PRAGMAs aus Datei (falls vorhanden) VOR der Transaktion ausführen
-                for (String s : statements) {
-                    if (s.trim().toUpperCase().startsWith("PRAGMA ")) {
-                        st.execute(s);
-                    }
-                }
+    /** Schließt alle Pool-Verbindungen (beim Beenden der App). */
+    public static void shutdown() {
+        synchronized (DbManager.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+    }
 
-                // 2) Alle übrigen Statements in EINER Transaktion ausführen
-                st.execute("BEGIN;");
-                for (String s : statements) {
-                    String up = s.trim().toUpperCase();
-                    if (up.startsWith("PRAGMA ")
-                            || up.startsWith("BEGIN")
-                            || up.startsWith("START TRANSACTION")
-                            || up.startsWith("COMMIT")
-                            || up.startsWith("END TRANSACTION")) {
-                        continue; // Marker/PRAGMAs auslassen
-                    }
-                    try {
-                        st.execute(s);
-                    } catch (Exception ex) {
-                        System.err.println("SQL failed: " + s);
-                        throw ex;
-                    }
+    private static ConnectionPool pool() throws SQLException {
+        var p = pool;
+        if (p != null) return p;
+        synchronized (DbManager.class) {
+            if (pool == null) {
+                var db = config();
+                if (!db.inMemory()) ensureDirectory(db.dbFile().toAbsolutePath().getParent());
+                var config = PoolConfig.fromSystemProperties();
+                var created = new ConnectionPool(db.jdbcUrl(), config, c -> configureConnection(c, config, db));
+                try (Connection c = created.acquire()) {
+                    initSchema(c);
+                } catch (SQLException | RuntimeException e) {
+                    created.close();
+                    throw e;
                 }
-                st.execute("COMMIT;");
+                pool = created;
+                QueryMetrics.registerMBean();
             }
+            return pool;
+        }
+    }
 
-            // 3) Seed-Daten (falls leer)
-            seedIfEmpty(c);
-
-            // 4) Migrationen / nachträgliche Spalten
-//            ensureReminderNoteColumn(c);  // <- fügt reminder.note hinzu, falls fehlt
-            ensureDeletedAtColumn(c);     // <- fügt idea.deleted_at hinzu, falls fehlt
-            ensureAttachmentTable(c);
-            ensureAttachmentFolder();
+    /** Einmalige Konfiguration einer neu geöffneten physischen Verbindung. */
+    private static void configureConnection(Connection c, PoolConfig config, DbConfig db) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("PRAGMA foreign_keys=ON;");
+            if (db.inMemory()) {
+                // Shared Cache sperrt tabellenweise (SQLITE_LOCKED, kein busy_timeout) -> Leser nicht blockieren
+                st.execute("PRAGMA read_uncommitted=ON;");
+            } else {
+                st.execute("PRAGMA journal_mode=WAL;");
+                st.execute("PRAGMA synchronous=NORMAL;");
+            }
+            st.execute("PRAGMA busy_timeout=" + config.busyTimeoutMillis() + ";");
+        }
+    }
 
+    /** Migriert das Schema, falls {@code user_version} nicht aktuell ist (sonst keine DDL). */
+    private static void initSchema(Connection c) {
+        try {
+            SchemaMigrator.migrate(c);
+            if (!config().inMemory()) ensureDirectory(config().attachmentsDir());
         } catch (Exception e) {
             throw new RuntimeException("Schema initialization failed", e);
         }
@@ -162,117 +198,11 @@ public class DbManager {
         }
     }
 
-    /**
-     * Zerlegt ein SQL-Skript in Statements.
-     * - Normale Statements enden am Semikolon
-     * - CREATE TRIGGER … END; wird als EIN Block behandelt
-     */
-    private static java.util.List<String> splitSqlStatements(String script) {
-        java.util.List<String> stmts = new java.util.ArrayList<>();
-        String[] lines = script.split("\\r?\\n");
-        StringBuilder buf = new StringBuilder();
-        boolean inTrigger = false;
-
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (!inTrigger) {
-                if (trimmed.regionMatches(true, 0, "CREATE TRIGGER", 0, "CREATE TRIGGER".length())) {
-                    inTrigger = true;
-                    buf.setLength(0);
-                    buf.append(line).append("\n");
-                    continue;
-                }
-                buf.append(line).append("\n");
-                String current = buf.toString();
-                int idx;
-                while ((idx = current.indexOf(';')) >= 0) {
-                    String stmt = current.substring(0, idx).trim();
-                    if (!stmt.isEmpty()) stmts.add(stmt + ";");
-                    current = current.substring(idx + 1);
-                }
-                buf.setLength(0);
-                buf.append(current);
-            } else {
-                buf.append(line).append("\n");
-                // Trigger endet mit "END;" (Case-insensitive)
-                if (trimmed.equalsIgnoreCase("END;") || trimmed.equalsIgnoreCase("END")) {
-                    String stmt = buf.toString().trim();
-                    if (!stmt.endsWith(";")) stmt = stmt + ";";
-                    stmts.add(stmt);
-                    buf.setLength(0);
-                    inTrigger = false;
-                }
-            }
-        }
-        // Rest anhängen
-        String rest = buf.toString().trim();
-        if (!rest.isEmpty()) {
-            if (!rest.endsWith(";")) rest = rest + ";";
-            stmts.add(rest);
-        }
-        return stmts;
-    }
-
-    /** Fügt idea.deleted_at (INTEGER) hinzu, falls die Spalte fehlt. */
-    private static void ensureDeletedAtColumn(Connection c) {
-        try (var st = c.createStatement()) {
-            boolean has = false;
-            try (var rs = st.executeQuery("PRAGMA table_info(idea)")) {
-                while (rs.next()) {
-                    if ("deleted_at".equalsIgnoreCase(rs.getString("name"))) {
-                        has = true; break;
-                    }
-                }
-            }
-            if (!has) {
-                st.execute("ALTER TABLE idea ADD COLUMN deleted_at INTEGER");
-                st.execute("CREATE INDEX IF NOT EXISTS idx_idea_deleted_at ON idea(deleted_at)");
-                System.out.println("⚙️  Spalte 'deleted_at' in idea nachgerüstet.");
-            }
-        } catch (Exception ignore) {
-            // bei sehr alten SQLite-Versionen ggf. kein ALTER – dann Migration später lösen
-        }
-    }
-
-    private static void ensureAttachmentTable(Connection c) {
-        try (var st = c.createStatement()) {
-            // Prüfen, ob Tabelle existiert
-            boolean exists = false;
-            try (var rs = st.executeQuery(
-                    "SELECT name FROM sqlite_master WHERE type='table' AND name='attachment'")) {
-                exists = rs.next();
-            }
-
-            if (!exists) {
-                // Tabelle + Index anlegen
-                st.execute("""
-                CREATE TABLE IF NOT EXISTS attachment (
-                  id         INTEGER PRIMARY KEY AUTOINCREMENT,
-                  idea_id    INTEGER NOT NULL REFERENCES idea(id) ON DELETE CASCADE,
-                  file_name  TEXT NOT NULL,
-                  file_path  TEXT NOT NULL,
-                  size_bytes INTEGER,
-                  mime_type  TEXT,
-                  created_at INTEGER NOT NULL DEFAULT (strftime('%s','now'))
-                );
-            """);
-
-                st.execute("""
-                CREATE INDEX IF NOT EXISTS idx_attachment_idea_id ON attachment(idea_id);
-            """);
-            }
-        } catch (Exception e) {
-            // nicht hart failen – nur loggen
-            System.err.println("ensureAttachmentTable failed: " + e.getMessage());
-        }
-    }
-
-    private static void ensureAttachmentFolder() {
+    private static void ensureDirectory(Path dir) {
         try {
-            var dir = java.nio.file.Paths.get(System.getProperty("user.home"), ".mindstore", "attachments");
-            java.nio.file.Files.createDirectories(dir);
-        } catch (Exception ignore) { }
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Konnte Verzeichnis nicht anlegen: " + dir, e);
+        }
     }
-
-
-}
\ No newline at end of file
+}
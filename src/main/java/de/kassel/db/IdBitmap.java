@@ -0,0 +1,434 @@
+package de.kassel.db;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Komprimierte Menge von Idee-IDs (0 … 2³²−1) nach dem Roaring-Prinzip: die oberen 16 Bit
+ * wählen einen Container, die unteren 16 Bit liegen darin – bis {@link #ARRAY_MAX} Werte als
+ * sortiertes {@code char[]}, darüber als Bitmap aus 1024 {@code long}s (8 KB). Nur primitive
+ * Arrays, kein Boxing.
+ * <p>
+ * {@link #and}/{@link #or}/{@link #andNot} liefern neue Mengen und wählen je Container die
+ * kleinere Darstellung; {@link #andCardinality} zählt ohne Ergebnis anzulegen (Tag-Zähler,
+ * dafür mit {@link #toDense()} vorbereitet).
+ * Nicht threadsicher.
+ */
+public final class IdBitmap {
+
+    /** Ab mehr Werten wird ein Container zur Bitmap (4096 × 2 Byte = 8 KB = Bitmap-Größe). */
+    static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4];   // char[] (sortiert) oder long[WORDS]
+    private int[] cards = new int[4];
+    private int size;
+
+    public IdBitmap() {}
+
+    public static IdBitmap of(long... ids) {
+        var b = new IdBitmap();
+        for (long id : ids) b.add(id);
+        return b;
+    }
+
+    // ---- Einzelwerte ----
+
+    public void add(long id) {
+        char key = key(id);
+        char low = (char) id;
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, key, new char[]{low}, 1);
+            return;
+        }
+        if (containers[i] instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cards[i]++;
+            }
+            return;
+        }
+        char[] values = (char[]) containers[i];
+        int card = cards[i];
+        // schneller Weg beim Laden in aufsteigender Reihenfolge: anhängen
+        int pos = card > 0 && values[card - 1] < low ? -(card + 1) : Arrays.binarySearch(values, 0, card, low);
+        if (pos >= 0) return;
+        pos = -pos - 1;
+        if (card == ARRAY_MAX) {
+            long[] words = toWords(values, card);
+            words[low >>> 6] |= 1L << low;
+            containers[i] = words;
+            cards[i] = card + 1;
+            return;
+        }
+        if (card == values.length) {
+            values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, card * 2)));
+            containers[i] = values;
+        }
+        System.arraycopy(values, pos, values, pos + 1, card - pos);
+        values[pos] = low;
+        cards[i] = card + 1;
+    }
+
+    public boolean remove(long id) {
+        int i = indexOf(key(id));
+        if (i < 0) return false;
+        char low = (char) id;
+        boolean removed;
+        if (containers[i] instanceof long[] words) {
+            long bit = 1L << low;
+            removed = (words[low >>> 6] & bit) != 0;
+            if (removed) {
+                words[low >>> 6] &= ~bit;
+                if (--cards[i] <= ARRAY_MAX) containers[i] = toValues(words, cards[i]);
+            }
+        } else {
+            char[] values = (char[]) containers[i];
+            int pos = Arrays.binarySearch(values, 0, cards[i], low);
+            removed = pos >= 0;
+            if (removed) {
+                System.arraycopy(values, pos + 1, values, pos, cards[i] - pos - 1);
+                cards[i]--;
+            }
+        }
+        if (removed && cards[i] == 0) removeContainer(i);
+        return removed;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0 || id > 0xFFFF_FFFFL) return false;
+        int i = indexOf(key(id));
+        if (i < 0) return false;
+        char low = (char) id;
+        if (containers[i] instanceof long[] words) return (words[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) containers[i], 0, cards[i], low) >= 0;
+    }
+
+    public long cardinality() {
+        long n = 0;
+        for (int i = 0; i < size; i++) n += cards[i];
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Alle IDs aufsteigend. */
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            long high = (long) keys[i] << 16;
+            if (containers[i] instanceof long[] words) {
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) containers[i];
+                for (int k = 0; k < cards[i]; k++) action.accept(high | values[k]);
+            }
+        }
+    }
+
+    public IdBitmap copy() {
+        var b = new IdBitmap();
+        b.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            Object c = containers[i];
+            b.append(keys[i], c instanceof long[] w ? w.clone() : Arrays.copyOf((char[]) c, cards[i]), cards[i]);
+        }
+        return b;
+    }
+
+    /**
+     * Kopie mit ausschließlich Bitmap-Containern. Größer, aber {@link #andCardinality} gegen sie
+     * ist ein Bit-Test je Wert statt eines Merges – lohnt, wenn dieselbe Menge gegen viele andere
+     * gezählt wird (Tag-Zähler eines Ergebnisses).
+     */
+    public IdBitmap toDense() {
+        var b = new IdBitmap();
+        b.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            Object c = containers[i];
+            b.append(keys[i], c instanceof long[] w ? w.clone() : toWords((char[]) c, cards[i]), cards[i]);
+        }
+        return b;
+    }
+
+    // ---- Mengenoperationen ----
+
+    public IdBitmap and(IdBitmap other) {
+        var out = new IdBitmap();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            int cmp = Character.compare(keys[i], other.keys[j]);
+            if (cmp < 0) i++;
+            else if (cmp > 0) j++;
+            else {
+                out.appendResult(keys[i], and(containers[i], cards[i], other.containers[j], other.cards[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    public IdBitmap or(IdBitmap other) {
+        var out = new IdBitmap();
+        out.ensureCapacity(size + other.size);
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            int cmp = i == size ? 1 : j == other.size ? -1 : Character.compare(keys[i], other.keys[j]);
+            if (cmp < 0) {
+                out.append(keys[i], copyOf(containers[i], cards[i]), cards[i]);
+                i++;
+            } else if (cmp > 0) {
+                out.append(other.keys[j], copyOf(other.containers[j], other.cards[j]), other.cards[j]);
+                j++;
+            } else {
+                out.appendResult(keys[i], or(containers[i], cards[i], other.containers[j], other.cards[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /** {@code this \ other} (für NOT: Gesamtmenge.andNot(x)). */
+    public IdBitmap andNot(IdBitmap other) {
+        var out = new IdBitmap();
+        out.ensureCapacity(size);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            if (j < other.size && other.keys[j] == keys[i]) {
+                out.appendResult(keys[i], andNot(containers[i], cards[i], other.containers[j], other.cards[j]));
+            } else {
+                out.append(keys[i], copyOf(containers[i], cards[i]), cards[i]);
+            }
+        }
+        return out;
+    }
+
+    /** |this ∩ other| ohne Zwischenergebnis. */
+    public long andCardinality(IdBitmap other) {
+        long n = 0;
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            int cmp = Character.compare(keys[i], other.keys[j]);
+            if (cmp < 0) i++;
+            else if (cmp > 0) j++;
+            else {
+                n += andCardinality(containers[i], cards[i], other.containers[j], other.cards[j]);
+                i++;
+                j++;
+            }
+        }
+        return n;
+    }
+
+    // ---- Container-Operationen ----
+
+    /** Ergebnis eines Container-Paars: Container (char[] oder long[]) plus Kardinalität. */
+    private record Result(Object container, int card) { }
+
+    private static Result and(Object a, int ca, Object b, int cb) {
+        if (a instanceof long[] wa && b instanceof long[] wb) {
+            long[] w = new long[WORDS];
+            int card = 0;
+            for (int k = 0; k < WORDS; k++) card += Long.bitCount(w[k] = wa[k] & wb[k]);
+            return best(w, card);
+        }
+        if (a instanceof long[] wa) return filter((char[]) b, cb, wa, true);
+        if (b instanceof long[] wb) return filter((char[]) a, ca, wb, true);
+        char[] va = (char[]) a, vb = (char[]) b;
+        char[] out = new char[Math.min(ca, cb)];
+        int n = 0, i = 0, j = 0;
+        while (i < ca && j < cb) {
+            if (va[i] < vb[j]) i++;
+            else if (va[i] > vb[j]) j++;
+            else {
+                out[n++] = va[i];
+                i++;
+                j++;
+            }
+        }
+        return new Result(out, n);
+    }
+
+    private static Result or(Object a, int ca, Object b, int cb) {
+        if (a instanceof long[] || b instanceof long[]) {
+            long[] w = a instanceof long[] wa ? wa.clone() : toWords((char[]) a, ca);
+            if (b instanceof long[] wb) {
+                for (int k = 0; k < WORDS; k++) w[k] |= wb[k];
+            } else {
+                char[] vb = (char[]) b;
+                for (int k = 0; k < cb; k++) w[vb[k] >>> 6] |= 1L << vb[k];
+            }
+            return best(w, cardinality(w));
+        }
+        char[] va = (char[]) a, vb = (char[]) b;
+        char[] out = new char[ca + cb];
+        int n = 0, i = 0, j = 0;
+        while (i < ca || j < cb) {
+            if (j == cb || (i < ca && va[i] < vb[j])) out[n++] = va[i++];
+            else if (i == ca || vb[j] < va[i]) out[n++] = vb[j++];
+            else {
+                out[n++] = va[i];
+                i++;
+                j++;
+            }
+        }
+        return n > ARRAY_MAX ? new Result(toWords(out, n), n) : new Result(out, n);
+    }
+
+    private static Result andNot(Object a, int ca, Object b, int cb) {
+        if (a instanceof long[] wa) {
+            long[] w = wa.clone();
+            if (b instanceof long[] wb) {
+                for (int k = 0; k < WORDS; k++) w[k] &= ~wb[k];
+            } else {
+                char[] vb = (char[]) b;
+                for (int k = 0; k < cb; k++) w[vb[k] >>> 6] &= ~(1L << vb[k]);
+            }
+            return best(w, cardinality(w));
+        }
+        if (b instanceof long[] wb) return filter((char[]) a, ca, wb, false);
+        char[] va = (char[]) a, vb = (char[]) b;
+        char[] out = new char[ca];
+        int n = 0, j = 0;
+        for (int i = 0; i < ca; i++) {
+            while (j < cb && vb[j] < va[i]) j++;
+            if (j == cb || vb[j] != va[i]) out[n++] = va[i];
+        }
+        return new Result(out, n);
+    }
+
+    private static int andCardinality(Object a, int ca, Object b, int cb) {
+        if (a instanceof long[] wa && b instanceof long[] wb) {
+            int card = 0;
+            for (int k = 0; k < WORDS; k++) card += Long.bitCount(wa[k] & wb[k]);
+            return card;
+        }
+        if (a instanceof long[] || b instanceof long[]) {
+            long[] w = a instanceof long[] wa ? wa : (long[]) b;
+            char[] v = a instanceof long[] ? (char[]) b : (char[]) a;
+            int cv = a instanceof long[] ? cb : ca;
+            int card = 0;
+            for (int k = 0; k < cv; k++) card += (int) (w[v[k] >>> 6] >>> v[k]) & 1;
+            return card;
+        }
+        char[] va = (char[]) a, vb = (char[]) b;
+        int card = 0, i = 0, j = 0;
+        // ohne Verzweigung je Schritt – bei verzahnten Werten sonst fast jede falsch vorhergesagt
+        while (i < ca && j < cb) {
+            int d = va[i] - vb[j];
+            card += d == 0 ? 1 : 0;
+            i += d <= 0 ? 1 : 0;
+            j += d >= 0 ? 1 : 0;
+        }
+        return card;
+    }
+
+    /** Array-Werte behalten ({@code keep=true}) bzw. verwerfen, deren Bit in {@code words} gesetzt ist. */
+    private static Result filter(char[] values, int card, long[] words, boolean keep) {
+        char[] out = new char[card];
+        int n = 0;
+        for (int k = 0; k < card; k++) {
+            boolean set = (words[values[k] >>> 6] & (1L << values[k])) != 0;
+            if (set == keep) out[n++] = values[k];
+        }
+        return new Result(out, n);
+    }
+
+    private static Result best(long[] words, int card) {
+        return card <= ARRAY_MAX ? new Result(toValues(words, card), card) : new Result(words, card);
+    }
+
+    private static long[] toWords(char[] values, int card) {
+        long[] w = new long[WORDS];
+        for (int k = 0; k < card; k++) w[values[k] >>> 6] |= 1L << values[k];
+        return w;
+    }
+
+    private static char[] toValues(long[] words, int card) {
+        char[] out = new char[Math.max(card, 1)];
+        int n = 0;
+        for (int k = 0; k < WORDS; k++) {
+            long word = words[k];
+            while (word != 0) {
+                out[n++] = (char) ((k << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return out;
+    }
+
+    private static int cardinality(long[] words) {
+        int card = 0;
+        for (long w : words) card += Long.bitCount(w);
+        return card;
+    }
+
+    private static Object copyOf(Object container, int card) {
+        return container instanceof long[] w ? w.clone() : Arrays.copyOf((char[]) container, card);
+    }
+
+    // ---- Verwaltung der Container ----
+
+    private static char key(long id) {
+        if (id < 0 || id > 0xFFFF_FFFFL) throw new IllegalArgumentException("ID außerhalb 0…2^32-1: " + id);
+        return (char) (id >>> 16);
+    }
+
+    private int indexOf(char key) {
+        // häufigster Fall beim Laden: letzter Container
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void appendResult(char key, Result r) {
+        if (r.card() > 0) append(key, r.container(), r.card());
+    }
+
+    private void append(char key, Object container, int card) {
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        containers[size] = container;
+        cards[size] = card;
+        size++;
+    }
+
+    private void insertContainer(int i, char key, Object container, int card) {
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        System.arraycopy(cards, i, cards, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        cards[i] = card;
+        size++;
+    }
+
+    private void removeContainer(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        System.arraycopy(cards, i + 1, cards, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= keys.length) return;
+        int cap = Math.max(n, keys.length * 2);
+        keys = Arrays.copyOf(keys, cap);
+        containers = Arrays.copyOf(containers, cap);
+        cards = Arrays.copyOf(cards, cap);
+    }
+}
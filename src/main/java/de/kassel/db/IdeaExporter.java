@@ -0,0 +1,424 @@
+package de.kassel.db;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Exportiert den ganzen Bestand als JSON Lines oder CSV – eine Zeile je Idee mit Tags,
+ * Erinnerung und Anhängen; Feldnamen wie beim {@link IdeaImporter}, der Export lässt sich also
+ * wieder einlesen.
+ * <p>
+ * Speicherbedarf bleibt konstant, egal wie groß die Datenbank ist: vier vorwärts laufende
+ * Cursor ({@code idea}, {@code idea_tag}⋈{@code tag}, {@code reminder}, {@code attachment}), alle
+ * nach Idee-ID sortiert über vorhandene Indizes, werden wie bei einem Merge-Join gemeinsam
+ * durchlaufen; nichts wird als Liste geladen. Geschrieben wird über einen festen Puffer in einen
+ * {@link FileChannel} (erst {@code <Ziel>.part}, am Ende umbenannt – ein abgebrochener Export
+ * hinterlässt keine halbe Datei unter dem Zielnamen).
+ * <p>
+ * Alles läuft in einer Lesetransaktion, der Export ist also ein konsistenter Schnappschuss;
+ * Schreiber arbeiten dank WAL weiter. Anhänge werden auf Wunsch nach
+ * {@code <Ziel ohne Endung>-attachments/<ideaId>/} kopiert.
+ * <p>
+ * Kommandozeile (z. B. nächtlich): {@code IdeaExporter <ziel.jsonl|ziel.csv> [--attachments] [--no-deleted] [dataDir]}.
+ */
+public final class IdeaExporter {
+
+    public enum Format {
+        JSONL, CSV;
+
+        /** Anhand der Dateiendung; alles außer {@code .csv} wird JSON Lines. */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSONL;
+        }
+    }
+
+    /** Was exportiert wird. */
+    public record Options(Format format, boolean attachmentFiles, boolean includeDeleted) {
+        public static Options defaults(Path target) {
+            return new Options(Format.of(target), false, true);
+        }
+
+        public Options withAttachmentFiles(boolean attachmentFiles) {
+            return new Options(format, attachmentFiles, includeDeleted);
+        }
+
+        public Options withIncludeDeleted(boolean includeDeleted) {
+            return new Options(format, attachmentFiles, includeDeleted);
+        }
+    }
+
+    public record Progress(long ideas, long totalIdeas, long bytesWritten, long elapsedMillis) {
+        public double fraction() {
+            return totalIdeas <= 0 ? 1.0 : Math.min(1.0, (double) ideas / totalIdeas);
+        }
+    }
+
+    public record Result(long ideas, long tagLinks, long reminders, long attachments, long attachmentBytes,
+                         int missingFiles, long bytes, long millis) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d Ideen exportiert (%.1f MB%s) in %.1f s",
+                    ideas, bytes / 1e6,
+                    attachmentBytes > 0 || missingFiles > 0
+                            ? String.format(Locale.ROOT, ", %d Anhänge mit %.1f MB, %d fehlen",
+                                    attachments, attachmentBytes / 1e6, missingFiles)
+                            : "",
+                    millis / 1000.0);
+        }
+    }
+
+    static final List<String> COLUMNS = List.of(
+            "id", "title", "body", "priority", "status", "effort_minutes", "created_at", "updated_at", "deleted_at",
+            "tags", "reminder_at", "reminder_note", "reminder_done", "attachments");
+
+    private static final int BUFFER_BYTES = 1 << 18;   // 256 KB
+    private static final int REPORT_EVERY = 5_000;
+
+    private IdeaExporter() {}
+
+    public static Result export(Path target, Consumer<Progress> progress) {
+        return export(target, Options.defaults(target), progress);
+    }
+
+    public static Result export(Path target, Options options, Consumer<Progress> progress) {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Result result;
+            try (Connection c = DbManager.getConnection();
+                 var channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                var out = new Utf8ChannelWriter(channel, BUFFER_BYTES);
+                result = new Run(c, out, target, options, progress).execute();
+                out.flushAndSync();
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return result;
+        } catch (IOException | SQLException e) {
+            try { Files.deleteIfExists(part); } catch (IOException ignore) { }
+            throw new RuntimeException("Export nach " + target + " fehlgeschlagen", e);
+        }
+    }
+
+    // ---- ein Exportlauf ----
+
+    private record AttachmentRow(String fileName, String filePath, Long sizeBytes, String mimeType) { }
+
+    private static final class Run {
+        private final Connection c;
+        private final Utf8ChannelWriter out;
+        private final Options options;
+        private final Consumer<Progress> progress;
+        private final Path attachmentDir;          // null: Dateien nicht kopieren
+        private final long t0 = System.nanoTime();
+
+        // je Idee wiederverwendet – Speicher hängt nicht von der Datenmenge ab
+        private final StringBuilder line = new StringBuilder(4096);
+        private final List<String> tags = new ArrayList<>();
+        private final List<AttachmentRow> attachments = new ArrayList<>();
+
+        private long ideas;
+        private long totalIdeas;
+        private long tagLinks;
+        private long reminders;
+        private long attachmentCount;
+        private long attachmentBytes;
+        private int missingFiles;
+
+        Run(Connection c, Utf8ChannelWriter out, Path target, Options options, Consumer<Progress> progress) {
+            this.c = c;
+            this.out = out;
+            this.options = options;
+            this.progress = progress;
+            String name = target.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            this.attachmentDir = options.attachmentFiles()
+                    ? target.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + "-attachments")
+                    : null;
+        }
+
+        Result execute() throws SQLException, IOException {
+            String ideaFilter = options.includeDeleted() ? "" : "WHERE deleted_at IS NULL";
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);                 // eine Lesetransaktion = ein Schnappschuss
+            try (var count = c.prepareStatement("SELECT COUNT(*) FROM idea " + ideaFilter);
+                 var ideaPs = c.prepareStatement("""
+                     SELECT id, title, body, priority, status, effort_minutes, created_at, updated_at, deleted_at
+                     FROM idea
+                     """ + ideaFilter + """
+
+                     ORDER BY id
+                     """);
+                 var tagPs = c.prepareStatement("""
+                     SELECT it.idea_id, t.name
+                     FROM idea_tag it JOIN tag t ON t.id = it.tag_id
+                     ORDER BY it.idea_id
+                     """);
+                 var reminderPs = c.prepareStatement("""
+                     SELECT idea_id, due_at, note, is_done FROM reminder ORDER BY idea_id
+                     """);
+                 var attachmentPs = c.prepareStatement("""
+                     SELECT idea_id, file_name, file_path, size_bytes, mime_type
+                     FROM attachment
+                     ORDER BY idea_id, id
+                     """)) {
+                try (var rs = count.executeQuery()) {
+                    totalIdeas = rs.next() ? rs.getLong(1) : 0;
+                }
+                if (options.format() == Format.CSV) writeCsvHeader();
+                try (var idea = ideaPs.executeQuery();
+                     var tag = new Cursor(tagPs);
+                     var reminder = new Cursor(reminderPs);
+                     var attachment = new Cursor(attachmentPs)) {
+                    while (idea.next()) {
+                        writeIdea(idea, tag, reminder, attachment);
+                        if (++ideas % REPORT_EVERY == 0) report();
+                    }
+                }
+            } finally {
+                c.rollback();
+                c.setAutoCommit(autoCommit);
+            }
+            report();
+            return new Result(ideas, tagLinks, reminders, attachmentCount, attachmentBytes, missingFiles,
+                    out.bytesWritten(), elapsedMillis());
+        }
+
+        private void writeIdea(ResultSet idea, Cursor tag, Cursor reminder, Cursor attachment)
+                throws SQLException, IOException {
+            long id = idea.getLong(1);
+
+            tags.clear();
+            while (tag.at(id)) {
+                tags.add(tag.rs.getString(2));
+                tag.advance();
+            }
+            tagLinks += tags.size();
+
+            Long dueAt = null;
+            String note = null;
+            Boolean done = null;
+            if (reminder.at(id)) {                  // idea_id ist in reminder eindeutig
+                dueAt = reminder.rs.getLong(2);
+                note = reminder.rs.getString(3);
+                done = reminder.rs.getInt(4) != 0;
+                reminder.advance();
+                reminders++;
+            }
+
+            attachments.clear();
+            while (attachment.at(id)) {
+                var rs = attachment.rs;
+                attachments.add(new AttachmentRow(rs.getString(2), rs.getString(3),
+                        rs.getObject(4) == null ? null : rs.getLong(4), rs.getString(5)));
+                attachment.advance();
+            }
+            attachmentCount += attachments.size();
+
+            line.setLength(0);
+            if (options.format() == Format.CSV) csvRow(idea, id, dueAt, note, done);
+            else jsonRow(idea, id, dueAt, note, done);
+            out.write(line);
+        }
+
+        // ---- JSON Lines ----
+
+        private void jsonRow(ResultSet idea, long id, Long dueAt, String note, Boolean done)
+                throws SQLException, IOException {
+            line.append("{\"id\":").append(id);
+            line.append(",\"title\":");
+            JsonLines.appendString(line, idea.getString(2));
+            line.append(",\"body\":");
+            JsonLines.appendString(line, idea.getString(3));
+            line.append(",\"priority\":").append(idea.getInt(4));
+            line.append(",\"status\":");
+            JsonLines.appendString(line, idea.getString(5));
+            line.append(",\"effort_minutes\":").append(nullableLong(idea, 6));
+            line.append(",\"created_at\":").append(idea.getLong(7));
+            line.append(",\"updated_at\":").append(nullableLong(idea, 8));
+            line.append(",\"deleted_at\":").append(nullableLong(idea, 9));
+            line.append(",\"tags\":[");
+            for (int i = 0; i < tags.size(); i++) {
+                if (i > 0) line.append(',');
+                JsonLines.appendString(line, tags.get(i));
+            }
+            line.append("],\"reminder_at\":").append(dueAt);
+            line.append(",\"reminder_note\":");
+            JsonLines.appendString(line, note);
+            line.append(",\"reminder_done\":").append(done);
+            line.append(",\"attachments\":[");
+            for (int i = 0; i < attachments.size(); i++) {
+                var a = attachments.get(i);
+                if (i > 0) line.append(',');
+                line.append("{\"file_name\":");
+                JsonLines.appendString(line, a.fileName());
+                line.append(",\"path\":");
+                JsonLines.appendString(line, exportedPath(id, a));
+                line.append(",\"size_bytes\":").append(a.sizeBytes());
+                line.append(",\"mime_type\":");
+                JsonLines.appendString(line, a.mimeType());
+                line.append('}');
+            }
+            line.append("]}\n");
+        }
+
+        // ---- CSV ----
+
+        private void writeCsvHeader() throws IOException {
+            line.setLength(0);
+            line.append(String.join(",", COLUMNS)).append("\r\n");
+            out.write(line);
+        }
+
+        private void csvRow(ResultSet idea, long id, Long dueAt, String note, Boolean done)
+                throws SQLException, IOException {
+            line.append(id).append(',');
+            csvField(idea.getString(2)).append(',');
+            csvField(idea.getString(3)).append(',');
+            line.append(idea.getInt(4)).append(',');
+            csvField(idea.getString(5)).append(',');
+            csvField(nullableLong(idea, 6)).append(',');
+            line.append(idea.getLong(7)).append(',');
+            csvField(nullableLong(idea, 8)).append(',');
+            csvField(nullableLong(idea, 9)).append(',');
+            csvField(tags.isEmpty() ? null : String.join(";", tags)).append(',');
+            csvField(dueAt).append(',');
+            csvField(note).append(',');
+            csvField(done == null ? null : done ? "1" : "0").append(',');
+            if (attachments.isEmpty()) {
+                line.append("\r\n");
+                return;
+            }
+            var paths = new StringBuilder();
+            for (var a : attachments) {
+                if (!paths.isEmpty()) paths.append(';');
+                paths.append(exportedPath(id, a));
+            }
+            csvField(paths.toString()).append("\r\n");
+        }
+
+        /** RFC 4180: in Anführungszeichen, sobald Trennzeichen, Anführungszeichen oder Umbrüche vorkommen. */
+        private StringBuilder csvField(Object value) {
+            if (value == null) return line;
+            String s = value.toString();
+            boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+            if (!quote) return line.append(s);
+            line.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                if (ch == '"') line.append('"');
+                line.append(ch);
+            }
+            return line.append('"');
+        }
+
+        // ---- Anhänge ----
+
+        /** Pfad im Export: relativ zur Exportdatei, wenn Dateien mitkopiert werden, sonst der gespeicherte. */
+        private String exportedPath(long ideaId, AttachmentRow a) throws IOException {
+            if (attachmentDir == null || a.filePath() == null) return a.filePath();
+            Path source = Paths.get(a.filePath());
+            if (!Files.isRegularFile(source)) {
+                missingFiles++;
+                return a.filePath();
+            }
+            Path dir = attachmentDir.resolve(String.valueOf(ideaId));
+            Files.createDirectories(dir);
+            Path dest = dir.resolve(source.getFileName().toString());
+            attachmentBytes += copy(source, dest);
+            return attachmentDir.getFileName() + "/" + ideaId + "/" + dest.getFileName();
+        }
+
+        /** Kopiert per {@link FileChannel#transferTo} (ohne Umweg über den Java-Heap). */
+        private static long copy(Path source, Path dest) throws IOException {
+            try (var in = FileChannel.open(source, StandardOpenOption.READ);
+                 var outCh = FileChannel.open(dest, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                long size = in.size();
+                long pos = 0;
+                while (pos < size) pos += in.transferTo(pos, size - pos, outCh);
+                return size;
+            }
+        }
+
+        // ---- Hilfen ----
+
+        private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+            long v = rs.getLong(column);
+            return rs.wasNull() ? null : v;
+        }
+
+        private void report() {
+            if (progress != null) progress.accept(new Progress(ideas, totalIdeas, out.bytesWritten(), elapsedMillis()));
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - t0) / 1_000_000;
+        }
+    }
+
+    /** Vorwärts-Cursor über Zeilen, deren erste Spalte die Idee-ID ist (aufsteigend sortiert). */
+    private static final class Cursor implements AutoCloseable {
+        final ResultSet rs;
+        private boolean valid;
+
+        Cursor(PreparedStatement ps) throws SQLException {
+            this.rs = ps.executeQuery();
+            this.valid = rs.next();
+        }
+
+        /** Überspringt Zeilen kleinerer IDs (ausgelassene Ideen); {@code true}, wenn die aktuelle Zeile zu {@code ideaId} gehört. */
+        boolean at(long ideaId) throws SQLException {
+            while (valid && rs.getLong(1) < ideaId) valid = rs.next();
+            return valid && rs.getLong(1) == ideaId;
+        }
+
+        void advance() throws SQLException {
+            valid = rs.next();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            rs.close();
+        }
+    }
+
+    // ---- Kommandozeile ----
+
+    /** {@code IdeaExporter <ziel> [--attachments] [--no-deleted] [dataDir]} – ohne dataDir der Standard-Speicher. */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Aufruf: IdeaExporter <ziel.jsonl|ziel.csv> [--attachments] [--no-deleted] [dataDir]");
+            System.exit(2);
+        }
+        Path target = Paths.get(args[0]);
+        var options = Options.defaults(target);
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--attachments" -> options = options.withAttachmentFiles(true);
+                case "--no-deleted" -> options = options.withIncludeDeleted(false);
+                default -> DbManager.configure(DbConfig.inDirectory(Paths.get(args[i])));
+            }
+        }
+        try {
+            var result = export(target, options, p -> System.out.printf(Locale.ROOT, "%,d / %,d Ideen%n", p.ideas(), p.totalIdeas()));
+            System.out.println(result);
+        } finally {
+            DbManager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package de.kassel.db;
+
+import de.kassel.model.IdeaStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk-Import von Ideen aus CSV oder JSON Lines – für große Mengen statt {@link IdeaRepository#insert}
+ * (dort eine Transaktion samt fsync pro Idee).
+ * <p>
+ * Die Datei wird gestreamt; je {@value #COMMIT_EVERY} Datensätze eine Transaktion mit Batches zu
+ * {@value #BATCH}. Tags werden über eine Name→ID-Map im Speicher aufgelöst (neue Tags einmal angelegt),
+ * Ideen bekommen explizite IDs, damit Tag-Zuordnungen und Erinnerungen ohne Rückfrage gebunden werden.
+ * Die Einfüge-Trigger des Volltextindex werden innerhalb der Transaktion entfernt und vor dem Commit
+ * unverändert wieder angelegt (DDL ist in SQLite transaktional, andere Verbindungen sehen sie nie
+ * fehlen); den Index der neuen Ideen schreibt stattdessen ein einziges INSERT … SELECT. Zeilenweise
+ * über die Trigger wäre er gut viermal so teuer – FTS5 schreibt bei jedem Trigger-Aufruf (eigener
+ * Savepoint) seinen Puffer als neues Segment weg.
+ * <p>
+ * Fortsetzbar: mit jedem Commit steht in {@code settings} ({@code import.checkpoint:<Pfad>}), wie viele
+ * Datensätze der Datei verarbeitet sind. Ein erneuter Aufruf für dieselbe, unveränderte Datei macht
+ * dort weiter; eine vollständig importierte Datei wird nicht noch einmal eingelesen
+ * ({@link #forgetCheckpoint(Path)} erzwingt das).
+ * <p>
+ * Spalten bzw. JSON-Felder (Groß-/Kleinschreibung und {@code _} egal): {@code title} (Pflicht),
+ * {@code body}, {@code priority} (1–4 oder P1–P4), {@code status}, {@code effort_minutes},
+ * {@code created_at}, {@code tags} (JSON-Array oder durch {@code ,}/{@code ;}/{@code |} getrennt),
+ * {@code reminder_at}, {@code reminder_note}. Zeitpunkte als Epoch-Sekunden oder ISO-8601.
+ */
+public final class IdeaImporter {
+
+    public enum Format {
+        CSV, JSONL;
+
+        /** Anhand der Dateiendung ({@code .csv/.tsv} bzw. {@code .jsonl/.ndjson/.json}). */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv") || name.endsWith(".tsv")) return CSV;
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) return JSONL;
+            throw new IllegalArgumentException("Unbekanntes Import-Format: " + file.getFileName());
+        }
+    }
+
+    /** Zwischenstand; {@code records} zählt auch übersprungene Datensätze. */
+    public record Progress(long records, long imported, long skipped, long bytesRead, long totalBytes, long elapsedMillis) {
+        public double fraction() {
+            return totalBytes <= 0 ? 1.0 : Math.min(1.0, (double) bytesRead / totalBytes);
+        }
+
+        public double perSecond() {
+            return elapsedMillis <= 0 ? 0 : imported * 1000.0 / elapsedMillis;
+        }
+    }
+
+    /**
+     * Ergebnis eines Laufs. {@code resumedAfter}: so viele Datensätze waren schon aus einem früheren
+     * Lauf importiert; {@code problems}: die ersten Fehlermeldungen übersprungener Datensätze.
+     */
+    public record Result(long imported, long skipped, long resumedAfter, int tagsCreated, int reminders,
+                         long millis, List<String> problems) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d Ideen importiert (%d übersprungen%s) in %.1f s",
+                    imported, skipped, resumedAfter > 0 ? ", fortgesetzt nach " + resumedAfter : "", millis / 1000.0);
+        }
+    }
+
+    static final int BATCH = 1_000;
+    static final int COMMIT_EVERY = 25_000;
+    private static final int MAX_PROBLEMS = 20;
+    private static final String CHECKPOINT_PREFIX = "import.checkpoint:";
+    private static final List<String> FTS_INSERT_TRIGGERS = List.of("trg_idea_fts_insert", "trg_idea_tag_fts_insert");
+
+    private IdeaImporter() {}
+
+    public static Result importFile(Path file, Consumer<Progress> progress) {
+        return importFile(file, Format.of(file), progress);
+    }
+
+    /** Importiert {@code file} in die von {@link DbManager} konfigurierte Datenbank. */
+    public static Result importFile(Path file, Format format, Consumer<Progress> progress) {
+        try (Connection c = DbManager.getConnection(); var src = ImportSource.open(file, format)) {
+            return new Run(c, src, file, progress).execute();
+        } catch (IOException e) {
+            throw new RuntimeException("Import-Datei konnte nicht gelesen werden: " + file, e);
+        } catch (SQLException e) {
+            throw new RuntimeException("Import fehlgeschlagen: " + file, e);
+        }
+    }
+
+    /** Vergisst den Fortschritt zu {@code file} – der nächste Import beginnt von vorn. */
+    public static void forgetCheckpoint(Path file) {
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement("DELETE FROM settings WHERE key = ?")) {
+            ps.setString(1, checkpointKey(file));
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String checkpointKey(Path file) {
+        return CHECKPOINT_PREFIX + file.toAbsolutePath().normalize();
+    }
+
+    // ---- ein Importlauf ----
+
+    private static final class Run {
+        private final Connection c;
+        private final ImportSource src;
+        private final Path file;
+        private final Consumer<Progress> progress;
+        private final long t0 = System.nanoTime();
+        private final long now = System.currentTimeMillis() / 1000;
+        private final Map<String, Long> tagIds = new HashMap<>();    // Name (klein) -> id, wie ensureExists (COLLATE NOCASE)
+        private final List<String> problems = new ArrayList<>();
+        private long totalBytes;
+        private long records;
+        private long imported;
+        private long skipped;
+        private int tagsCreated;
+        private int reminders;
+
+        Run(Connection c, ImportSource src, Path file, Consumer<Progress> progress) {
+            this.c = c;
+            this.src = src;
+            this.file = file;
+            this.progress = progress;
+        }
+
+        Result execute() throws SQLException, IOException {
+            totalBytes = Files.size(file);
+            String fingerprint = totalBytes + ":" + Files.getLastModifiedTime(file).toMillis();
+            String key = checkpointKey(file);
+
+            // Checkpoint: "<Größe>:<mtime>:<Datensätze>:<running|done>"
+            long resumeAfter = 0;
+            String stored = readSetting(key);
+            if (stored != null && stored.startsWith(fingerprint + ":")) {
+                String[] parts = stored.split(":");
+                resumeAfter = Long.parseLong(parts[2]);
+                if ("done".equals(parts[3])) {
+                    return new Result(0, 0, resumeAfter, 0, 0, elapsedMillis(), List.of());
+                }
+            }
+            for (long i = 0; i < resumeAfter && src.next() != null; i++) records++;
+
+            loadTags();
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(true);
+            try (var st = c.createStatement();
+                 var idea = c.prepareStatement("""
+                     INSERT INTO idea(id, title, body, priority, status, effort_minutes, created_at)
+                     VALUES (?, ?, ?, ?, ?, ?, ?)
+                     """);
+                 var link = c.prepareStatement("INSERT OR IGNORE INTO idea_tag(idea_id, tag_id) VALUES (?, ?)");
+                 var reminder = c.prepareStatement("""
+                     INSERT INTO reminder(idea_id, due_at, note, is_done, created_at)
+                     VALUES (?, ?, ?, 0, ?)
+                     """);
+                 var checkpoint = c.prepareStatement("""
+                     INSERT INTO settings (key, value) VALUES (?, ?)
+                     ON CONFLICT(key) DO UPDATE SET value = excluded.value
+                     """)) {
+                checkpoint.setString(1, key);
+                boolean more = true;
+                while (more) {
+                    more = chunk(st, idea, link, reminder, checkpoint, fingerprint);
+                }
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+            return new Result(imported, skipped, resumeAfter, tagsCreated, reminders, elapsedMillis(), List.copyOf(problems));
+        }
+
+        /** Eine Transaktion mit bis zu {@link #COMMIT_EVERY} Datensätzen; {@code false} am Dateiende. */
+        private boolean chunk(Statement st, PreparedStatement idea, PreparedStatement link,
+                              PreparedStatement reminder, PreparedStatement checkpoint,
+                              String fingerprint) throws SQLException, IOException {
+            long firstId;
+            long nextId;
+            boolean more = true;
+            int newTags = tagsCreated;
+            st.execute("BEGIN IMMEDIATE");                  // Schreibsperre, bevor wir MAX(id) lesen
+            try {
+                List<String> triggers = dropFullTextTriggers(st);
+                firstId = nextId = maxIdeaId() + 1;
+                int inChunk = 0;
+                int pending = 0;
+                while (inChunk < COMMIT_EVERY) {
+                    Map<String, Object> rec = src.next();
+                    if (rec == null) {
+                        more = false;
+                        break;
+                    }
+                    records++;
+                    inChunk++;
+                    Row row;
+                    try {
+                        row = Row.of(rec, now);
+                    } catch (IllegalArgumentException ex) {
+                        skipped++;
+                        if (problems.size() < MAX_PROBLEMS) problems.add("Zeile " + src.recordLine() + ": " + ex.getMessage());
+                        continue;
+                    }
+                    long id = nextId++;
+                    idea.setLong(1, id);
+                    idea.setString(2, row.title());
+                    idea.setString(3, row.body());
+                    idea.setInt(4, row.priority());
+                    idea.setString(5, row.status());
+                    if (row.effortMinutes() == null) idea.setNull(6, Types.INTEGER);
+                    else idea.setInt(6, row.effortMinutes());
+                    idea.setLong(7, row.createdAt());
+                    idea.addBatch();
+                    for (String tag : row.tags()) {
+                        link.setLong(1, id);
+                        link.setLong(2, tagId(tag));
+                        link.addBatch();
+                    }
+                    if (row.reminderAt() != null) {
+                        reminder.setLong(1, id);
+                        reminder.setLong(2, row.reminderAt());
+                        reminder.setString(3, row.reminderNote());
+                        reminder.setLong(4, now);
+                        reminder.addBatch();
+                        reminders++;
+                    }
+                    imported++;
+                    if (++pending == BATCH) {
+                        flush(link, idea, reminder);
+                        pending = 0;
+                        report();
+                    }
+                }
+                flush(link, idea, reminder);
+                if (nextId > firstId) fillFullText(firstId, nextId - 1);
+                for (String sql : triggers) st.execute(sql);
+                checkpoint.setString(2, fingerprint + ":" + records + ":" + (more ? "running" : "done"));
+                checkpoint.executeUpdate();
+                st.execute("COMMIT");
+            } catch (SQLException | RuntimeException | IOException ex) {
+                try { st.execute("ROLLBACK"); } catch (SQLException ignore) { }
+                throw ex;
+            }
+            if (nextId > firstId) ChangeBus.publish(new ChangeEvent.IdeasImported(firstId, nextId - 1));
+            if (tagsCreated > newTags) ChangeBus.publish(new ChangeEvent.TagsChanged(null));
+            report();
+            return more;
+        }
+
+        private static void flush(PreparedStatement link, PreparedStatement idea, PreparedStatement reminder)
+                throws SQLException {
+            idea.executeBatch();
+            link.executeBatch();
+            reminder.executeBatch();
+        }
+
+        /** Entfernt die FTS-Einfüge-Trigger (nur in der laufenden Transaktion) und liefert ihr SQL. */
+        private List<String> dropFullTextTriggers(Statement st) throws SQLException {
+            var sqls = new ArrayList<String>();
+            try (var ps = c.prepareStatement("SELECT sql FROM sqlite_master WHERE type = 'trigger' AND name = ?")) {
+                for (String name : FTS_INSERT_TRIGGERS) {
+                    ps.setString(1, name);
+                    try (var rs = ps.executeQuery()) {
+                        if (!rs.next()) continue;
+                        sqls.add(rs.getString(1));
+                    }
+                    st.execute("DROP TRIGGER " + name);
+                }
+            }
+            return sqls;
+        }
+
+        /** Volltextindex der Ideen dieses Chunks in einem Rutsch (die Einfüge-Trigger fehlen gerade). */
+        private void fillFullText(long fromId, long toId) throws SQLException {
+            try (var ps = c.prepareStatement("""
+                    INSERT INTO idea_fts(rowid, title, body, tags)
+                    SELECT i.id, i.title, COALESCE(i.body, ''),
+                           COALESCE((SELECT group_concat(t.name, ' ')
+                                     FROM idea_tag it JOIN tag t ON t.id = it.tag_id
+                                     WHERE it.idea_id = i.id), '')
+                    FROM idea i
+                    WHERE i.id BETWEEN ? AND ?
+                    """)) {
+                ps.setLong(1, fromId);
+                ps.setLong(2, toId);
+                ps.executeUpdate();
+            }
+        }
+
+        private void report() {
+            if (progress != null) {
+                progress.accept(new Progress(records, imported, skipped, src.bytesRead(), totalBytes, elapsedMillis()));
+            }
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - t0) / 1_000_000;
+        }
+
+        private long maxIdeaId() throws SQLException {
+            try (var st = c.createStatement(); var rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM idea")) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+
+        private void loadTags() throws SQLException {
+            try (var st = c.createStatement(); var rs = st.executeQuery("SELECT id, name FROM tag")) {
+                while (rs.next()) tagIds.putIfAbsent(rs.getString(2).toLowerCase(Locale.ROOT), rs.getLong(1));
+            }
+        }
+
+        /** ID aus der Map; unbekannte Tags werden einmal angelegt (in der laufenden Transaktion). */
+        private long tagId(String name) throws SQLException {
+            String lower = name.toLowerCase(Locale.ROOT);
+            Long id = tagIds.get(lower);
+            if (id != null) return id;
+            try (var ins = c.prepareStatement(
+                    "INSERT INTO tag(name, created_at) VALUES (?, strftime('%s','now'))",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                ins.setString(1, name);
+                ins.executeUpdate();
+                try (var keys = ins.getGeneratedKeys()) {
+                    if (!keys.next()) throw new SQLException("Tag-ID fehlt: " + name);
+                    id = keys.getLong(1);
+                }
+            }
+            tagIds.put(lower, id);
+            tagsCreated++;
+            return id;
+        }
+
+        private String readSetting(String key) throws SQLException {
+            try (var ps = c.prepareStatement("SELECT value FROM settings WHERE key = ?")) {
+                ps.setString(1, key);
+                try (var rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        }
+    }
+
+    // ---- Datensatz -> Zeile ----
+
+    /** Geprüfter Datensatz; ungültige Werte werfen {@link IllegalArgumentException} (Datensatz wird übersprungen). */
+    private record Row(String title, String body, int priority, String status, Integer effortMinutes,
+                       long createdAt, Set<String> tags, Long reminderAt, String reminderNote) {
+
+        static Row of(Map<String, Object> rec, long now) {
+            if (rec.containsKey(ImportSource.ERROR)) {
+                throw new IllegalArgumentException(String.valueOf(rec.get(ImportSource.ERROR)));
+            }
+            var f = new HashMap<String, Object>(rec.size() * 2);
+            for (var e : rec.entrySet()) f.put(normalize(e.getKey()), e.getValue());
+
+            String title = text(f.get("title"));
+            if (title == null || title.isBlank()) throw new IllegalArgumentException("title fehlt");
+            Long createdAt = epochSeconds(f.get("createdat"), "created_at");
+            return new Row(
+                    title.strip(),
+                    text(f.get("body")),
+                    priority(f.get("priority")),
+                    status(f.get("status")),
+                    effortMinutes(f.get("effortminutes")),
+                    createdAt == null ? now : createdAt,
+                    tags(f.get("tags")),
+                    epochSeconds(f.containsKey("reminderat") ? f.get("reminderat") : f.get("reminder"), "reminder_at"),
+                    text(f.get("remindernote")));
+        }
+
+        private static String normalize(String key) {
+            var sb = new StringBuilder(key.length());
+            for (int i = 0; i < key.length(); i++) {
+                char ch = key.charAt(i);
+                if (ch != '_' && ch != '-' && ch != ' ') sb.append(Character.toLowerCase(ch));
+            }
+            return sb.toString();
+        }
+
+        private static String text(Object v) {
+            return v == null ? null : v.toString();
+        }
+
+        private static int priority(Object v) {
+            if (v == null) return 2;
+            String s = v.toString().strip();
+            if (s.length() == 2 && (s.charAt(0) == 'P' || s.charAt(0) == 'p')) s = s.substring(1);
+            if (s.length() == 1 && s.charAt(0) >= '1' && s.charAt(0) <= '4') return s.charAt(0) - '0';
+            throw new IllegalArgumentException("priority '" + v + "' (erlaubt: 1–4 oder P1–P4)");
+        }
+
+        /** Nur die bekannten Status; {@link IdeaStatus#fromDb} würde Unbekanntes still zu "inbox" machen. */
+        private static String status(Object v) {
+            if (v == null) return IdeaStatus.INBOX.db();
+            String s = v.toString().strip().toLowerCase(Locale.ROOT);
+            for (var st : IdeaStatus.values()) {
+                if (st.db().equals(s)) return st.db();
+            }
+            throw new IllegalArgumentException("status '" + v + "' (erlaubt: inbox, draft, doing, done, archived)");
+        }
+
+        private static Integer effortMinutes(Object v) {
+            Long effort = integer(v, "effort_minutes");
+            if (effort == null) return null;
+            if (effort < 0 || effort > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("effort_minutes '" + v + "' außerhalb von 0–" + Integer.MAX_VALUE);
+            }
+            return effort.intValue();
+        }
+
+        private static Long integer(Object v, String field) {
+            if (v == null) return null;
+            if (v instanceof Long l) return l;
+            if (v instanceof Number n) return n.longValue();
+            try {
+                return Long.parseLong(v.toString().strip());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(field + " '" + v + "' ist keine Zahl");
+            }
+        }
+
+        /** Epoch-Sekunden (Werte über 10^11 gelten als Millisekunden) oder ISO-8601. */
+        private static Long epochSeconds(Object v, String field) {
+            if (v == null) return null;
+            if (v instanceof Number n) return fromEpoch(n.longValue());
+            String s = v.toString().strip();
+            if (s.isEmpty()) return null;
+            if (s.chars().allMatch(Character::isDigit)) return fromEpoch(Long.parseLong(s));
+            try {
+                if (s.endsWith("Z")) return Instant.parse(s).getEpochSecond();
+                if (s.length() > 19 && (s.indexOf('+', 19) > 0 || s.indexOf('-', 19) > 0)) {
+                    return OffsetDateTime.parse(s).toEpochSecond();
+                }
+                if (s.indexOf('T') > 0) return LocalDateTime.parse(s).atZone(ZoneId.systemDefault()).toEpochSecond();
+                return LocalDate.parse(s).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException(field + " '" + s + "' ist kein Zeitpunkt");
+            }
+        }
+
+        private static long fromEpoch(long v) {
+            return v > 100_000_000_000L ? v / 1000 : v;
+        }
+
+        private static Set<String> tags(Object v) {
+            var out = new LinkedHashSet<String>();
+            var seen = new HashSet<String>();
+            if (v instanceof List<?> list) {
+                for (Object o : list) addTag(out, seen, o == null ? null : o.toString());
+            } else if (v != null) {
+                for (String s : v.toString().split("[,;|]")) addTag(out, seen, s);
+            }
+            return out;
+        }
+
+        private static void addTag(Set<String> out, Set<String> seen, String raw) {
+            if (raw == null) return;
+            String name = raw.strip();
+            if (!name.isEmpty() && seen.add(name.toLowerCase(Locale.ROOT))) out.add(name);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package de.kassel.db;
+
+import de.kassel.model.IdeaStatus;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Abfragesprache des Suchfelds, z. B. {@code tag:kunde status:doing p1 effort<30 created>2026-01 "genaue phrase"}.
+ * <ul>
+ *   <li>Begriffe nebeneinander: UND; {@code OR} (groß geschrieben) und Klammern; {@code -} davor: NICHT</li>
+ *   <li>Wörter und {@code "Phrasen"}: Volltext über Titel, Body und Tags (Wörter als Präfix)</li>
+ *   <li>{@code tag:name} (auch {@code tag:"zwei wörter"}), {@code status:doing}</li>
+ *   <li>{@code p1}…{@code p4}, {@code prio<3}, {@code effort<30} (Minuten, auch {@code 2h}),
+ *       {@code created>2026-01}, {@code updated:2026-03-15} – Datum als Jahr, Monat oder Tag;
+ *       {@code :} heißt "innerhalb", {@code >} "nach dem Zeitraum", {@code >=} "ab Beginn"</li>
+ * </ul>
+ * Vergleiche werden beim Parsen zu halboffenen Bereichen {@code [from, until)} normalisiert.
+ * Unvollständige Eingaben beim Tippen ({@code tag:}, offene Klammer/Anführungszeichen) werden
+ * ignoriert bzw. geschlossen; unzulässige Werte melden eine {@link SyntaxException}.
+ */
+public final class IdeaQuery {
+
+    /** Knoten des Abfragebaums. */
+    public sealed interface Node permits And, Or, Not, Text, TagIs, StatusIs, Range { }
+
+    public record And(List<Node> terms) implements Node { }
+
+    public record Or(List<Node> terms) implements Node { }
+
+    public record Not(Node term) implements Node { }
+
+    /** Volltext: Wort (als Präfix) oder Phrase. */
+    public record Text(String text, boolean phrase) implements Node { }
+
+    public record TagIs(String name) implements Node { }
+
+    public record StatusIs(IdeaStatus status) implements Node { }
+
+    /** {@code from <= field < until}; {@code null} = offen. */
+    public record Range(Field field, Long from, Long until) implements Node { }
+
+    /** Vergleichbare Spalten. */
+    public enum Field {
+        PRIORITY("priority"),
+        EFFORT("effort_minutes"),
+        CREATED("created_at"),
+        UPDATED("updated_at");
+
+        final String column;
+
+        Field(String column) { this.column = column; }
+    }
+
+    /** Unzulässige Eingabe (z. B. unbekannter Status); die Meldung ist für die Statuszeile gedacht. */
+    public static final class SyntaxException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        SyntaxException(String message) { super(message); }
+    }
+
+    private static final Pattern PRIORITY_WORD = Pattern.compile("[pP]([1-4])");
+    // höchstens 6 Ziffern: passt sicher in long, auch in Stunden (* 60)
+    private static final Pattern EFFORT = Pattern.compile("(\\d{1,6})\\s*([mh]?)");
+
+    private final String input;
+    private final ZoneId zone;
+    private int pos;
+
+    private IdeaQuery(String input, ZoneId zone) {
+        this.input = input;
+        this.zone = zone;
+    }
+
+    /** Parst {@code input}; {@code null}, wenn nichts zu filtern ist. */
+    public static Node parse(String input) {
+        return parse(input, ZoneId.systemDefault());
+    }
+
+    static Node parse(String input, ZoneId zone) {
+        if (input == null || input.isBlank()) return null;
+        var p = new IdeaQuery(input, zone);
+        Node n = p.orExpr();
+        while (p.pos < input.length()) {               // überzählige ")" überspringen
+            p.pos++;
+            Node rest = p.orExpr();
+            if (rest != null) n = n == null ? rest : new And(List.of(n, rest));
+        }
+        return n;
+    }
+
+    /** {@code true}, wenn nur freie Wörter vorkommen (keine Felder, Phrasen, OR oder NICHT). */
+    public static boolean isPlainText(Node n) {
+        return switch (n) {
+            case Text t -> !t.phrase();
+            case And a -> a.terms().stream().allMatch(IdeaQuery::isPlainText);
+            default -> false;
+        };
+    }
+
+    // ---- Grammatik: or := and ("OR" and)* ; and := unary* ; unary := "-"? atom ----
+
+    private Node orExpr() {
+        var terms = new ArrayList<Node>();
+        Node first = andExpr();
+        if (first != null) terms.add(first);
+        while (keyword("OR")) {
+            Node next = andExpr();
+            if (next != null) terms.add(next);
+        }
+        if (terms.isEmpty()) return null;
+        return terms.size() == 1 ? terms.get(0) : new Or(terms);
+    }
+
+    private Node andExpr() {
+        var terms = new ArrayList<Node>();
+        while (true) {
+            skipSpace();
+            if (pos >= input.length() || input.charAt(pos) == ')' || peekKeyword("OR")) break;
+            Node n = unary();
+            if (n != null) terms.add(n);
+        }
+        if (terms.isEmpty()) return null;
+        return terms.size() == 1 ? terms.get(0) : new And(terms);
+    }
+
+    private Node unary() {
+        boolean negate = false;
+        if (input.charAt(pos) == '-' && pos + 1 < input.length() && !Character.isWhitespace(input.charAt(pos + 1))) {
+            negate = true;
+            pos++;
+        }
+        Node n = atom();
+        return n == null || !negate ? n : new Not(n);
+    }
+
+    private Node atom() {
+        char ch = input.charAt(pos);
+        if (ch == '(') {
+            pos++;
+            Node n = orExpr();
+            skipSpace();
+            if (pos < input.length() && input.charAt(pos) == ')') pos++;   // fehlende ")" beim Tippen: ok
+            return n;
+        }
+        if (ch == '"') {
+            String phrase = quoted().trim();
+            return hasWordChar(phrase) ? new Text(phrase, true) : null;
+        }
+        int start = pos;
+        while (pos < input.length() && !isDelimiter(input.charAt(pos)) && !isOperator(input.charAt(pos))) pos++;
+        String word = input.substring(start, pos);
+        if (pos < input.length() && isOperator(input.charAt(pos))) {
+            var field = fieldTerm(word);
+            if (field != null) return field.node;
+            while (pos < input.length() && !isDelimiter(input.charAt(pos))) pos++;   // z. B. "http://…"
+            word = input.substring(start, pos);
+        }
+        var prio = PRIORITY_WORD.matcher(word);
+        if (prio.matches()) {
+            long p = Long.parseLong(prio.group(1));
+            return new Range(Field.PRIORITY, p, p + 1);
+        }
+        // nur Satzzeichen: kein Suchbegriff (würde sonst alles treffen), wie ein leerer Term ignorieren
+        return hasWordChar(word) ? new Text(word, false) : null;
+    }
+
+    private static boolean hasWordChar(String s) {
+        return s.codePoints().anyMatch(Character::isLetterOrDigit);
+    }
+
+    /** Ergebnis eines Feld-Terms; {@code node == null} = noch unvollständig, ignorieren. */
+    private record FieldTerm(Node node) { }
+
+    /** {@code feld op wert} ab {@link #pos} (steht auf dem Operator); {@code null}, wenn kein bekanntes Feld. */
+    private FieldTerm fieldTerm(String name) {
+        String field = name.toLowerCase(Locale.ROOT);
+        if (!List.of("tag", "status", "prio", "priority", "effort", "created", "updated").contains(field)) return null;
+        String op = operator();
+        String value;
+        if (pos < input.length() && input.charAt(pos) == '"') {
+            value = quoted().trim();
+        } else {
+            int start = pos;
+            while (pos < input.length() && !isDelimiter(input.charAt(pos))) pos++;
+            value = input.substring(start, pos);
+        }
+        if (value.isEmpty()) return new FieldTerm(null);
+        return new FieldTerm(switch (field) {
+            case "tag" -> {
+                requireEquals(op, field);
+                yield new TagIs(value);
+            }
+            case "status" -> {
+                requireEquals(op, field);
+                yield new StatusIs(status(value));
+            }
+            case "prio", "priority" -> range(Field.PRIORITY, op, priority(value), priority(value) + 1);
+            case "effort" -> {
+                long minutes = effortMinutes(value);
+                yield range(Field.EFFORT, op, minutes, minutes + 1);
+            }
+            default -> {
+                long[] period = period(value);
+                yield range("created".equals(field) ? Field.CREATED : Field.UPDATED, op, period[0], period[1]);
+            }
+        });
+    }
+
+    /** Vergleich gegen den Zeitraum/Wert {@code [start, end)} als Bereich. */
+    private static Range range(Field f, String op, long start, long end) {
+        return switch (op) {
+            case ":", "=" -> new Range(f, start, end);
+            case "<" -> new Range(f, null, start);
+            case "<=" -> new Range(f, null, end);
+            case ">" -> new Range(f, end, null);
+            default -> new Range(f, start, null);         // ">="
+        };
+    }
+
+    private String operator() {
+        char ch = input.charAt(pos++);
+        if ((ch == '<' || ch == '>') && pos < input.length() && input.charAt(pos) == '=') {
+            pos++;
+            return ch + "=";
+        }
+        return String.valueOf(ch);
+    }
+
+    private static void requireEquals(String op, String field) {
+        if (!":".equals(op) && !"=".equals(op)) throw new SyntaxException(field + ": nur mit ':' vergleichbar");
+    }
+
+    private static IdeaStatus status(String value) {
+        String v = value.toLowerCase(Locale.ROOT);
+        for (var s : IdeaStatus.values()) {
+            if (s.db().equals(v)) return s;
+        }
+        throw new SyntaxException("Unbekannter Status: " + value);
+    }
+
+    private static long priority(String value) {
+        var m = PRIORITY_WORD.matcher(value);
+        String digits = m.matches() ? m.group(1) : value;
+        if (!digits.matches("[1-4]")) throw new SyntaxException("Priorität 1–4 erwartet: " + value);
+        return Long.parseLong(digits);
+    }
+
+    private static long effortMinutes(String value) {
+        var m = EFFORT.matcher(value.toLowerCase(Locale.ROOT));
+        if (!m.matches()) throw new SyntaxException("Aufwand in Minuten erwartet (z. B. 30 oder 2h, höchstens 6 Ziffern): " + value);
+        long n = Long.parseLong(m.group(1));
+        return "h".equals(m.group(2)) ? n * 60 : n;
+    }
+
+    /** Jahr, Monat oder Tag als {@code [Beginn, Ende)} in Epoch-Sekunden (lokale Zeitzone). */
+    private long[] period(String value) {
+        try {
+            LocalDate start;
+            LocalDate end;
+            switch (value.length()) {
+                case 4 -> {
+                    start = LocalDate.of(Integer.parseInt(value), 1, 1);
+                    end = start.plusYears(1);
+                }
+                case 7 -> {
+                    start = LocalDate.parse(value + "-01");
+                    end = start.plusMonths(1);
+                }
+                default -> {
+                    start = LocalDate.parse(value);
+                    end = start.plusDays(1);
+                }
+            }
+            return new long[]{start.atStartOfDay(zone).toEpochSecond(), end.atStartOfDay(zone).toEpochSecond()};
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new SyntaxException("Datum als JJJJ, JJJJ-MM oder JJJJ-MM-TT erwartet: " + value);
+        }
+    }
+
+    // ---- Lexer-Hilfen ----
+
+    /** Text in Anführungszeichen ab {@link #pos}; fehlt das schließende, gilt das Eingabeende. */
+    private String quoted() {
+        int end = input.indexOf('"', pos + 1);
+        if (end < 0) end = input.length();
+        String s = input.substring(pos + 1, end);
+        pos = Math.min(end + 1, input.length());
+        return s;
+    }
+
+    private boolean keyword(String kw) {
+        skipSpace();
+        if (!peekKeyword(kw)) return false;
+        pos += kw.length();
+        return true;
+    }
+
+    private boolean peekKeyword(String kw) {
+        int end = pos + kw.length();
+        return input.startsWith(kw, pos) && (end == input.length() || isDelimiter(input.charAt(end)));
+    }
+
+    private void skipSpace() {
+        while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) pos++;
+    }
+
+    private static boolean isDelimiter(char ch) {
+        return Character.isWhitespace(ch) || ch == '(' || ch == ')' || ch == '"';
+    }
+
+    private static boolean isOperator(char ch) {
+        return ch == ':' || ch == '<' || ch == '>' || ch == '=';
+    }
+}
@@ -0,0 +1,227 @@
+package de.kassel.db;
+
+import de.kassel.db.IdeaQuery.Field;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Übersetzt einen {@link IdeaQuery}-Baum in parametrisiertes SQL über {@code idea}, {@code idea_tag},
+ * {@code tag} und {@code idea_fts}. Jeder Operator ist indexgestützt (siehe Migration 5 in
+ * schema.sql): Volltext über FTS5, Tags über {@code tag(name COLLATE NOCASE)} und
+ * {@code idea_tag(tag_id, idea_id)}, Status/Priorität/Aufwand/Datum über Spaltenindizes.
+ * <p>
+ * Der Baum wird vorher normalisiert: verschachtelte UND/ODER flach, freie Wörter und Phrasen
+ * eines UND zu EINER FTS-Abfrage zusammengefasst, Teilterme nach ihrer Form sortiert. Die Form
+ * (Baum ohne Werte, z. B. {@code &(fts,status,tag)}) ist Schlüssel des Plan-Caches – gleiche Form,
+ * gleicher SQL-Text, also auch ein Treffer im Statement-Cache der Verbindung. Nur die Parameter
+ * werden je Abfrage neu gesammelt.
+ * <p>
+ * {@link #compileForRows} erzeugt dieselbe Bedingung zeilenweise (korrelierte {@code EXISTS} statt
+ * {@code id IN (SELECT …)}): für wenige, per ID vorgegebene Ideen, damit SQLite nicht erst alle
+ * Treffer eines Suchworts oder Tags sammelt.
+ */
+final class IdeaQueryCompiler {
+
+    /** Übersetzte Abfrage: WHERE-Bedingung (Alias {@code i} für idea) und Parameter in Reihenfolge. */
+    record Compiled(String where, List<Object> params, String shape) { }
+
+    private static final int PLAN_CACHE_SIZE = 256;
+    private static final Map<String, String> PLANS = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > PLAN_CACHE_SIZE;
+        }
+    };
+    static final LongAdder HITS = new LongAdder();
+    static final LongAdder MISSES = new LongAdder();
+
+    // normalisierte Terme; shape() ohne Werte, sql()/bind() in derselben Reihenfolge
+    private sealed interface Term permits All, Any, Neg, Fts, Tag, Status, Between, True { }
+
+    private record All(List<Term> terms) implements Term { }
+
+    private record Any(List<Term> terms) implements Term { }
+
+    private record Neg(Term term) implements Term { }
+
+    private record Fts(String match) implements Term { }
+
+    private record Tag(String name) implements Term { }
+
+    private record Status(String status) implements Term { }
+
+    private record Between(Field field, Long from, Long until) implements Term { }
+
+    /** Leeres UND: schränkt nichts ein (alle Ideen). */
+    private record True() implements Term { }
+
+    private IdeaQueryCompiler() {}
+
+    static Compiled compile(IdeaQuery.Node query) {
+        return compile(query, false);
+    }
+
+    /** Wie {@link #compile}, aber für {@code WHERE i.id IN (…) AND …} über wenige Zeilen. */
+    static Compiled compileForRows(IdeaQuery.Node query) {
+        return compile(query, true);
+    }
+
+    private static Compiled compile(IdeaQuery.Node query, boolean perRow) {
+        Term t = normalize(query);
+        String shape = (perRow ? "row:" : "") + shape(t);
+        String where;
+        synchronized (PLANS) {
+            where = PLANS.get(shape);
+        }
+        if (where == null) {
+            MISSES.increment();
+            var sb = new StringBuilder();
+            sql(t, perRow, sb);
+            where = sb.toString();
+            synchronized (PLANS) {
+                PLANS.put(shape, where);
+            }
+        } else {
+            HITS.increment();
+        }
+        var params = new ArrayList<>();
+        bind(t, params);
+        return new Compiled(where, params, shape);
+    }
+
+    // ---- Normalisieren ----
+
+    private static Term normalize(IdeaQuery.Node n) {
+        return switch (n) {
+            case IdeaQuery.And a -> {
+                var terms = new ArrayList<Term>();
+                var text = new ArrayList<String>();
+                collectAnd(a, terms, text);
+                String match = String.join(" ", text);
+                if (!match.isEmpty()) terms.add(new Fts(match));
+                yield all(terms);
+            }
+            case IdeaQuery.Or o -> {
+                var terms = new ArrayList<Term>();
+                for (var child : o.terms()) {
+                    Term t = normalize(child);
+                    if (t instanceof True) yield t;                       // x OR wahr = wahr
+                    if (t instanceof Any any) terms.addAll(any.terms());
+                    else terms.add(t);
+                }
+                terms.sort(Comparator.comparing(IdeaQueryCompiler::shape));
+                yield terms.size() == 1 ? terms.get(0) : new Any(terms);
+            }
+            case IdeaQuery.Not not -> {
+                Term inner = normalize(not.term());
+                yield inner instanceof Neg neg ? neg.term() : new Neg(inner);
+            }
+            case IdeaQuery.Text t -> new Fts(ftsTerm(t));
+            case IdeaQuery.TagIs t -> new Tag(t.name());
+            case IdeaQuery.StatusIs s -> new Status(s.status().db());
+            case IdeaQuery.Range r -> new Between(r.field(), r.from(), r.until());
+        };
+    }
+
+    /** UND flach klopfen; freie Texte (nicht negiert) sammeln, daraus wird eine FTS-Abfrage. */
+    private static void collectAnd(IdeaQuery.And a, List<Term> terms, List<String> text) {
+        for (var child : a.terms()) {
+            switch (child) {
+                case IdeaQuery.And inner -> collectAnd(inner, terms, text);
+                case IdeaQuery.Text t -> text.add(ftsTerm(t));
+                default -> {
+                    Term t = normalize(child);
+                    if (t instanceof All all) terms.addAll(all.terms());
+                    else if (!(t instanceof True)) terms.add(t);
+                }
+            }
+        }
+    }
+
+    private static Term all(List<Term> terms) {
+        if (terms.isEmpty()) return new True();
+        if (terms.size() == 1) return terms.get(0);
+        terms.sort(Comparator.comparing(IdeaQueryCompiler::shape));
+        return new All(terms);
+    }
+
+    /** FTS5-Syntax wie in der Volltextsuche: Wort als Präfix, Phrase wörtlich (der Parser lässt nur Texte mit Buchstaben/Ziffern durch). */
+    private static String ftsTerm(IdeaQuery.Text t) {
+        return IdeaRepository.toFtsQuery(t.phrase() ? "\"" + t.text() + "\"" : t.text());
+    }
+
+    // ---- Form, SQL, Parameter ----
+
+    private static String shape(Term t) {
+        return switch (t) {
+            case All a -> "&(" + String.join(",", a.terms().stream().map(IdeaQueryCompiler::shape).toList()) + ")";
+            case Any a -> "|(" + String.join(",", a.terms().stream().map(IdeaQueryCompiler::shape).toList()) + ")";
+            case Neg n -> "!" + shape(n.term());
+            case Fts f -> "fts";
+            case Tag g -> "tag";
+            case Status s -> "status";
+            case Between b -> b.field().name().toLowerCase(Locale.ROOT) + "[" + (b.from() == null ? "" : "?")
+                    + "," + (b.until() == null ? "" : "?") + ")";
+            case True x -> "true";
+        };
+    }
+
+    private static void sql(Term t, boolean perRow, StringBuilder sb) {
+        switch (t) {
+            case All a -> join(a.terms(), " AND ", perRow, sb);
+            case Any a -> join(a.terms(), " OR ", perRow, sb);
+            // IFNULL: Vergleiche mit NULL-Spalten (z. B. ohne Aufwand) zählen als "nicht erfüllt"
+            case Neg n -> {
+                sb.append("NOT IFNULL(");
+                sql(n.term(), perRow, sb);
+                sb.append(", 0)");
+            }
+            // FTS bleibt eine Menge: MATCH je Zeile wertet die ganze Abfrage jedes Mal neu aus
+            case Fts f -> sb.append("i.id IN (SELECT rowid FROM idea_fts WHERE idea_fts MATCH ?)");
+            case Tag g -> sb.append(perRow ? """
+                    EXISTS (SELECT 1 FROM idea_tag it JOIN tag t ON t.id = it.tag_id \
+                    WHERE it.idea_id = i.id AND t.name = ? COLLATE NOCASE)""" : """
+                    i.id IN (SELECT it.idea_id FROM tag t JOIN idea_tag it ON it.tag_id = t.id \
+                    WHERE t.name = ? COLLATE NOCASE)""");
+            case Status s -> sb.append("i.status = ?");
+            case Between b -> {
+                String col = "i." + b.field().column;
+                if (b.from() != null && b.until() != null) sb.append('(').append(col).append(" >= ? AND ").append(col).append(" < ?)");
+                else if (b.from() != null) sb.append(col).append(" >= ?");
+                else sb.append(col).append(" < ?");
+            }
+            case True x -> sb.append('1');
+        }
+    }
+
+    private static void join(List<Term> terms, String op, boolean perRow, StringBuilder sb) {
+        sb.append('(');
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) sb.append(op);
+            sql(terms.get(i), perRow, sb);
+        }
+        sb.append(')');
+    }
+
+    private static void bind(Term t, List<Object> out) {
+        switch (t) {
+            case All a -> a.terms().forEach(x -> bind(x, out));
+            case Any a -> a.terms().forEach(x -> bind(x, out));
+            case Neg n -> bind(n.term(), out);
+            case Fts f -> out.add(f.match());
+            case Tag g -> out.add(g.name());
+            case Status s -> out.add(s.status());
+            case Between b -> {
+                if (b.from() != null) out.add(b.from());
+                if (b.until() != null) out.add(b.until());
+            }
+            case True x -> { }
+        }
+    }
+}
@@ -2,10 +2,14 @@ package de.kassel.db;
 
 import de.kassel.model.Idea;
 import de.kassel.model.IdeaStatus;
+import de.kassel.model.IdeaSummary;
 import de.kassel.model.Priority;
+import de.kassel.model.SearchHit;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import static javax.management.remote.JMXConnectorFactory.connect;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -68,6 +72,22 @@ public class IdeaRepository {
         return new Idea(id, title, body, priority, status, effort, createdAt, updatedAt);
     }
 
+    private IdeaSummary mapSummary(ResultSet rs) throws SQLException {
+        Integer effort = rs.getObject("effort_minutes") == null ? null : rs.getInt("effort_minutes");
+        Long updatedAt = rs.getObject("updated_at") == null ? null : rs.getLong("updated_at");
+        Long deletedAt = rs.getObject("deleted_at") == null ? null : rs.getLong("deleted_at");
+        return new IdeaSummary(
+                rs.getLong("id"),
+                rs.getString("title"),
+                Priority.fromInt(rs.getInt("priority")),
+                IdeaStatus.fromDb(rs.getString("status")),
+                effort,
+                rs.getLong("created_at"),
+                updatedAt,
+                deletedAt
+        );
+    }
+
     private List<Idea> mapAll(ResultSet rs) throws SQLException {
         List<Idea> list = new ArrayList<>();
         while (rs.next()) {
@@ -90,7 +110,7 @@ public class IdeaRepository {
                     return java.util.Optional.of(mapRow(rs)); // du hast mapRow(...) schon
                 }
             }
-            return null;
+            return java.util.Optional.empty();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -115,14 +135,14 @@ public class IdeaRepository {
             // 1. Versuch: getGeneratedKeys()
             try (var keys = ps.getGeneratedKeys()) {
                 if (keys.next()) {
-                    return keys.getLong(1);
+                    return inserted(keys.getLong(1));
                 }
             }
 
             // Fallback für SQLite: last_insert_rowid()
             try (var st = c.createStatement();
                  var rs = st.executeQuery("SELECT last_insert_rowid()")) {
-                if (rs.next()) return rs.getLong(1);
+                if (rs.next()) return inserted(rs.getLong(1));
             }
 
             throw new RuntimeException("Konnte neue Idea-ID nicht ermitteln.");
@@ -131,6 +151,11 @@ public class IdeaRepository {
         }
     }
 
+    private static long inserted(long id) {
+        ChangeBus.publish(new ChangeEvent.IdeaInserted(id));
+        return id;
+    }
+
     // INSERT – Variante: vollständiges Idea zurück (inkl. id, created_at)
     public Idea insertReturning(Idea toInsert) {
         long id = insert(toInsert);
@@ -155,7 +180,9 @@ public class IdeaRepository {
             else ps.setInt(5, idea.effortMinutes());
             ps.setLong(6, idea.id());
 
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.IdeaUpdated(idea.id()));
+            return n;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -167,7 +194,9 @@ public class IdeaRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.IdeaDeleted(id));
+            return n;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -180,7 +209,9 @@ public class IdeaRepository {
              var ps = c.prepareStatement(sql)) {
             ps.setString(1, newStatus.db());
             ps.setLong(2, id);
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.IdeaUpdated(id));
+            return n;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -194,34 +225,271 @@ public class IdeaRepository {
             if (minutes == null) ps.setNull(1, Types.INTEGER);
             else ps.setInt(1, minutes);
             ps.setLong(2, id);
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.IdeaUpdated(id));
+            return n;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    // Einfache Volltext-Suche (Titel+Body)
-    public List<Idea> search(String query) {
-        String q = (query == null) ? "" : query.trim();
-        if (q.isEmpty()) return findAll();
+    // Volltext-Suche (Titel+Body+Tags) über den FTS5-Index, nach BM25 sortiert – die besten limit Treffer
+    public List<Idea> search(String query, int limit) {
+        var hits = searchHits(query, null, limit);
+        if (hits.size() > limit) hits = hits.subList(0, limit);
+        return hits.stream().map(SearchHit::idea).toList();
+    }
+
+    /**
+     * Volltext-Suche mit Ranking und Hervorhebung, seitenweise per Keyset auf (rank, id) wie
+     * {@link #findPage}. Jedes Wort wird als Präfix gesucht ("kan" findet "Kanban"), "…" in
+     * Anführungszeichen als Phrase.
+     * <p>
+     * Erst werden nur IDs und BM25 der Seite ermittelt, Titel-Hervorhebung und Ausschnitt dann
+     * nur für diese Zeilen – sonst rechnet SQLite sie für jeden Treffer vor dem Sortieren.
+     * BM25 selbst muss weiterhin jeden Treffer bewerten.
+     *
+     * @param after letzter Treffer der vorigen Seite oder null für die erste Seite
+     * @return bis zu {@code limit+1} Treffer – der Überhang signalisiert "es gibt mehr"
+     */
+    public List<SearchHit> searchHits(String query, SearchHit after, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit muss > 0 sein: " + limit);
+        String match = toFtsQuery(query);
+        if (match.isEmpty()) return List.of();
+        // Gewichte: Titel 10, Body 1, Tags 5
+        // Papierkorb per NOT IN über idx_idea_deleted_at statt Join je Treffer; im äußeren Teil
+        // "+rowid" und CROSS JOIN, damit SQLite die Trefferliste einmal durchläuft statt je
+        // Seitenzeile per rowid neu zu suchen
         String sql = """
-        SELECT id, title, body, priority, status, effort_minutes, created_at, updated_at
+        WITH ranked AS (
+            SELECT rowid AS id, bm25(idea_fts, 10.0, 1.0, 5.0) AS score
+            FROM idea_fts
+            WHERE idea_fts MATCH ?
+        ),
+        page AS (
+            SELECT id, score
+            FROM ranked
+            WHERE id NOT IN (SELECT id FROM idea WHERE deleted_at IS NOT NULL) %s
+            ORDER BY score, id
+            LIMIT ?
+        )
+        SELECT i.id, i.title, i.body, i.priority, i.status, i.effort_minutes, i.created_at, i.updated_at,
+               highlight(idea_fts, 0, '«', '»')            AS title_hl,
+               snippet(idea_fts, 1, '«', '»', '…', 12)     AS body_snippet,
+               page.score                                  AS rank
+        FROM idea_fts
+        CROSS JOIN page
+        CROSS JOIN idea i
+        WHERE idea_fts MATCH ? AND page.id = +idea_fts.rowid AND i.id = page.id
+        ORDER BY page.score, page.id
+    """.formatted(after == null ? "" : "AND (score > ? OR (score = ? AND id > ?))");
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql)) {
+            int p = 1;
+            ps.setString(p++, match);
+            if (after != null) {
+                ps.setDouble(p++, after.rank());
+                ps.setDouble(p++, after.rank());
+                ps.setLong(p++, after.idea().id());
+            }
+            ps.setInt(p++, limit + 1);
+            ps.setString(p, match);
+            try (var rs = ps.executeQuery()) {
+                var hits = new ArrayList<SearchHit>();
+                while (rs.next()) {
+                    hits.add(new SearchHit(mapRow(rs),
+                            rs.getString("title_hl"),
+                            rs.getString("body_snippet"),
+                            rs.getDouble("rank")));
+                }
+                return hits;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Übersetzt Benutzereingabe in eine sichere FTS5-MATCH-Query:
+     * Wörter werden zu {@code "wort"*}, Text in Anführungszeichen zu einer Phrase; alles UND-verknüpft.
+     */
+    static String toFtsQuery(String input) {
+        if (input == null) return "";
+        var terms = new ArrayList<String>();
+        int i = 0, n = input.length();
+        while (i < n) {
+            char ch = input.charAt(i);
+            if (Character.isWhitespace(ch)) { i++; continue; }
+            if (ch == '"') {
+                int end = input.indexOf('"', i + 1);
+                if (end < 0) end = n;
+                String phrase = input.substring(i + 1, end).trim();
+                if (!phrase.isEmpty()) terms.add("\"" + phrase.replace("\"", "") + "\"");
+                i = end + 1;
+                continue;
+            }
+            int start = i;
+            while (i < n && !Character.isWhitespace(input.charAt(i)) && input.charAt(i) != '"') i++;
+            String word = input.substring(start, i);
+            if (!word.isEmpty()) terms.add("\"" + word + "\"*");
+        }
+        return String.join(" ", terms);
+    }
+
+    // ---- Projektionen für Listen (ohne body) ----
+    // Liste und Board laden seitenweise ohne body (findPage, findBoardColumns, findByStatusAfter),
+    // den Body holt erst der Bearbeiten-Dialog (findById).
+
+    /** Summaries zu beliebig vielen IDs (auch aus dem Papierkorb), z. B. nach einem {@link ChangeEvent}. */
+    public List<IdeaSummary> findSummariesByIds(java.util.Collection<Long> ids) {
+        var out = new ArrayList<IdeaSummary>();
+        if (ids == null || ids.isEmpty()) return out;
+        String sql = """
+        SELECT id, title, priority, status, effort_minutes, created_at, updated_at, deleted_at
         FROM idea
-        WHERE title LIKE ? OR body LIKE ?
-        ORDER BY created_at DESC
+        WHERE id IN (%s)
+    """.formatted(InClause.placeholders(InClause.CHUNK_SIZE));
+        try (var c = DbManager.getConnection()) {
+            for (long[] chunk : InClause.chunks(ids)) {
+                try (var ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.length; i++) ps.setLong(i + 1, chunk[i]);
+                    try (var rs = ps.executeQuery()) {
+                        while (rs.next()) out.add(mapSummary(rs));
+                    }
+                }
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // ---- Board ----
+
+    /**
+     * Lädt alle Board-Spalten mit EINER Abfrage (UNION ALL je Status, jeweils über
+     * idx_idea_status_created begrenzt). Liefert je Status bis zu {@code limit+1} Einträge –
+     * ist die Liste länger als das Limit, gibt es weitere ("mehr laden").
+     */
+    public Map<IdeaStatus, List<IdeaSummary>> findBoardColumns(Map<IdeaStatus, Integer> limits) {
+        var statuses = IdeaStatus.values();
+        var sql = new StringBuilder();
+        for (int i = 0; i < statuses.length; i++) {
+            if (i > 0) sql.append(" UNION ALL ");
+            sql.append("""
+                SELECT * FROM (
+                    SELECT id, title, priority, status, effort_minutes, created_at, updated_at, deleted_at
+                    FROM idea
+                    WHERE status = ? AND deleted_at IS NULL
+                    ORDER BY created_at DESC, id DESC
+                    LIMIT ?
+                )""");
+        }
+        Map<IdeaStatus, List<IdeaSummary>> out = new EnumMap<>(IdeaStatus.class);
+        for (IdeaStatus st : statuses) out.put(st, new ArrayList<>());
+
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (IdeaStatus st : statuses) {
+                ps.setString(p++, st.db());
+                ps.setInt(p++, limits.getOrDefault(st, 0) + 1);
+            }
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    var s = mapSummary(rs);
+                    out.get(s.status()).add(s);
+                }
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Nächste Seite einer Board-Spalte per Keyset (älter als {@code after}).
+     * Liefert bis zu {@code limit+1} Einträge, analog zu {@link #findBoardColumns}.
+     */
+    public List<IdeaSummary> findByStatusAfter(IdeaStatus status, IdeaSummary after, int limit) {
+        String sql = """
+        SELECT id, title, priority, status, effort_minutes, created_at, updated_at, deleted_at
+        FROM idea
+        WHERE status = ? AND deleted_at IS NULL
+          AND (created_at < ? OR (created_at = ? AND id < ?))
+        ORDER BY created_at DESC, id DESC
+        LIMIT ?
     """;
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
-            String like = "%" + q + "%";
-            ps.setString(1, like);
-            ps.setString(2, like);
+            ps.setString(1, status.db());
+            ps.setLong(2, after.createdAt());
+            ps.setLong(3, after.createdAt());
+            ps.setLong(4, after.id());
+            ps.setInt(5, limit + 1);
             try (var rs = ps.executeQuery()) {
-                return mapAll(rs);
+                var list = new ArrayList<IdeaSummary>();
+                while (rs.next()) list.add(mapSummary(rs));
+                return list;
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
+
+    // ---- Liste (seitenweise) ----
+
+    /**
+     * Eine Seite der Ideenliste per Keyset auf ({@code sort}, id) – ohne OFFSET, daher gleich
+     * schnell auf Seite 1 und Seite 1000.
+     *
+     * @param status null/"all" = alle aktiven, "trash" = Papierkorb, sonst Status (db-Wert)
+     * @param after  letzte Zeile der vorigen Seite oder null für die erste Seite
+     * @return bis zu {@code limit+1} Einträge – der Überhang signalisiert "es gibt mehr"
+     */
+    public List<IdeaSummary> findPage(String status, IdeaSort sort, boolean descending,
+                                      IdeaSummary after, int limit) {
+        String op = descending ? "<" : ">";
+        String dir = descending ? "DESC" : "ASC";
+        var sql = new StringBuilder("""
+        SELECT id, title, priority, status, effort_minutes, created_at, updated_at, deleted_at
+        FROM idea
+        """);
+        boolean trash = "trash".equalsIgnoreCase(status);
+        boolean byStatus = status != null && !trash && !"all".equalsIgnoreCase(status);
+        // "+deleted_at": Index auf deleted_at nicht verwenden, sonst sortiert SQLite jede Seite
+        // im Temp-B-Tree statt den Index der Sortierspalte entlangzulaufen
+        String deleted = sort == IdeaSort.DELETED ? "deleted_at" : "+deleted_at";
+        sql.append("WHERE ").append(deleted).append(trash ? " IS NOT NULL" : " IS NULL");
+        if (byStatus) sql.append(" AND status = ?");
+        if (after != null) {
+            sql.append(" AND (").append(sort.column).append(' ').append(op).append(" ? OR (")
+               .append(sort.column).append(" = ? AND id ").append(op).append(" ?))");
+        }
+        sql.append(" ORDER BY ").append(sort.column).append(' ').append(dir)
+           .append(", id ").append(dir).append(" LIMIT ?");
+
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql.toString())) {
+            int p = 1;
+            if (byStatus) ps.setString(p++, status);
+            if (after != null) {
+                Object key = sort.keyOf(after);
+                ps.setObject(p++, key);
+                ps.setObject(p++, key);
+                ps.setLong(p++, after.id());
+            }
+            ps.setInt(p, limit + 1);
+            try (var rs = ps.executeQuery()) {
+                var list = new ArrayList<IdeaSummary>();
+                while (rs.next()) list.add(mapSummary(rs));
+                return list;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public List<Idea> findByTagId(long tagId) {
         String sql = """
         SELECT i.id, i.title, i.body, i.priority, i.status,
@@ -246,7 +514,7 @@ public class IdeaRepository {
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setString(1, newStatus);
             ps.setLong(2, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.IdeaUpdated(id));
         } catch (SQLException e) {
             throw new RuntimeException("updateStatus failed", e);
         }
@@ -257,7 +525,7 @@ public class IdeaRepository {
         try (Connection c = DbManager.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.IdeaDeleted(id));
         } catch (SQLException e) {
             throw new RuntimeException("delete failed", e);
         }
@@ -284,7 +552,7 @@ public class IdeaRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.IdeaUpdated(id));
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -295,7 +563,7 @@ public class IdeaRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.IdeaUpdated(id));
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -306,7 +574,7 @@ public class IdeaRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.IdeaDeleted(id));
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -318,7 +586,7 @@ public class IdeaRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.IdeaUpdated(id));
         } catch (java.sql.SQLException e) {
             throw new RuntimeException(e);
         }
@@ -330,14 +598,102 @@ public class IdeaRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.IdeaDeleted(id));
         } catch (java.sql.SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    // ---- Abfragesprache (Suchfeld) ----
+
+    /**
+     * IDs aller Ideen, die {@code query} erfüllen (siehe {@link IdeaQuery}); ohne {@code includeTrash}
+     * nur aktive. Das SQL kommt aus dem Plan-Cache des {@link IdeaQueryCompiler}.
+     */
+    public IdBitmap findIdsMatching(IdeaQuery.Node query, boolean includeTrash) {
+        var q = IdeaQueryCompiler.compile(query);
+        String sql = "SELECT i.id FROM idea i WHERE " + q.where()
+                + (includeTrash ? "" : " AND +i.deleted_at IS NULL");
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < q.params().size(); i++) ps.setObject(i + 1, q.params().get(i));
+            try (var rs = ps.executeQuery()) {
+                var ids = new IdBitmap();
+                while (rs.next()) ids.add(rs.getLong(1));
+                return ids;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Welche der {@code ids} (aktiv, nicht im Papierkorb) erfüllen {@code query}? Für die
+     * inkrementelle Pflege gespeicherter Ansichten: geprüft werden nur geänderte Ideen, per
+     * {@code id IN (…)} über den Primärschlüssel und zeilenweise Bedingungen
+     * ({@link IdeaQueryCompiler#compileForRows}).
+     */
+    public IdBitmap findIdsMatchingAmong(IdeaQuery.Node query, java.util.Collection<Long> ids) {
+        var out = new IdBitmap();
+        if (ids == null || ids.isEmpty()) return out;
+        var q = IdeaQueryCompiler.compileForRows(query);
+        String sql = "SELECT i.id FROM idea i WHERE i.id IN (" + InClause.placeholders(InClause.CHUNK_SIZE)
+                + ") AND +i.deleted_at IS NULL AND " + q.where();
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql)) {
+            for (long[] chunk : InClause.chunks(ids)) {
+                int p = 1;
+                for (long id : chunk) ps.setLong(p++, id);
+                for (Object param : q.params()) ps.setObject(p++, param);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) out.add(rs.getLong(1));
+                }
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
+    // ---- Massenänderungen (Mehrfachauswahl) ----
+    // Je Aufruf EINE Transaktion mit mengenbasiertem UPDATE/DELETE … WHERE id IN (…) in Blöcken;
+    // die Events gehen gesammelt raus (ein Bündel → eine inkrementelle Aktualisierung der Views).
+
+    /** Status für alle {@code ids}; liefert die Anzahl tatsächlich geänderter Ideen. */
+    public int changeStatus(java.util.Collection<Long> ids, IdeaStatus newStatus) {
+        return bulk("""
+                UPDATE idea SET status = ?
+                WHERE status IS NOT ? AND id IN (%s)
+                RETURNING id
+                """, ids, ChangeEvent.IdeaUpdated::new, newStatus.db(), newStatus.db());
+    }
 
+    public int moveToTrash(java.util.Collection<Long> ids) {
+        return bulk("""
+                UPDATE idea SET deleted_at = strftime('%%s','now')
+                WHERE deleted_at IS NULL AND id IN (%s)
+                RETURNING id
+                """, ids, ChangeEvent.IdeaUpdated::new);
+    }
 
+    public int restore(java.util.Collection<Long> ids) {
+        return bulk("""
+                UPDATE idea SET deleted_at = NULL
+                WHERE deleted_at IS NOT NULL AND id IN (%s)
+                RETURNING id
+                """, ids, ChangeEvent.IdeaUpdated::new);
+    }
 
+    /** Endgültig löschen (Tags, Erinnerungen, Anhang-Einträge per ON DELETE CASCADE). */
+    public int deletePermanent(java.util.Collection<Long> ids) {
+        return bulk("DELETE FROM idea WHERE id IN (%s) RETURNING id", ids, ChangeEvent.IdeaDeleted::new);
+    }
+
+    private static int bulk(String sql, java.util.Collection<Long> ids,
+                            java.util.function.LongFunction<ChangeEvent> event, Object... leading) {
+        if (ids == null || ids.isEmpty()) return 0;
+        List<Long> changed = DbManager.inWriteTransaction(c -> InClause.returningIds(c, sql, ids, leading));
+        ChangeBus.publishAll(changed.stream().map(event::apply).toList());
+        return changed.size();
+    }
 }
@@ -0,0 +1,46 @@
+package de.kassel.db;
+
+import de.kassel.model.IdeaSummary;
+
+import java.util.Comparator;
+
+/**
+ * Sortierschlüssel für die seitenweise Ideenliste ({@link IdeaRepository#findPage}).
+ * Es wird immer zusätzlich nach {@code id} sortiert, damit das Keyset eindeutig ist.
+ */
+public enum IdeaSort {
+    CREATED("created_at"),
+    TITLE("title COLLATE NOCASE"),
+    PRIORITY("priority"),
+    STATUS("status"),
+    DELETED("deleted_at");
+
+    final String column;
+
+    IdeaSort(String column) { this.column = column; }
+
+    /** Dieselbe Reihenfolge wie das ORDER BY von {@link IdeaRepository#findPage} (für Einfügen ohne Neuladen). */
+    public Comparator<IdeaSummary> comparator(boolean descending) {
+        Comparator<IdeaSummary> byKey = switch (this) {
+            case CREATED  -> Comparator.comparingLong(IdeaSummary::createdAt);
+            case TITLE    -> Comparator.comparing(IdeaSummary::title, String.CASE_INSENSITIVE_ORDER);
+            case PRIORITY -> Comparator.comparingInt(s -> s.priority().level());
+            case STATUS   -> Comparator.comparing(s -> s.status().db());
+            case DELETED  -> Comparator.comparing(IdeaSummary::deletedAt,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+        };
+        var cmp = byKey.thenComparingLong(IdeaSummary::id);
+        return descending ? cmp.reversed() : cmp;
+    }
+
+    /** Wert der Sortierspalte einer bereits geladenen Zeile (Keyset-Grenze). */
+    Object keyOf(IdeaSummary s) {
+        return switch (this) {
+            case CREATED  -> s.createdAt();
+            case TITLE    -> s.title();
+            case PRIORITY -> s.priority().level();
+            case STATUS   -> s.status().db();
+            case DELETED  -> s.deletedAt();
+        };
+    }
+}
@@ -0,0 +1,224 @@
+package de.kassel.db;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Liest eine Import-Datei Datensatz für Datensatz (gestreamt, nie die ganze Datei im Speicher).
+ * Ein Datensatz ist eine Map Spaltenname → Wert; bei CSV sind alle Werte Strings.
+ */
+abstract class ImportSource implements Closeable {
+
+    /** Schlüssel für Datensätze, die sich nicht lesen ließen (Wert = Fehlermeldung). */
+    static final String ERROR = "\u0000error";
+
+    private final CountingInputStream in;
+    protected final BufferedReader reader;
+    protected long line;            // zuletzt gelesene physische Zeile (für Fehlermeldungen)
+
+    private ImportSource(Path file) throws IOException {
+        this.in = new CountingInputStream(Files.newInputStream(file));
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    static ImportSource open(Path file, IdeaImporter.Format format) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(file);
+            case JSONL -> new JsonL(file);
+        };
+    }
+
+    /** Nächster Datensatz oder {@code null} am Dateiende. */
+    abstract Map<String, Object> next() throws IOException;
+
+    /** Zeile, in der der zuletzt gelieferte Datensatz beginnt (1-basiert). */
+    abstract long recordLine();
+
+    /** Bisher gelesene Bytes (gepuffert, also leicht voraus) – für die Fortschrittsanzeige. */
+    long bytesRead() {
+        return in.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String stripBom(String s) {
+        return s != null && !s.isEmpty() && s.charAt(0) == '\uFEFF' ? s.substring(1) : s;
+    }
+
+    // ---- JSON Lines ----
+
+    private static final class JsonL extends ImportSource {
+        private long recordLine;
+
+        JsonL(Path file) throws IOException {
+            super(file);
+        }
+
+        @Override
+        Map<String, Object> next() throws IOException {
+            String s;
+            do {
+                s = reader.readLine();
+                if (s == null) return null;
+                if (++line == 1) s = stripBom(s);
+            } while (s.isBlank());
+            recordLine = line;
+            try {
+                return JsonLines.parseObject(s);
+            } catch (IllegalArgumentException ex) {
+                // als Datensatz mit Fehler weiterreichen – der Importer zählt ihn als übersprungen
+                return Map.of(ERROR, ex.getMessage());
+            }
+        }
+
+        @Override
+        long recordLine() {
+            return recordLine;
+        }
+    }
+
+    // ---- CSV (RFC 4180) ----
+
+    /**
+     * Erste Zeile = Spaltennamen. Trennzeichen ({@code , ; Tab}) wird an der Kopfzeile erkannt.
+     * Felder in Anführungszeichen dürfen Trennzeichen, {@code ""} und Zeilenumbrüche enthalten.
+     */
+    private static final class Csv extends ImportSource {
+        private final String[] header;
+        private final char separator;
+        private final StringBuilder field = new StringBuilder();
+        private long recordLine;
+
+        Csv(Path file) throws IOException {
+            super(file);
+            String first = stripBom(reader.readLine());
+            line = 1;
+            if (first == null) {
+                header = new String[0];
+                separator = ',';
+                return;
+            }
+            separator = detectSeparator(first);
+            var names = split(first);
+            header = names.toArray(String[]::new);
+        }
+
+        private static char detectSeparator(String headerLine) {
+            char best = ',';
+            long bestCount = -1;
+            for (char candidate : new char[]{',', ';', '\t'}) {
+                long n = headerLine.chars().filter(ch -> ch == candidate).count();
+                if (n > bestCount) {
+                    best = candidate;
+                    bestCount = n;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        Map<String, Object> next() throws IOException {
+            String s;
+            do {
+                s = reader.readLine();
+                if (s == null) return null;
+                line++;
+            } while (s.isEmpty());
+            recordLine = line;
+            List<String> values = split(s);
+            var out = new HashMap<String, Object>(header.length * 2);
+            for (int i = 0; i < header.length && i < values.size(); i++) {
+                String v = values.get(i);
+                out.put(header[i], v.isEmpty() ? null : v);
+            }
+            return out;
+        }
+
+        /** Zerlegt einen Datensatz; liest bei offenen Anführungszeichen weitere Zeilen nach. */
+        private List<String> split(String s) throws IOException {
+            var out = new ArrayList<String>();
+            field.setLength(0);
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i >= s.length()) {
+                    if (!quoted) break;
+                    String more = reader.readLine();            // Zeilenumbruch im Feld
+                    if (more == null) break;                     // offenes Feld am Dateiende: nehmen, was da ist
+                    line++;
+                    field.append('\n');
+                    s = more;
+                    i = 0;
+                    continue;
+                }
+                char ch = s.charAt(i++);
+                if (quoted) {
+                    if (ch != '"') field.append(ch);
+                    else if (i < s.length() && s.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else quoted = false;
+                } else if (ch == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (ch == separator) {
+                    out.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(ch);
+                }
+            }
+            out.add(field.toString());
+            return out;
+        }
+
+        @Override
+        long recordLine() {
+            return recordLine;
+        }
+    }
+
+    // ---- Hilfsklassen ----
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
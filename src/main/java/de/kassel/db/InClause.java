@@ -0,0 +1,68 @@
+package de.kassel.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hilfen für {@code WHERE x IN (...)} über viele IDs.
+ * <p>
+ * IDs werden in Blöcke fester Größe geteilt; der letzte Block wird mit der letzten ID
+ * aufgefüllt, damit alle Blöcke denselben SQL-Text haben (→ Statement-Cache greift).
+ * Doppelte Werte in {@code IN (...)} sind für SQLite unschädlich.
+ */
+final class InClause {
+
+    /** Deutlich unter SQLITE_MAX_VARIABLE_NUMBER (ältere Builds: 999). */
+    static final int CHUNK_SIZE = 500;
+
+    private InClause() {}
+
+    /** "?,?,?" mit {@code n} Platzhaltern. */
+    static String placeholders(int n) {
+        if (n <= 0) throw new IllegalArgumentException("n <= 0");
+        var sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /** Teilt die (distinct) IDs in Blöcke zu je {@link #CHUNK_SIZE}, der letzte ist aufgefüllt. */
+    static List<long[]> chunks(Collection<Long> ids) {
+        long[] distinct = ids.stream().filter(java.util.Objects::nonNull)
+                .mapToLong(Long::longValue).distinct().toArray();
+        var out = new ArrayList<long[]>();
+        for (int from = 0; from < distinct.length; from += CHUNK_SIZE) {
+            long[] chunk = new long[CHUNK_SIZE];
+            int len = Math.min(CHUNK_SIZE, distinct.length - from);
+            System.arraycopy(distinct, from, chunk, 0, len);
+            java.util.Arrays.fill(chunk, len, CHUNK_SIZE, distinct[from + len - 1]);
+            out.add(chunk);
+        }
+        return out;
+    }
+
+    /**
+     * Führt {@code sql} blockweise aus und sammelt die per {@code RETURNING} gelieferten IDs.
+     * {@code sql} enthält genau ein {@code IN (%s)} als letzten Parameterblock; {@code leading}
+     * wird vorher gebunden. Die Transaktion steuert der Aufrufer.
+     */
+    static List<Long> returningIds(Connection c, String sql, Collection<Long> ids, Object... leading)
+            throws SQLException {
+        var out = new ArrayList<Long>();
+        try (var ps = c.prepareStatement(sql.formatted(placeholders(CHUNK_SIZE)))) {
+            for (int i = 0; i < leading.length; i++) ps.setObject(i + 1, leading[i]);
+            for (long[] chunk : chunks(ids)) {
+                for (int i = 0; i < chunk.length; i++) ps.setLong(leading.length + i + 1, chunk[i]);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) out.add(rs.getLong(1));
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,212 @@
+package de.kassel.db;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimaler JSON-Parser für eine Zeile im JSON-Lines-Format (ein Objekt pro Zeile), dazu
+ * {@link #appendString} zum Schreiben (Export).
+ * <p>
+ * Liefert {@code Map<String, Object>} mit String, Long (ganze Zahlen), Double, Boolean, null,
+ * {@code List<Object>} und verschachtelten Maps. Für Import-Dateien reicht das – eine
+ * vollständige JSON-Bibliothek wäre eine zusätzliche Abhängigkeit nur dafür.
+ */
+final class JsonLines {
+
+    private final String s;
+    private int pos;
+
+    private JsonLines(String s) {
+        this.s = s;
+    }
+
+    /** Parst genau ein JSON-Objekt; Fehler als {@link IllegalArgumentException} mit Spalte. */
+    static Map<String, Object> parseObject(String line) {
+        var p = new JsonLines(line);
+        p.skipWhitespace();
+        if (p.peek() != '{') throw p.error("Objekt erwartet");
+        var obj = p.object();
+        p.skipWhitespace();
+        if (p.pos < p.s.length()) throw p.error("Zeichen nach dem Objekt");
+        return obj;
+    }
+
+    // ---- Schreiben ----
+
+    /** Hängt {@code value} als JSON-String (mit Anführungszeichen) oder {@code null} an. */
+    static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (ch < 0x20 || ch == '\u2028' || ch == '\u2029') {
+                        out.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        out.append(ch);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    // ---- Lesen ----
+
+    private Object value() {
+        skipWhitespace();
+        char ch = peek();
+        return switch (ch) {
+            case '{' -> object();
+            case '[' -> array();
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> {
+                if (ch == '-' || (ch >= '0' && ch <= '9')) yield number();
+                throw error("Wert erwartet");
+            }
+        };
+    }
+
+    private Map<String, Object> object() {
+        var out = new LinkedHashMap<String, Object>();
+        pos++; // {
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return out;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') throw error("Schlüssel erwartet");
+            String key = string();
+            skipWhitespace();
+            expect(':');
+            out.put(key, value());
+            skipWhitespace();
+            char ch = next();
+            if (ch == '}') return out;
+            if (ch != ',') throw error("',' oder '}' erwartet");
+        }
+    }
+
+    private List<Object> array() {
+        var out = new ArrayList<>();
+        pos++; // [
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return out;
+        }
+        while (true) {
+            out.add(value());
+            skipWhitespace();
+            char ch = next();
+            if (ch == ']') return out;
+            if (ch != ',') throw error("',' oder ']' erwartet");
+        }
+    }
+
+    private String string() {
+        pos++; // "
+        int start = pos;
+        // schneller Weg: keine Escapes
+        while (pos < s.length()) {
+            char ch = s.charAt(pos);
+            if (ch == '"') return s.substring(start, pos++);
+            if (ch == '\\') break;
+            pos++;
+        }
+        var sb = new StringBuilder(s.length() - start).append(s, start, pos);
+        while (true) {
+            char ch = next();
+            if (ch == '"') return sb.toString();
+            if (ch != '\\') {
+                sb.append(ch);
+                continue;
+            }
+            char esc = next();
+            switch (esc) {
+                case '"', '\\', '/' -> sb.append(esc);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > s.length()) throw error("unvollständiges \\u-Escape");
+                    try {
+                        sb.append((char) Integer.parseInt(s, pos, pos + 4, 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("ungültiges \\u-Escape");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("unbekanntes Escape \\" + esc);
+            }
+        }
+    }
+
+    private Object number() {
+        int start = pos;
+        boolean decimal = false;
+        while (pos < s.length()) {
+            char ch = s.charAt(pos);
+            if (ch == '.' || ch == 'e' || ch == 'E') decimal = true;
+            else if (!(ch == '-' || ch == '+' || (ch >= '0' && ch <= '9'))) break;
+            pos++;
+        }
+        String text = s.substring(start, pos);
+        try {
+            return decimal ? (Object) Double.parseDouble(text) : (Object) Long.parseLong(text);
+        } catch (NumberFormatException ex) {
+            pos = start;
+            throw error("ungültige Zahl '" + text + "'");
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!s.startsWith(word, pos)) throw error("'" + word + "' erwartet");
+        pos += word.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+    }
+
+    private char peek() {
+        if (pos >= s.length()) throw error("unerwartetes Zeilenende");
+        return s.charAt(pos);
+    }
+
+    private char next() {
+        char ch = peek();
+        pos++;
+        return ch;
+    }
+
+    private void expect(char ch) {
+        if (next() != ch) {
+            pos--;
+            throw error("'" + ch + "' erwartet");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " (Spalte " + (pos + 1) + ")");
+    }
+}
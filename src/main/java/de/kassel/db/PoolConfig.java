@@ -0,0 +1,40 @@
+package de.kassel.db;
+
+/**
+ * Einstellungen für den {@link ConnectionPool}.
+ * Alle Werte lassen sich per Systemproperty überschreiben, z. B. {@code -Dmindstore.pool.maxSize=8}.
+ */
+public record PoolConfig(
+        int maxSize,                 // max. gleichzeitig ausgeliehene Verbindungen
+        long acquireTimeoutMillis,   // so lange wartet getConnection() auf eine freie Verbindung
+        long leakThresholdMillis,    // länger ausgeliehen => Leak-Warnung (0 = aus)
+        boolean leakTraces,          // Stacktrace beim Ausleihen merken (teuer, nur zum Debuggen)
+        int busyTimeoutMillis,       // PRAGMA busy_timeout je Verbindung
+        int statementCacheSize       // gecachte PreparedStatements je Verbindung (0 = aus)
+) {
+    public PoolConfig {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize muss >= 1 sein");
+        if (acquireTimeoutMillis < 0) throw new IllegalArgumentException("acquireTimeoutMillis < 0");
+        if (leakThresholdMillis < 0) throw new IllegalArgumentException("leakThresholdMillis < 0");
+        if (busyTimeoutMillis < 0) throw new IllegalArgumentException("busyTimeoutMillis < 0");
+        if (statementCacheSize < 0) throw new IllegalArgumentException("statementCacheSize < 0");
+    }
+
+    public static PoolConfig defaults() {
+        return new PoolConfig(4, 10_000, 30_000, false, 5_000, 64);
+    }
+
+    /** Defaults, überschrieben durch {@code mindstore.pool.*}-Systemproperties. */
+    public static PoolConfig fromSystemProperties() {
+        var d = defaults();
+        return new PoolConfig(
+                Integer.getInteger("mindstore.pool.maxSize", d.maxSize()),
+                Long.getLong("mindstore.pool.acquireTimeoutMs", d.acquireTimeoutMillis()),
+                Long.getLong("mindstore.pool.leakThresholdMs", d.leakThresholdMillis()),
+                Boolean.parseBoolean(System.getProperty("mindstore.pool.leakTraces",
+                        Boolean.toString(d.leakTraces()))),
+                Integer.getInteger("mindstore.pool.busyTimeoutMs", d.busyTimeoutMillis()),
+                Integer.getInteger("mindstore.pool.statementCacheSize", d.statementCacheSize())
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package de.kassel.db;
+
+/** Momentaufnahme der Pool-Kennzahlen (siehe {@link DbManager#poolStats()}). */
+public record PoolStats(
+        int maxSize,
+        int total,            // physisch offene Verbindungen
+        int active,           // aktuell ausgeliehen
+        int idle,             // offen, aber frei
+        int waiting,          // Threads, die gerade auf eine Verbindung warten
+        long acquireCount,
+        long totalWaitNanos,
+        long maxWaitNanos,
+        long timeouts,
+        long leaksDetected
+) {
+    public double avgWaitMillis() {
+        return acquireCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / acquireCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.ROOT,
+                "Pool[active=%d, idle=%d, total=%d/%d, waiting=%d, acquires=%d, avgWait=%.3fms, maxWait=%.3fms, timeouts=%d, leaks=%d]",
+                active, idle, total, maxSize, waiting, acquireCount, avgWaitMillis(),
+                maxWaitNanos / 1_000_000.0, timeouts, leaksDetected);
+    }
+}
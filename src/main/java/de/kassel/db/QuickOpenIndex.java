@@ -0,0 +1,412 @@
+package de.kassel.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigramm-Index über Ideentitel (ohne Papierkorb) und Tag-Namen für die Schnellsuche (Strg+P).
+ * Jedes Wort wird wie bei pg_trgm mit zwei Leerzeichen davor und einem dahinter in Trigramme
+ * zerlegt ({@code "kanban"} -> {@code "  k", " ka", "kan", …, "an "}); ein Tippfehler kostet nur
+ * wenige davon, {@code "kanbna"} teilt mit {@code "Kanban"} noch 4 von 7.
+ * <p>
+ * Alles liegt in primitiven Arrays: Einträge (ID, Text, Zeitstempel, Anzahl Trigramme) und je
+ * Trigramm (3 Zeichen in einem {@code long}) eine Liste von Eintragsnummern in einer Hashtabelle
+ * mit offener Adressierung. {@link #search} zählt die gemeinsamen Trigramme über die Listen der
+ * Eingabe und wählt die besten k ohne Sortieren aller Kandidaten.
+ * <p>
+ * {@link #refresh} hält den Index über die {@link ChangeEvent}s aktuell (geänderte Einträge werden
+ * als tot markiert und neu angehängt, gelegentlich wird kompaktiert). DB-Zugriffe laufen außerhalb
+ * der Sperre, also {@code load}/{@code refresh} im Hintergrund aufrufen.
+ */
+public final class QuickOpenIndex {
+
+    public enum Kind { IDEA, TAG }
+
+    /** Treffer der Schnellsuche; {@code score} = Ähnlichkeit (0..1) plus Bonus für Aktualität. */
+    public record Hit(Kind kind, long id, String label, double score) { }
+
+    // Anteil der Trigramme der Eingabe, die ein Kandidat mindestens enthalten muss
+    private static final double MIN_COVERAGE = 0.34;
+    // Aktualität: Bonus bis 0.05 (ordnet ähnlich gute Treffer), halbiert sich alle 30 Tage
+    private static final double RECENCY_WEIGHT = 0.05;
+    private static final double RECENCY_HALF_LIFE_SECONDS = 30.0 * 24 * 60 * 60;
+
+    // ---- Einträge (Index = Eintragsnummer) ----
+    private long[] ids = new long[1024];
+    private boolean[] isTag = new boolean[1024];
+    private boolean[] alive = new boolean[1024];
+    private String[] labels = new String[1024];
+    private long[] touchedAt = new long[1024];        // Epoch-Sekunden (geändert bzw. angelegt)
+    private int[] gramCounts = new int[1024];
+    private int size;
+    private int live;
+    private final Map<Long, Integer> ideaSlots = new HashMap<>();
+    private final Map<Long, Integer> tagSlots = new HashMap<>();
+
+    // ---- Trigramm -> Eintragsnummern (offene Adressierung, Schlüssel 0 = frei) ----
+    private long[] gramKeys = new long[1 << 14];
+    private int[][] postings = new int[1 << 14][];
+    private int[] postingSizes = new int[1 << 14];
+    private int grams;
+
+    // Zähler je Eintrag während einer Suche (danach wieder 0)
+    private int[] hits = new int[0];
+    private int[] candidates = new int[256];
+
+    // reiht refresh()-Läufe hintereinander
+    private final Object refreshLock = new Object();
+
+    private QuickOpenIndex() {}
+
+    /** Baut den Index aus {@code idea} und {@code tag}. */
+    public static QuickOpenIndex load() {
+        var index = new QuickOpenIndex();
+        try (Connection c = DbManager.getConnection()) {
+            var ideas = read(c, "SELECT id, title, COALESCE(updated_at, created_at), 1 FROM idea WHERE deleted_at IS NULL");
+            var tags = readTags(c);
+            synchronized (index) {
+                for (var r : ideas) index.putIdea(r);
+                for (var r : tags) index.putTag(r);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return index;
+    }
+
+    // ---- Suche ----
+
+    /** Die besten {@code limit} Treffer für {@code query}, bester zuerst; leer bei leerer Eingabe. */
+    public synchronized List<Hit> search(String query, int limit) {
+        long[] q = trigrams(query);
+        if (q.length == 0 || limit <= 0) return List.of();
+        if (hits.length < size) hits = new int[ids.length];
+
+        // gemeinsame Trigramme je Eintrag zählen
+        int n = 0;
+        for (long g : q) {
+            int slot = find(g);
+            if (gramKeys[slot] == 0) continue;
+            int[] list = postings[slot];
+            for (int i = 0, len = postingSizes[slot]; i < len; i++) {
+                int e = list[i];
+                if (hits[e]++ == 0) {
+                    if (n == candidates.length) candidates = Arrays.copyOf(candidates, n * 2);
+                    candidates[n++] = e;
+                }
+            }
+        }
+
+        // Top-k: Bestenliste absteigend, Einfügen per Verschieben (k ist klein)
+        int minShared = Math.max(1, (int) Math.ceil(q.length * MIN_COVERAGE));
+        long now = System.currentTimeMillis() / 1000;
+        int[] best = new int[limit];
+        double[] bestScore = new double[limit];
+        int found = 0;
+        for (int i = 0; i < n; i++) {
+            int e = candidates[i];
+            int shared = hits[e];
+            hits[e] = 0;
+            if (shared < minShared || !alive[e]) continue;
+            double score = score(shared, q.length, gramCounts[e], now - touchedAt[e]);
+            if (found == limit && score <= bestScore[limit - 1]) continue;
+            int pos = found < limit ? found++ : limit - 1;
+            while (pos > 0 && bestScore[pos - 1] < score) {
+                best[pos] = best[pos - 1];
+                bestScore[pos] = bestScore[pos - 1];
+                pos--;
+            }
+            best[pos] = e;
+            bestScore[pos] = score;
+        }
+
+        var out = new ArrayList<Hit>(found);
+        for (int i = 0; i < found; i++) {
+            int e = best[i];
+            out.add(new Hit(isTag[e] ? Kind.TAG : Kind.IDEA, ids[e], labels[e], bestScore[i]));
+        }
+        return out;
+    }
+
+    /**
+     * Anteil der Eingabe, der gefunden wurde (zählt am meisten), etwas Gewicht für kurze Texte
+     * (exakter Titel vor langem Titel mit demselben Wort), dazu der Aktualitäts-Bonus.
+     */
+    private static double score(int shared, int queryGrams, int entryGrams, long ageSeconds) {
+        double similarity = 0.8 * shared / queryGrams + 0.2 * shared / Math.max(entryGrams, shared);
+        double recency = Math.pow(0.5, Math.max(0, ageSeconds) / RECENCY_HALF_LIFE_SECONDS);
+        return similarity + RECENCY_WEIGHT * recency;
+    }
+
+    // ---- Pflege ----
+
+    /** Arbeitet ein Bündel Änderungen ein (im Hintergrund aufrufen – liest aus der DB). */
+    public void refresh(List<ChangeEvent> events) {
+        boolean catalog = false;
+        var changed = new HashSet<Long>();
+        var deleted = new HashSet<Long>();
+        var imported = new ArrayList<ChangeEvent.IdeasImported>();
+        for (var e : events) {
+            switch (e) {
+                case ChangeEvent.IdeaInserted i -> changed.add(i.ideaId());
+                case ChangeEvent.IdeaUpdated u -> changed.add(u.ideaId());     // auch Papierkorb hin/zurück
+                case ChangeEvent.IdeaDeleted d -> deleted.add(d.ideaId());
+                case ChangeEvent.TagsChanged t -> catalog |= t.ideaId() == null;
+                case ChangeEvent.IdeasImported b -> imported.add(b);
+                case ChangeEvent.ReminderChanged r -> { /* nicht relevant */ }
+            }
+        }
+        changed.removeAll(deleted);
+        if (!catalog && changed.isEmpty() && deleted.isEmpty() && imported.isEmpty()) return;
+        synchronized (refreshLock) {
+            try (Connection c = DbManager.getConnection()) {
+                var rows = readIdeas(c, changed);
+                for (var b : imported) {
+                    rows.addAll(read(c, """
+                            SELECT id, title, COALESCE(updated_at, created_at), deleted_at IS NULL
+                            FROM idea WHERE id BETWEEN ? AND ?""", b.firstId(), b.lastId()));
+                }
+                var tags = catalog ? readTags(c) : null;
+                apply(rows, changed, deleted, tags);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private synchronized void apply(List<Row> rows, Set<Long> changed, Set<Long> deleted, List<Row> tags) {
+        for (long id : deleted) kill(ideaSlots.remove(id));
+        // nicht mehr gefunden = inzwischen gelöscht
+        var seen = new HashSet<Long>();
+        for (var r : rows) {
+            seen.add(r.id());
+            if (r.active()) putIdea(r);
+            else kill(ideaSlots.remove(r.id()));
+        }
+        for (long id : changed) {
+            if (!seen.contains(id)) kill(ideaSlots.remove(id));
+        }
+        if (tags != null) {
+            var keep = new HashSet<Long>();
+            for (var r : tags) {
+                keep.add(r.id());
+                putTag(r);
+            }
+            tagSlots.keySet().removeIf(id -> {
+                if (keep.contains(id)) return false;
+                kill(tagSlots.get(id));
+                return true;
+            });
+        }
+        if (size > 4096 && size - live > live) compact();
+    }
+
+    private void putIdea(Row r) {
+        put(r, false, ideaSlots);
+    }
+
+    private void putTag(Row r) {
+        put(r, true, tagSlots);
+    }
+
+    /** Neu anhängen; bei gleichem Text nur den Zeitstempel übernehmen. */
+    private void put(Row r, boolean tag, Map<Long, Integer> slots) {
+        Integer old = slots.get(r.id());
+        if (old != null && labels[old].equals(r.label())) {
+            touchedAt[old] = r.touchedAt();
+            return;
+        }
+        kill(old);
+        slots.put(r.id(), append(r.id(), tag, r.label(), r.touchedAt()));
+    }
+
+    private int append(long id, boolean tag, String label, long time) {
+        if (size == ids.length) grow();
+        int e = size++;
+        ids[e] = id;
+        isTag[e] = tag;
+        alive[e] = true;
+        labels[e] = label;
+        touchedAt[e] = time;
+        long[] g = trigrams(label);
+        gramCounts[e] = g.length;
+        for (long key : g) addPosting(key, e);
+        live++;
+        return e;
+    }
+
+    private void kill(Integer e) {
+        if (e == null || !alive[e]) return;
+        alive[e] = false;
+        labels[e] = null;
+        live--;
+    }
+
+    /** Tote Einträge entfernen: Index aus den lebenden Einträgen neu aufbauen (ohne DB). */
+    private void compact() {
+        long[] oldIds = ids;
+        boolean[] oldTag = isTag;
+        boolean[] oldAlive = alive;
+        String[] oldLabels = labels;
+        long[] oldTime = touchedAt;
+        int oldSize = size;
+        int cap = Math.max(1024, Integer.highestOneBit(Math.max(1, live)) << 1);
+        ids = new long[cap];
+        isTag = new boolean[cap];
+        alive = new boolean[cap];
+        labels = new String[cap];
+        touchedAt = new long[cap];
+        gramCounts = new int[cap];
+        size = 0;
+        live = 0;
+        gramKeys = new long[gramKeys.length];
+        postings = new int[gramKeys.length][];
+        postingSizes = new int[gramKeys.length];
+        grams = 0;
+        ideaSlots.clear();
+        tagSlots.clear();
+        for (int e = 0; e < oldSize; e++) {
+            if (!oldAlive[e]) continue;
+            int n = append(oldIds[e], oldTag[e], oldLabels[e], oldTime[e]);
+            (oldTag[e] ? tagSlots : ideaSlots).put(oldIds[e], n);
+        }
+        hits = new int[0];
+    }
+
+    private void grow() {
+        int cap = ids.length * 2;
+        ids = Arrays.copyOf(ids, cap);
+        isTag = Arrays.copyOf(isTag, cap);
+        alive = Arrays.copyOf(alive, cap);
+        labels = Arrays.copyOf(labels, cap);
+        touchedAt = Arrays.copyOf(touchedAt, cap);
+        gramCounts = Arrays.copyOf(gramCounts, cap);
+    }
+
+    // ---- Hashtabelle Trigramm -> Liste ----
+
+    private int find(long key) {
+        int mask = gramKeys.length - 1;
+        int slot = (int) (mix(key) & mask);
+        while (gramKeys[slot] != 0 && gramKeys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void addPosting(long key, int entry) {
+        int slot = find(key);
+        if (gramKeys[slot] == 0) {
+            if ((grams + 1) * 2 > gramKeys.length) {
+                rehash();
+                slot = find(key);
+            }
+            gramKeys[slot] = key;
+            postings[slot] = new int[4];
+            grams++;
+        }
+        int[] list = postings[slot];
+        int n = postingSizes[slot];
+        if (n == list.length) postings[slot] = list = Arrays.copyOf(list, n * 2);
+        list[n] = entry;
+        postingSizes[slot] = n + 1;
+    }
+
+    private void rehash() {
+        long[] oldKeys = gramKeys;
+        int[][] oldLists = postings;
+        int[] oldSizes = postingSizes;
+        gramKeys = new long[oldKeys.length * 2];
+        postings = new int[oldKeys.length * 2][];
+        postingSizes = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = find(oldKeys[i]);
+            gramKeys[slot] = oldKeys[i];
+            postings[slot] = oldLists[i];
+            postingSizes[slot] = oldSizes[i];
+        }
+    }
+
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 29);
+    }
+
+    // ---- Trigramme ----
+
+    /** Verschiedene Trigramme von {@code text} (klein, je Wort gepolstert), sortiert. */
+    static long[] trigrams(String text) {
+        if (text == null || text.isBlank()) return new long[0];
+        String s = text.toLowerCase(Locale.ROOT);
+        long[] out = new long[s.length() * 2 + 4];
+        int n = 0;
+        int i = 0;
+        while (i < s.length()) {
+            while (i < s.length() && !Character.isLetterOrDigit(s.charAt(i))) i++;
+            if (i == s.length()) break;
+            char a = ' ';
+            char b = ' ';
+            while (i < s.length() && Character.isLetterOrDigit(s.charAt(i))) {
+                char ch = s.charAt(i++);
+                if (n + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                out[n++] = pack(a, b, ch);
+                a = b;
+                b = ch;
+            }
+            out[n++] = pack(a, b, ' ');
+        }
+        Arrays.sort(out, 0, n);
+        int distinct = 0;
+        for (int k = 0; k < n; k++) {
+            if (distinct == 0 || out[distinct - 1] != out[k]) out[distinct++] = out[k];
+        }
+        return Arrays.copyOf(out, distinct);
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // ---- Lesen ----
+
+    private record Row(long id, String label, long touchedAt, boolean active) { }
+
+    private static List<Row> read(Connection c, String sql, long... params) throws SQLException {
+        var out = new ArrayList<Row>();
+        try (var ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) ps.setLong(i + 1, params[i]);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) out.add(new Row(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getInt(4) != 0));
+            }
+        }
+        return out;
+    }
+
+    private static List<Row> readIdeas(Connection c, Set<Long> ids) throws SQLException {
+        var out = new ArrayList<Row>();
+        if (ids.isEmpty()) return out;
+        String sql = """
+                SELECT id, title, COALESCE(updated_at, created_at), deleted_at IS NULL
+                FROM idea WHERE id IN (%s)""".formatted(InClause.placeholders(InClause.CHUNK_SIZE));
+        try (var ps = c.prepareStatement(sql)) {
+            for (long[] chunk : InClause.chunks(ids)) {
+                for (int i = 0; i < chunk.length; i++) ps.setLong(i + 1, chunk[i]);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) out.add(new Row(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getInt(4) != 0));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static List<Row> readTags(Connection c) throws SQLException {
+        return read(c, "SELECT id, name, created_at, 1 FROM tag");
+    }
+}
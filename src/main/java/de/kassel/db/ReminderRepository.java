@@ -1,11 +1,13 @@
 package de.kassel.db;
 
 import de.kassel.model.Reminder;
+import de.kassel.model.UpcomingReminder;
 
 import java.sql.*;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Optional;
 
 
@@ -46,6 +48,7 @@ public class ReminderRepository {
             ps.setLong(2, dueAtEpochSec);
             ps.setString(3, note);
             ps.executeUpdate();
+            ChangeBus.publish(new ChangeEvent.ReminderChanged(ideaId));
 
             try (ResultSet keys = ps.getGeneratedKeys()) {
                 if (keys.next()) {
@@ -65,7 +68,7 @@ public class ReminderRepository {
         try (Connection c = DbManager.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, ideaId);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) ChangeBus.publish(new ChangeEvent.ReminderChanged(ideaId));
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -128,9 +131,9 @@ public class ReminderRepository {
 
     public void markDone(long reminderId) {
         try (var c = DbManager.getConnection();
-             var ps = c.prepareStatement("UPDATE reminder SET is_done=1 WHERE id=?")) {
+             var ps = c.prepareStatement("UPDATE reminder SET is_done=1 WHERE id=? RETURNING idea_id")) {
             ps.setLong(1, reminderId);
-            ps.executeUpdate();
+            publishChanged(ps);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -140,14 +143,98 @@ public class ReminderRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement("UPDATE reminder " +
                      "SET due_at = CAST(strftime('%s','now') AS INTEGER) + ? " +
-                     "WHERE id=?")) {
+                     "WHERE id=? RETURNING idea_id")) {
 
             ps.setLong(1, minutes * 60L);
             ps.setLong(2, reminderId);
-            ps.executeUpdate();
+            publishChanged(ps);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Verschiebt die offenen Erinnerungen aller {@code ideaIds} auf jetzt + {@code minutes}
+     * (eine Transaktion, mengenbasiert); liefert die Zahl verschobener Erinnerungen.
+     */
+    public int snoozeForIdeas(Collection<Long> ideaIds, int minutes) {
+        if (ideaIds == null || ideaIds.isEmpty()) return 0;
+        List<Long> changed = DbManager.inWriteTransaction(c -> InClause.returningIds(c, """
+                UPDATE reminder
+                SET due_at = CAST(strftime('%%s','now') AS INTEGER) + ?
+                WHERE is_done = 0 AND idea_id IN (%s)
+                RETURNING idea_id
+                """, ideaIds, minutes * 60L));
+        ChangeBus.publishAll(changed.stream().map(ChangeEvent.ReminderChanged::new).toList());
+        return changed.size();
+    }
+
+    /** Führt ein {@code UPDATE … RETURNING idea_id} aus und meldet die betroffene Idee. */
+    private static void publishChanged(PreparedStatement ps) throws SQLException {
+        try (var rs = ps.executeQuery()) {
+            while (rs.next()) ChangeBus.publish(new ChangeEvent.ReminderChanged(rs.getLong(1)));
+        }
+    }
+
+    // ---- Scheduler ----
+
+    /**
+     * Offene Erinnerungen bis {@code untilEpoch} (inkl. überfälliger) samt Idee-Titel in EINER Abfrage
+     * (nutzt idx_reminder_open_due). Ideen im Papierkorb werden ausgelassen.
+     */
+    public List<UpcomingReminder> findUpcomingWithTitles(long untilEpoch) {
+        String sql = """
+            SELECT r.id, r.idea_id, r.due_at, i.title
+            FROM reminder r
+            JOIN idea i ON i.id = r.idea_id
+            WHERE r.is_done = 0 AND r.due_at <= ? AND i.deleted_at IS NULL
+            ORDER BY r.due_at, r.id
+        """;
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql)) {
+            ps.setLong(1, untilEpoch);
+            try (var rs = ps.executeQuery()) {
+                return mapUpcoming(rs, new ArrayList<>());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Wie {@link #findUpcomingWithTitles(long)}, aber nur für die angegebenen Ideen (nach Änderungen). */
+    public List<UpcomingReminder> findUpcomingWithTitles(Collection<Long> ideaIds, long untilEpoch) {
+        var out = new ArrayList<UpcomingReminder>();
+        if (ideaIds == null || ideaIds.isEmpty()) return out;
+        String sql = """
+            SELECT r.id, r.idea_id, r.due_at, i.title
+            FROM reminder r
+            JOIN idea i ON i.id = r.idea_id
+            WHERE r.idea_id IN (%s)
+              AND r.is_done = 0 AND r.due_at <= ? AND i.deleted_at IS NULL
+        """.formatted(InClause.placeholders(InClause.CHUNK_SIZE));
+        try (var c = DbManager.getConnection()) {
+            for (long[] chunk : InClause.chunks(ideaIds)) {
+                try (var ps = c.prepareStatement(sql)) {
+                    int p = 1;
+                    for (long id : chunk) ps.setLong(p++, id);
+                    ps.setLong(p, untilEpoch);
+                    try (var rs = ps.executeQuery()) {
+                        mapUpcoming(rs, out);
+                    }
+                }
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<UpcomingReminder> mapUpcoming(ResultSet rs, List<UpcomingReminder> out) throws SQLException {
+        while (rs.next()) {
+            out.add(new UpcomingReminder(rs.getLong("id"), rs.getLong("idea_id"),
+                    rs.getString("title"), rs.getLong("due_at")));
+        }
+        return out;
+    }
+
 }
@@ -0,0 +1,224 @@
+package de.kassel.db;
+
+import de.kassel.model.UpcomingReminder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Hält offene Erinnerungen in einer nach Fälligkeit sortierten Queue und schläft genau bis zum
+ * nächsten interessanten Zeitpunkt – statt die Tabelle periodisch abzufragen.
+ * <p>
+ * Geweckt wird der Thread, wenn
+ * <ul>
+ *   <li>eine Erinnerung fällig wird (Anzeige wechselt auf "überfällig"),</li>
+ *   <li>eine Erinnerung in das Vorschaufenster ({@code previewSeconds}) rückt,</li>
+ *   <li>das geladene Zeitfenster aufgebraucht ist (eine Bereichsabfrage über den Index), oder</li>
+ *   <li>der {@link ChangeBus} Änderungen an Erinnerungen/Ideen meldet – dann werden nur die
+ *       betroffenen Ideen nachgeladen.</li>
+ * </ul>
+ * Der Listener bekommt jeweils die sichtbare Liste (überfällig + Vorschau), sortiert nach Fälligkeit,
+ * auf dem Scheduler-Thread.
+ */
+public final class ReminderScheduler {
+
+    private static final Comparator<UpcomingReminder> BY_DUE = Comparator
+            .comparingLong(UpcomingReminder::dueAt)
+            .thenComparingLong(UpcomingReminder::reminderId);
+
+    private final ReminderRepository repo = new ReminderRepository();
+    private final long previewSeconds;
+    private final Consumer<List<UpcomingReminder>> listener;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+    private final TreeSet<UpcomingReminder> queue = new TreeSet<>(BY_DUE);
+    private final Map<Long, UpcomingReminder> byIdea = new HashMap<>();
+    private final Set<Long> dirtyIdeas = new HashSet<>();
+    private long loadedUntil;          // alles mit due_at <= loadedUntil ist in der Queue
+    private boolean reloadAll = true;
+    private boolean running;
+
+    private Runnable unsubscribe = () -> { };
+
+    public ReminderScheduler(long previewSeconds, Consumer<List<UpcomingReminder>> listener) {
+        this.previewSeconds = previewSeconds;
+        this.listener = listener;
+    }
+
+    public void start() {
+        lock.lock();
+        try {
+            if (running) return;
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        unsubscribe = ChangeBus.subscribe(this::onChanges);
+        Thread.ofPlatform().daemon().name("mindstore-reminders").start(this::loop);
+    }
+
+    public void stop() {
+        unsubscribe.run();
+        lock.lock();
+        try {
+            running = false;
+            wakeUp.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Nur merken und wecken – die DB-Abfrage macht der Scheduler-Thread (nicht der FX-Thread). */
+    private void onChanges(List<ChangeEvent> events) {
+        lock.lock();
+        try {
+            for (var e : events) {
+                switch (e) {
+                    case ChangeEvent.ReminderChanged r -> dirtyIdeas.add(r.ideaId());
+                    // Titel, Papierkorb und Löschen wirken sich auf die Anzeige aus
+                    case ChangeEvent.IdeaUpdated u -> dirtyIdeas.add(u.ideaId());
+                    case ChangeEvent.IdeaDeleted d -> dirtyIdeas.add(d.ideaId());
+                    case ChangeEvent.IdeaInserted i -> { }
+                    case ChangeEvent.TagsChanged t -> { }
+                    case ChangeEvent.IdeasImported b -> reloadAll = true;
+                }
+            }
+            if (reloadAll || !dirtyIdeas.isEmpty()) wakeUp.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loop() {
+        while (true) {
+            boolean all;
+            List<Long> dirty;
+            long until;
+            lock.lock();
+            try {
+                long deadline = nextWakeEpoch() * 1000L;
+                while (running && !reloadAll && dirtyIdeas.isEmpty()) {
+                    long waitMillis = deadline - System.currentTimeMillis();
+                    if (waitMillis <= 0) break;
+                    try {
+                        wakeUp.await(waitMillis, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!running) return;
+                long now = nowEpoch();
+                if (now + previewSeconds >= loadedUntil) reloadAll = true;
+                all = reloadAll;
+                dirty = List.copyOf(dirtyIdeas);
+                dirtyIdeas.clear();
+                reloadAll = false;
+                // doppeltes Vorschaufenster laden -> erst nach previewSeconds wieder eine Bereichsabfrage
+                until = all ? now + 2 * previewSeconds : loadedUntil;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (all) {
+                    var fresh = repo.findUpcomingWithTitles(until);
+                    replaceAll(fresh, until);
+                } else if (!dirty.isEmpty()) {
+                    var fresh = repo.findUpcomingWithTitles(dirty, until);
+                    replaceIdeas(dirty, fresh);
+                }
+                listener.accept(visible());
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+                sleepQuietly(); // DB vorübergehend nicht erreichbar -> nicht im Kreis drehen
+            }
+        }
+    }
+
+    /** Frühester Zeitpunkt, zu dem sich die sichtbare Liste von selbst ändert. */
+    private long nextWakeEpoch() {
+        long now = nowEpoch();
+        long next = loadedUntil - previewSeconds;              // Fenster nachladen
+        var due = queue.higher(probe(now - 1));                // erste noch nicht überfällige
+        if (due != null) next = Math.min(next, due.dueAt() + 1);
+        var preview = queue.higher(probe(now + previewSeconds)); // erste außerhalb der Vorschau
+        if (preview != null) next = Math.min(next, preview.dueAt() - previewSeconds);
+        return next;
+    }
+
+    /** Suchschlüssel: liegt hinter allen Einträgen mit {@code dueAt <= epoch}. */
+    private static UpcomingReminder probe(long epoch) {
+        return new UpcomingReminder(Long.MAX_VALUE, 0, null, epoch);
+    }
+
+    private void replaceAll(List<UpcomingReminder> fresh, long until) {
+        lock.lock();
+        try {
+            queue.clear();
+            byIdea.clear();
+            for (var r : fresh) add(r);
+            loadedUntil = until;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void replaceIdeas(List<Long> ideaIds, List<UpcomingReminder> fresh) {
+        lock.lock();
+        try {
+            for (Long id : ideaIds) {
+                var old = byIdea.remove(id);
+                if (old != null) queue.remove(old);
+            }
+            for (var r : fresh) add(r);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(UpcomingReminder r) {
+        var old = byIdea.put(r.ideaId(), r);
+        if (old != null) queue.remove(old);
+        queue.add(r);
+    }
+
+    /** Überfällige und bald fällige Erinnerungen, nach Fälligkeit sortiert. */
+    private List<UpcomingReminder> visible() {
+        lock.lock();
+        try {
+            long limit = nowEpoch() + previewSeconds;
+            var out = new ArrayList<UpcomingReminder>();
+            for (var r : queue) {
+                if (r.dueAt() > limit) break;
+                out.add(r);
+            }
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(5_000);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long nowEpoch() {
+        return System.currentTimeMillis() / 1000L;
+    }
+}
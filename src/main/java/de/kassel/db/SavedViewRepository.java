@@ -0,0 +1,64 @@
+package de.kassel.db;
+
+import de.kassel.model.SavedView;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Gespeicherte Ansichten (Tabelle {@code saved_view}); Mitglieder und Zähler pflegt {@link SmartViews}. */
+public class SavedViewRepository {
+
+    // ---- Mapping ----
+    private SavedView mapRow(ResultSet rs) throws SQLException {
+        return new SavedView(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("query"),
+                rs.getString("sort"),
+                rs.getInt("descending") != 0,
+                rs.getInt("position")
+        );
+    }
+
+    // ---- CRUD ----
+    public List<SavedView> findAll() {
+        String sql = "SELECT id, name, query, sort, descending, position FROM saved_view ORDER BY position, id";
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql);
+             var rs = ps.executeQuery()) {
+            var out = new ArrayList<SavedView>();
+            while (rs.next()) out.add(mapRow(rs));
+            return out;
+        } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+
+    /** Legt die Ansicht am Ende der Liste an; liefert sie mit ID und Position zurück. */
+    public SavedView insert(SavedView v) {
+        String sql = """
+            INSERT INTO saved_view(name, query, sort, descending, position, created_at)
+            VALUES (?, ?, ?, ?, (SELECT COALESCE(MAX(position), 0) + 1 FROM saved_view), strftime('%s','now'))
+            RETURNING id, name, query, sort, descending, position
+        """;
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql)) {
+            ps.setString(1, v.name());
+            ps.setString(2, v.query());
+            ps.setString(3, v.sort());
+            ps.setInt(4, v.descending() ? 1 : 0);
+            try (var rs = ps.executeQuery()) {
+                if (rs.next()) return mapRow(rs);
+            }
+            throw new SQLException("no row");
+        } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+
+    public int deleteById(long id) {
+        String sql = "DELETE FROM saved_view WHERE id=?";
+        try (var c = DbManager.getConnection();
+             var ps = c.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            return ps.executeUpdate();
+        } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+}
@@ -0,0 +1,298 @@
+package de.kassel.db;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Versionierte Schema-Migrationen. Der Stand steht in {@code PRAGMA user_version} (Datei-Header,
+ * kostet keine Tabellenabfrage); ist er aktuell, passiert beim Start keinerlei DDL.
+ * <p>
+ * Schritte sind entweder Abschnitte in {@code /db/schema.sql} ({@code -- migrate:<version> <name>})
+ * oder Java-Code für Dinge, die SQL allein nicht idempotent kann. Jeder Schritt läuft zusammen mit
+ * dem Hochsetzen von {@code user_version} in einer Transaktion. Prüfsummen angewendeter Schritte
+ * liegen in {@code schema_migration}; wurde ein ausgelieferter Schritt nachträglich geändert,
+ * bricht die Migration ab.
+ */
+final class SchemaMigrator {
+
+    private static final String SCHEMA_RESOURCE = "/db/schema.sql";
+    private static final Pattern SECTION = Pattern.compile("^--\\s*migrate:(\\d+)\\s+(\\S+)\\s*$");
+
+    @FunctionalInterface
+    private interface JavaStep {
+        void apply(Connection c) throws SQLException;
+    }
+
+    /** Ein Schritt; {@code java == null} heißt: SQL-Abschnitt gleichen Namens aus schema.sql. */
+    private record Migration(int version, String name, JavaStep java) { }
+
+    // Reihenfolge = Versionsnummer. Nur anhängen, nie umnummerieren.
+    private static final List<Migration> STEPS = List.of(
+            new Migration(1, "baseline", null),
+            new Migration(2, "idea_deleted_at", SchemaMigrator::addDeletedAtColumn),
+            new Migration(3, "fts_backfill", SchemaMigrator::backfillFullTextIndex),
+            new Migration(4, "settings", null),
+            new Migration(5, "query_indexes", null),
+            new Migration(6, "saved_views", null)
+    );
+
+    static final int LATEST = STEPS.get(STEPS.size() - 1).version();
+
+    private SchemaMigrator() {}
+
+    /** Bringt das Schema auf {@link #LATEST}; liefert die Anzahl ausgeführter Schritte. */
+    static int migrate(Connection c) throws SQLException {
+        int current = userVersion(c);
+        if (current == LATEST) return 0;                    // Normalfall: nichts zu tun
+        if (current > LATEST) {
+            throw new IllegalStateException("Datenbank hat Schema-Version " + current
+                    + ", diese Version kennt nur bis " + LATEST + " (neuere App-Version?)");
+        }
+
+        Map<Integer, Section> sections = loadSections();
+        ensureMigrationTable(c);
+        verifyApplied(c, sections);
+
+        int applied = 0;
+        for (var m : STEPS) {
+            if (m.version() <= current) continue;
+            if (apply(c, m, sections)) applied++;
+        }
+        return applied;
+    }
+
+    /** Führt einen Schritt aus, sofern ihn nicht inzwischen ein anderer Prozess angewendet hat. */
+    private static boolean apply(Connection c, Migration m, Map<Integer, Section> sections) throws SQLException {
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(true);
+        try (Statement st = c.createStatement()) {
+            st.execute("BEGIN IMMEDIATE");                 // Schreibsperre vor dem Nachprüfen
+            try {
+                if (userVersion(c) >= m.version()) {
+                    st.execute("ROLLBACK");
+                    return false;
+                }
+                long t0 = System.nanoTime();
+                if (m.java() != null) {
+                    m.java().apply(c);
+                } else {
+                    for (String s : splitSqlStatements(section(sections, m).sql())) {
+                        try {
+                            st.execute(s);
+                        } catch (SQLException ex) {
+                            System.err.println("SQL failed: " + s);
+                            throw ex;
+                        }
+                    }
+                }
+                try (var ps = c.prepareStatement("""
+                        INSERT OR REPLACE INTO schema_migration(version, name, checksum, applied_at)
+                        VALUES (?, ?, ?, strftime('%s','now'))
+                        """)) {
+                    ps.setInt(1, m.version());
+                    ps.setString(2, m.name());
+                    ps.setLong(3, checksum(m, sections));
+                    ps.executeUpdate();
+                }
+                st.execute("PRAGMA user_version = " + m.version());
+                st.execute("COMMIT");
+                System.out.printf("⚙️  Schema-Migration %d (%s) in %d ms%n",
+                        m.version(), m.name(), (System.nanoTime() - t0) / 1_000_000);
+                return true;
+            } catch (SQLException | RuntimeException ex) {
+                try { st.execute("ROLLBACK"); } catch (SQLException ignore) { }
+                throw ex;
+            }
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int userVersion(Connection c) throws SQLException {
+        try (var st = c.createStatement(); var rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void ensureMigrationTable(Connection c) throws SQLException {
+        try (var st = c.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migration (
+                  version    INTEGER PRIMARY KEY,
+                  name       TEXT    NOT NULL,
+                  checksum   INTEGER NOT NULL,
+                  applied_at INTEGER NOT NULL
+                )
+            """);
+        }
+    }
+
+    /** Vergleicht die Prüfsummen bereits angewendeter Schritte mit dem ausgelieferten Stand. */
+    private static void verifyApplied(Connection c, Map<Integer, Section> sections) throws SQLException {
+        var byVersion = new HashMap<Integer, Migration>();
+        for (var m : STEPS) byVersion.put(m.version(), m);
+        try (var st = c.createStatement();
+             var rs = st.executeQuery("SELECT version, name, checksum FROM schema_migration")) {
+            while (rs.next()) {
+                var m = byVersion.get(rs.getInt(1));
+                if (m == null) continue;
+                if (rs.getLong(3) != checksum(m, sections)) {
+                    throw new IllegalStateException("Schema-Migration " + m.version() + " (" + rs.getString(2)
+                            + ") wurde nach dem Ausliefern geändert – bitte als neuen Schritt anhängen");
+                }
+            }
+        }
+    }
+
+    private static long checksum(Migration m, Map<Integer, Section> sections) {
+        var crc = new CRC32();
+        String text = m.java() != null ? "java:" + m.name() : section(sections, m).sql();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    // ---- schema.sql ----
+
+    private record Section(int version, String name, String sql) { }
+
+    private static Section section(Map<Integer, Section> sections, Migration m) {
+        var s = sections.get(m.version());
+        if (s == null || !s.name().equals(m.name())) {
+            throw new IllegalStateException("schema.sql: Abschnitt 'migrate:" + m.version() + " " + m.name() + "' fehlt");
+        }
+        return s;
+    }
+
+    /** Zerlegt schema.sql an den {@code -- migrate:}-Markierungen. */
+    private static Map<Integer, Section> loadSections() {
+        String script;
+        try (var in = SchemaMigrator.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) throw new IllegalStateException("schema.sql not found at " + SCHEMA_RESOURCE);
+            script = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))
+                    .lines().collect(Collectors.joining("\n"));
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("schema.sql konnte nicht gelesen werden", e);
+        }
+
+        var out = new HashMap<Integer, Section>();
+        Integer version = null;
+        String name = null;
+        var buf = new StringBuilder();
+        for (String line : script.split("\n")) {
+            var m = SECTION.matcher(line.trim());
+            if (m.matches()) {
+                if (version != null) out.put(version, new Section(version, name, buf.toString().strip()));
+                version = Integer.parseInt(m.group(1));
+                name = m.group(2);
+                buf.setLength(0);
+            } else if (version != null) {
+                buf.append(line).append('\n');
+            }
+        }
+        if (version != null) out.put(version, new Section(version, name, buf.toString().strip()));
+        return out;
+    }
+
+    /**
+     * Zerlegt ein SQL-Skript in Statements.
+     * - Normale Statements enden am Semikolon
+     * - CREATE TRIGGER … END; wird als EIN Block behandelt
+     */
+    private static List<String> splitSqlStatements(String script) {
+        List<String> stmts = new ArrayList<>();
+        String[] lines = script.split("\\r?\\n");
+        StringBuilder buf = new StringBuilder();
+        boolean inTrigger = false;
+
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (!inTrigger) {
+                if (trimmed.regionMatches(true, 0, "CREATE TRIGGER", 0, "CREATE TRIGGER".length())) {
+                    inTrigger = true;
+                    buf.setLength(0);
+                    buf.append(line).append("\n");
+                    continue;
+                }
+                buf.append(line).append("\n");
+                String current = buf.toString();
+                int idx;
+                while ((idx = current.indexOf(';')) >= 0) {
+                    String stmt = current.substring(0, idx).trim();
+                    if (!stmt.isEmpty()) stmts.add(stmt + ";");
+                    current = current.substring(idx + 1);
+                }
+                buf.setLength(0);
+                buf.append(current);
+            } else {
+                buf.append(line).append("\n");
+                // Trigger endet mit "END;" (Case-insensitive)
+                if (trimmed.equalsIgnoreCase("END;") || trimmed.equalsIgnoreCase("END")) {
+                    String stmt = buf.toString().trim();
+                    if (!stmt.endsWith(";")) stmt = stmt + ";";
+                    stmts.add(stmt);
+                    buf.setLength(0);
+                    inTrigger = false;
+                }
+            }
+        }
+        // Rest anhängen (nur Kommentare -> weglassen)
+        String rest = buf.toString().trim();
+        if (!rest.isEmpty() && !rest.lines().allMatch(l -> l.isBlank() || l.trim().startsWith("--"))) {
+            if (!rest.endsWith(";")) rest = rest + ";";
+            stmts.add(rest);
+        }
+        return stmts;
+    }
+
+    // ---- Java-Schritte ----
+
+    /** Ältere Datenbanken haben idea.deleted_at noch nicht (Papierkorb). */
+    private static void addDeletedAtColumn(Connection c) throws SQLException {
+        try (var st = c.createStatement()) {
+            boolean has = false;
+            try (var rs = st.executeQuery("PRAGMA table_info(idea)")) {
+                while (rs.next()) {
+                    if ("deleted_at".equalsIgnoreCase(rs.getString("name"))) {
+                        has = true; break;
+                    }
+                }
+            }
+            if (!has) st.execute("ALTER TABLE idea ADD COLUMN deleted_at INTEGER");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_idea_deleted_at ON idea(deleted_at)");
+        }
+    }
+
+    /**
+     * Füllt den FTS5-Index einmalig aus bestehenden Ideen (die Trigger aus schema.sql
+     * halten ihn danach aktuell). Läuft nur, wenn idea_fts leer ist.
+     */
+    private static void backfillFullTextIndex(Connection c) throws SQLException {
+        try (var st = c.createStatement()) {
+            boolean ftsEmpty;
+            try (var rs = st.executeQuery("SELECT NOT EXISTS (SELECT 1 FROM idea_fts)")) {
+                ftsEmpty = rs.next() && rs.getBoolean(1);
+            }
+            if (!ftsEmpty) return;
+            int n = st.executeUpdate("""
+                INSERT INTO idea_fts(rowid, title, body, tags)
+                SELECT i.id, i.title, COALESCE(i.body, ''),
+                       COALESCE((SELECT group_concat(t.name, ' ')
+                                 FROM idea_tag it JOIN tag t ON t.id = it.tag_id
+                                 WHERE it.idea_id = i.id), '')
+                FROM idea i
+            """);
+            if (n > 0) System.out.println("⚙️  Volltextindex für " + n + " Ideen aufgebaut.");
+        }
+    }
+}
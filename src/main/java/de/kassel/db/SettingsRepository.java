@@ -5,24 +5,7 @@ import java.util.Optional;
 
 public class SettingsRepository {
 
-    public SettingsRepository() {
-        ensureTable();
-    }
-
-    /** Erstellt die Tabelle settings, falls sie nicht existiert. */
-    private void ensureTable() {
-        try (var c = DbManager.getConnection();
-             var st = c.createStatement()) {
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS settings (
-                    key TEXT PRIMARY KEY,
-                    value TEXT
-                )
-            """);
-        } catch (SQLException e) {
-            throw new RuntimeException("Fehler beim Erstellen der settings-Tabelle", e);
-        }
-    }
+    // Tabelle settings legt die Schema-Migration an (schema.sql, Abschnitt "settings").
 
     /** Liest einen Wert aus den Settings. */
     public String get(String key, String defaultValue) {
@@ -0,0 +1,145 @@
+package de.kassel.db;
+
+import de.kassel.db.metrics.QueryMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Protokolliert SQL-Aufrufe über einer Schwelle nach {@code <Datenverzeichnis>/logs/slow-queries.N.log}
+ * (rotierend, 5 × 1 MB): Dauer, Aufrufer, SQL, Parameter (Texte geschwärzt) und den
+ * {@code EXPLAIN QUERY PLAN} – der wird je SQL-Text nur einmal ermittelt.
+ * <p>
+ * Schwelle per {@code -Dmindstore.slowQueryMs=200} (Default), {@code 0} schaltet das Log ab.
+ */
+final class SlowQueryLog {
+
+    static final long THRESHOLD_NANOS = Long.getLong("mindstore.slowQueryMs", 200L) * 1_000_000L;
+
+    private static final int FILE_LIMIT_BYTES = 1_000_000;
+    private static final int FILE_COUNT = 5;
+    private static final int MAX_CACHED_PLANS = 1024;
+
+    private static final ConcurrentHashMap<String, String> planBySql = new ConcurrentHashMap<>();
+    private static volatile Logger logger;
+
+    private SlowQueryLog() {}
+
+    static boolean enabled() {
+        return THRESHOLD_NANOS > 0;
+    }
+
+    /** Liegt der Aufruf über der Schwelle (und ist das Log an)? */
+    static boolean isSlow(String sql, long nanos) {
+        return enabled() && nanos >= THRESHOLD_NANOS && sql != null;
+    }
+
+    /** Schreibt einen Eintrag; der Aufrufer prüft vorher {@link #isSlow}. */
+    static void log(Statement target, String caller, String sql, Object[] params,
+                    long rows, long nanos, boolean failed) {
+        try {
+            String plan = failed ? "    (nicht ermittelt – Aufruf fehlgeschlagen)\n" : planFor(target, sql, params);
+            var sb = new StringBuilder(256);
+            sb.append(String.format(Locale.ROOT, "%s %.1f ms  %s  rows=%d%s  sqlId=%s%n",
+                    Instant.now(), nanos / 1_000_000.0, caller, rows, failed ? "  FAILED" : "",
+                    QueryMetrics.sqlId(sql)));
+            sb.append("  sql:    ").append(sql.strip().replaceAll("\\s+", " ")).append('\n');
+            if (params != null && params.length > 0) sb.append("  params: ").append(redact(params)).append('\n');
+            sb.append("  plan:\n").append(plan);
+            logger().info(sb.toString());
+        } catch (RuntimeException ex) {
+            // Logging darf nie einen DB-Aufruf scheitern lassen
+            System.err.println("[MindStore] Slow-Query-Log fehlgeschlagen: " + ex.getMessage());
+        }
+    }
+
+    /** {@code EXPLAIN QUERY PLAN} auf derselben physischen Verbindung, einmal je SQL-Text. */
+    private static String planFor(Statement target, String sql, Object[] params) {
+        String cached = planBySql.get(sql);
+        if (cached != null) return cached;
+        String plan = explain(target, sql, params);
+        if (planBySql.size() < MAX_CACHED_PLANS) planBySql.putIfAbsent(sql, plan);
+        return plan;
+    }
+
+    private static String explain(Statement target, String sql, Object[] params) {
+        String head = sql.stripLeading().toUpperCase(Locale.ROOT);
+        if (!(head.startsWith("SELECT") || head.startsWith("WITH") || head.startsWith("INSERT")
+                || head.startsWith("UPDATE") || head.startsWith("DELETE") || head.startsWith("REPLACE"))) {
+            return "    (kein Plan für dieses Statement)\n";
+        }
+        try {
+            Connection c = target.getConnection();
+            try (var ps = c.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                if (params != null) {
+                    for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+                }
+                var sb = new StringBuilder();
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        sb.append("    ").append(rs.getString("detail")).append('\n');
+                    }
+                }
+                return sb.isEmpty() ? "    (leer)\n" : sb.toString();
+            }
+        } catch (SQLException ex) {
+            return "    (EXPLAIN fehlgeschlagen: " + ex.getMessage() + ")\n";
+        }
+    }
+
+    /** Zahlen bleiben lesbar (IDs, Zeitstempel), Texte und Blobs werden geschwärzt. */
+    static String redact(Object[] params) {
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) sb.append(", ");
+            Object p = params[i];
+            if (p == null) sb.append("NULL");
+            else if (p instanceof Number || p instanceof Boolean) sb.append(p);
+            else if (p instanceof byte[] b) sb.append("<blob ").append(b.length).append(" bytes>");
+            else sb.append("<text ").append(p.toString().length()).append(" chars>");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static Logger logger() {
+        var l = logger;
+        if (l != null) return l;
+        synchronized (SlowQueryLog.class) {
+            if (logger == null) {
+                var created = Logger.getLogger("de.kassel.mindstore.slowquery");
+                created.setUseParentHandlers(false);
+                created.setLevel(Level.INFO);
+                try {
+                    Path dir = DbManager.config().logsDir();
+                    Files.createDirectories(dir);
+                    var handler = new FileHandler(dir.resolve("slow-queries.%g.log").toString(),
+                            FILE_LIMIT_BYTES, FILE_COUNT, true);
+                    handler.setEncoding("UTF-8");
+                    handler.setFormatter(new Formatter() {
+                        @Override
+                        public String format(LogRecord r) {
+                            return r.getMessage() + System.lineSeparator();
+                        }
+                    });
+                    created.addHandler(handler);
+                } catch (IOException e) {
+                    System.err.println("[MindStore] Slow-Query-Log nicht verfügbar: " + e.getMessage());
+                }
+                logger = created;
+            }
+            return logger;
+        }
+    }
+}
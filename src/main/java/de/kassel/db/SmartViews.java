@@ -0,0 +1,144 @@
+package de.kassel.db;
+
+import de.kassel.model.SavedView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mitglieder (Idee-IDs) und Zähler der gespeicherten Ansichten, inkrementell gepflegt: nach dem
+ * ersten vollständigen Auswerten prüft {@link #refresh} je Änderungsbündel nur die betroffenen
+ * Ideen ({@link IdeaRepository#findIdsMatchingAmong}) und trägt sie ein bzw. aus – die Zähler in
+ * der Seitenleiste bleiben so ohne Polling und ohne Neuabfrage aller Ideen aktuell. Nur nach
+ * einem Import oder einer Änderung am Tag-Katalog (Umbenennen wirkt auf {@code tag:} und den
+ * Volltext) wird neu ausgewertet.
+ * <p>
+ * Lesen und Aktualisieren sind synchronisiert; DB-Zugriffe laufen außerhalb der Sperre, also
+ * {@link #load}, {@link #add} und {@link #refresh} im Hintergrund aufrufen.
+ */
+public final class SmartViews {
+
+    private record Entry(SavedView view, IdeaQuery.Node query, IdBitmap members) { }
+
+    private final IdeaRepository repo = new IdeaRepository();
+    private final Map<Long, Entry> views = new LinkedHashMap<>();
+    // reiht refresh()-Läufe hintereinander, damit kein älterer Stand einen neueren überschreibt
+    private final Object refreshLock = new Object();
+
+    private SmartViews() {}
+
+    /** Wertet alle Ansichten einmal vollständig aus. */
+    public static SmartViews load(List<SavedView> saved) {
+        var out = new SmartViews();
+        for (var v : saved) out.add(v);
+        return out;
+    }
+
+    /** Neue (oder geänderte) Ansicht auswerten und aufnehmen. */
+    public void add(SavedView view) {
+        var entry = evaluate(view);
+        synchronized (this) {
+            views.put(view.id(), entry);
+        }
+    }
+
+    public synchronized void remove(long viewId) {
+        views.remove(viewId);
+    }
+
+    /** Ansichten in Ladereihenfolge. */
+    public synchronized List<SavedView> views() {
+        return views.values().stream().map(Entry::view).toList();
+    }
+
+    /** Aktuelle Mitglieder (Kopie) oder {@code null} für eine unbekannte Ansicht. */
+    public synchronized IdBitmap members(long viewId) {
+        var e = views.get(viewId);
+        return e == null ? null : e.members().copy();
+    }
+
+    /** Anzahl Mitglieder je Ansicht (ID -> Anzahl). */
+    public synchronized Map<Long, Long> counts() {
+        var out = new HashMap<Long, Long>(views.size() * 2);
+        for (var e : views.values()) out.put(e.view().id(), e.members().cardinality());
+        return out;
+    }
+
+    // ---- Pflege ----
+
+    /** Arbeitet ein Bündel Änderungen ein; liefert die IDs der Ansichten, deren Mitglieder sich geändert haben. */
+    public Set<Long> refresh(List<ChangeEvent> events) {
+        boolean all = false;
+        var changed = new HashSet<Long>();
+        var deleted = new HashSet<Long>();
+        for (var e : events) {
+            switch (e) {
+                case ChangeEvent.IdeaInserted i -> changed.add(i.ideaId());
+                case ChangeEvent.IdeaUpdated u -> changed.add(u.ideaId());
+                case ChangeEvent.IdeaDeleted d -> deleted.add(d.ideaId());
+                case ChangeEvent.TagsChanged t -> {
+                    if (t.ideaId() == null) all = true;
+                    else changed.add(t.ideaId());
+                }
+                case ChangeEvent.IdeasImported b -> all = true;
+                case ChangeEvent.ReminderChanged r -> { /* kein Kriterium der Abfragesprache */ }
+            }
+        }
+        changed.removeAll(deleted);
+        if (!all && changed.isEmpty() && deleted.isEmpty()) return Set.of();
+
+        synchronized (refreshLock) {
+            List<Entry> current;
+            synchronized (this) {
+                current = new ArrayList<>(views.values());
+            }
+            var touched = new HashSet<Long>();
+            for (var entry : current) {
+                if (all) {
+                    var fresh = evaluate(entry.view());
+                    synchronized (this) {
+                        if (views.replace(entry.view().id(), entry, fresh)) touched.add(entry.view().id());
+                    }
+                    continue;
+                }
+                IdBitmap matching = entry.query() == null ? new IdBitmap()
+                        : repo.findIdsMatchingAmong(entry.query(), changed);
+                synchronized (this) {
+                    if (views.get(entry.view().id()) != entry) continue;     // inzwischen entfernt/ersetzt
+                    var members = entry.members();
+                    boolean diff = false;
+                    for (long id : deleted) diff |= members.remove(id);
+                    for (long id : changed) {
+                        if (matching.contains(id)) {
+                            if (!members.contains(id)) {
+                                members.add(id);
+                                diff = true;
+                            }
+                        } else {
+                            diff |= members.remove(id);
+                        }
+                    }
+                    if (diff) touched.add(entry.view().id());
+                }
+            }
+            return touched;
+        }
+    }
+
+    private Entry evaluate(SavedView view) {
+        IdeaQuery.Node query;
+        try {
+            query = IdeaQuery.parse(view.query());
+        } catch (IdeaQuery.SyntaxException ex) {
+            System.err.println("[MindStore] Ansicht '" + view.name() + "': " + ex.getMessage());
+            return new Entry(view, null, new IdBitmap());
+        }
+        if (query == null) query = new IdeaQuery.And(List.of());        // leere Abfrage = alle aktiven Ideen
+        return new Entry(view, query, repo.findIdsMatching(query, false));
+    }
+}
@@ -0,0 +1,180 @@
+package de.kassel.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU-Cache vorbereiteter Statements für genau eine physische Verbindung.
+ * <p>
+ * Schlüssel ist der SQL-Text (plus Generated-Keys-Flag). Ausgegeben wird ein Proxy, dessen
+ * {@code close()} das Statement nicht schließt, sondern Parameter/Batch leert und es für den
+ * nächsten Aufruf mit gleichem SQL zurücklegt. Nicht thread-safe – eine Verbindung gehört
+ * immer nur einem Ausleiher.
+ */
+final class StatementCache {
+
+    /** Zähler über alle Verbindungen eines Pools hinweg. */
+    static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        final LongAdder bypassed = new LongAdder();
+    }
+
+    /** SQL ohne Generated-Keys-Anforderung. */
+    static final int NO_KEYS = Statement.NO_GENERATED_KEYS;
+
+    private record Key(String sql, int autoGeneratedKeys) { }
+
+    private final Connection physical;
+    private final int capacity;
+    private final Counters counters;
+    private Connection owner; // aktueller Lease-Proxy, für ps.getConnection()
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    StatementCache(Connection physical, int capacity, Counters counters) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.counters = counters;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= StatementCache.this.capacity) return false;
+                counters.evictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    void setOwner(Connection owner) {
+        this.owner = owner;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        if (capacity <= 0) {
+            counters.misses.increment();
+            return StatementInstrumentation.wrap(physical.prepareStatement(sql, autoGeneratedKeys), sql);
+        }
+        var key = new Key(sql, autoGeneratedKeys);
+        Entry e = entries.get(key);
+        if (e != null) {
+            if (e.inUse) {
+                // gleiches SQL ist gerade noch offen (verschachtelt) -> ungecachtes Statement
+                counters.bypassed.increment();
+                return StatementInstrumentation.wrap(physical.prepareStatement(sql, autoGeneratedKeys), sql);
+            }
+            counters.hits.increment();
+            e.inUse = true;
+            return e.proxy;
+        }
+        counters.misses.increment();
+        var created = new Entry(physical.prepareStatement(sql, autoGeneratedKeys), sql);
+        created.inUse = true;
+        entries.put(key, created);
+        return created.proxy;
+    }
+
+    /** Beim Zurückgeben der Verbindung: vergessene Statements wieder freigeben. */
+    void releaseAll() {
+        for (Entry e : entries.values()) {
+            if (e.inUse) e.giveBack();
+        }
+        owner = null;
+    }
+
+    /** Vor dem Schließen der physischen Verbindung. */
+    void closeAll() {
+        List<Entry> all = new ArrayList<>(entries.values());
+        entries.clear();
+        for (Entry e : all) e.closeQuietly();
+    }
+
+    private final class Entry implements InvocationHandler {
+        final PreparedStatement ps;
+        final PreparedStatement proxy;
+        final StatementInstrumentation.Tracker tracker; // null = Metriken und Slow-Query-Log aus
+        boolean inUse;
+        boolean evicted;
+
+        Entry(PreparedStatement ps, String sql) {
+            this.ps = ps;
+            this.tracker = StatementInstrumentation.enabled() ? new StatementInstrumentation.Tracker(sql) : null;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) closeQuietly();
+        }
+
+        void giveBack() {
+            inUse = false;
+            if (tracker != null) tracker.reset();
+            try {
+                ps.clearParameters();
+                ps.clearBatch();
+            } catch (SQLException ex) {
+                // Statement ist unbrauchbar -> aus dem Cache nehmen
+                evicted = true;
+                removeSelf();
+            }
+            if (evicted) closeQuietly();
+        }
+
+        private void removeSelf() {
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                if (it.next() == this) { it.remove(); break; }
+            }
+        }
+
+        void closeQuietly() {
+            try { ps.close(); } catch (SQLException ignore) { }
+        }
+
+        @Override
+        public Object invoke(Object p, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close" -> {
+                    if (args == null && inUse) giveBack();
+                    return null;
+                }
+                case "isClosed" -> {
+                    if (args == null) return !inUse || ps.isClosed();
+                }
+                case "getConnection" -> {
+                    if (args == null) return owner != null ? owner : physical;
+                }
+                case "equals" -> { return p == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(p); }
+                case "toString" -> { return "CachedStatement[" + ps + "]"; }
+                default -> { }
+            }
+            if (!inUse) throw new SQLException("Statement wurde bereits geschlossen");
+            if (tracker != null) return tracker.invoke(ps, m, args);
+            try {
+                return m.invoke(ps, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
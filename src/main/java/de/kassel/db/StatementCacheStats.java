@@ -0,0 +1,22 @@
+package de.kassel.db;
+
+/** Trefferquote des Statement-Caches (siehe {@link DbManager#statementCacheStats()}). */
+public record StatementCacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long bypassed,        // gleiches SQL war gerade belegt -> ungecacht vorbereitet
+        int cachedStatements  // aktuell gecachte Statements (freie Verbindungen)
+) {
+    public double hitRate() {
+        long total = hits + misses + bypassed;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.ROOT,
+                "StatementCache[hits=%d, misses=%d, bypassed=%d, evictions=%d, cached=%d, hitRate=%.1f%%]",
+                hits, misses, bypassed, evictions, cachedStatements, hitRate() * 100);
+    }
+}
@@ -0,0 +1,260 @@
+package de.kassel.db;
+
+import de.kassel.db.metrics.QueryEvent;
+import de.kassel.db.metrics.QueryMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Misst jeden {@code execute*}-Aufruf eines Statements für {@link QueryMetrics}.
+ * <p>
+ * Bei Abfragen zählt die Dauer bis zum Schließen des ResultSets (SQLite rechnet erst beim
+ * {@code next()}), die Zeilen zählt ein dünner ResultSet-Proxy mit. Die aufrufende
+ * Repository-Methode wird je Aufruf per {@link StackWalker} ermittelt – derselbe SQL-Text kann
+ * aus mehreren Methoden kommen. Langsame Aufrufe landen zusätzlich im {@link SlowQueryLog}.
+ * <p>
+ * Metriken ({@code -Dmindstore.metrics}) und Slow-Query-Log ({@code -Dmindstore.slowQueryMs})
+ * sind unabhängig schaltbar; gemessen wird, solange eines von beiden aktiv ist.
+ */
+final class StatementInstrumentation {
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private StatementInstrumentation() {}
+
+    static boolean enabled() {
+        return QueryMetrics.enabled() || SlowQueryLog.enabled();
+    }
+
+    /** Nicht gecachte Statements (createStatement, Cache umgangen) in einen messenden Proxy hüllen. */
+    static <T extends Statement> T wrap(T st, String sql) {
+        if (!enabled() || st == null) return st;
+        Class<?> type = st instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        var tracker = new Tracker(sql);
+        @SuppressWarnings("unchecked")
+        T proxy = (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "close" -> tracker.reset();
+                        case "equals" -> { return p == args[0]; }
+                        case "hashCode" -> { return System.identityHashCode(p); }
+                        default -> { }
+                    }
+                    return tracker.invoke(st, m, args);
+                });
+        return proxy;
+    }
+
+    // ---- Aufrufer ----
+
+    /** Äußerster Frame der ersten Anwendungsklasse, z. B. {@code IdeaRepository.findSummariesByIds} statt des privaten Helfers. */
+    private static String resolveCaller() {
+        return WALKER.walk(frames -> {
+            String cls = null;
+            String method = null;
+            for (var it = frames.iterator(); it.hasNext(); ) {
+                var f = it.next();
+                String c = f.getClassName();
+                if (cls == null) {
+                    if (isInfrastructure(c)) continue;
+                    cls = c;
+                    method = f.getMethodName();
+                } else if (c.equals(cls)) {
+                    method = f.getMethodName();
+                } else {
+                    break;
+                }
+            }
+            if (cls == null) return "unknown";
+            return cls.substring(cls.lastIndexOf('.') + 1) + "." + plainMethodName(method);
+        });
+    }
+
+    private static boolean isInfrastructure(String className) {
+        return className.startsWith("java.")
+                || className.startsWith("javax.")
+                || className.startsWith("jdk.")
+                || className.startsWith("sun.")
+                || className.startsWith("com.sun.")
+                || className.startsWith("org.sqlite.")
+                || className.startsWith("de.kassel.db.metrics.")
+                || className.contains("$Proxy")
+                || className.startsWith(StatementInstrumentation.class.getName())
+                || className.startsWith(StatementCache.class.getName())
+                || className.startsWith(ConnectionPool.class.getName());
+    }
+
+    /** {@code lambda$findPage$3} -> {@code findPage}. */
+    private static String plainMethodName(String m) {
+        if (m.startsWith("lambda$")) {
+            int end = m.indexOf('$', 7);
+            return end > 7 ? m.substring(7, end) : m;
+        }
+        return m;
+    }
+
+    // ---- Messung ----
+
+    /** Messzustand eines Statements; wie das Statement selbst nicht thread-safe. */
+    static final class Tracker {
+        private final String preparedSql;   // null bei createStatement()
+        private Pending open;               // ResultSet, das noch nicht geschlossen wurde
+        private Object[] params;            // gebundene Parameter, nur für das Slow-Query-Log
+
+        Tracker(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        Object invoke(Statement target, Method m, Object[] args) throws Throwable {
+            String name = m.getName();
+            if (!name.startsWith("execute")) {
+                if (SlowQueryLog.enabled() && preparedSql != null) remember(name, args);
+                return call(target, m, args);
+            }
+
+            finishOpen();
+            String sql = preparedSql != null ? preparedSql
+                    : (args != null && args.length > 0 && args[0] instanceof String s ? s : null);
+            QueryEvent event = QueryMetrics.enabled() ? QueryMetrics.begin() : null;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(target, m, args);
+            } catch (Throwable t) {
+                done(target, sql, 0, System.nanoTime() - start, true, event);
+                throw t;
+            }
+            if (result instanceof ResultSet rs) {
+                open = new Pending(this, target, rs, sql, start, event);
+                return open.proxy;
+            }
+            done(target, sql, affectedRows(target, result), System.nanoTime() - start, false, event);
+            return result;
+        }
+
+        private void done(Statement target, String sql, long rows, long nanos, boolean failed, QueryEvent event) {
+            boolean metrics = QueryMetrics.enabled();
+            boolean slow = SlowQueryLog.isSlow(sql, nanos);
+            if (!metrics && !slow) return;
+            // Aufrufer nur ermitteln, wenn ihn jemand braucht – Stack-Walk je Aufruf statt Cache je SQL
+            String caller = resolveCaller();
+            if (metrics) QueryMetrics.record(caller, sql, rows, nanos, failed, event);
+            if (slow) SlowQueryLog.log(target, caller, sql, params, rows, nanos, failed);
+        }
+
+        /** {@code setXxx(index, wert …)} mitschreiben; {@code clearParameters} leert. */
+        private void remember(String name, Object[] args) {
+            if (name.equals("clearParameters")) {
+                params = null;
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer idx) {
+                int i = idx - 1;
+                if (i < 0) return;
+                if (params == null || params.length <= i) {
+                    params = params == null ? new Object[i + 1] : java.util.Arrays.copyOf(params, i + 1);
+                }
+                params[i] = name.equals("setNull") ? null : args[1];
+            }
+        }
+
+        /** Statement wird wiederverwendet/geschlossen, ohne dass das ResultSet geschlossen wurde. */
+        void finishOpen() {
+            if (open != null) open.finish();
+        }
+
+        /** Statement geht zurück in den Cache (Parameter werden dort geleert). */
+        void reset() {
+            finishOpen();
+            params = null;
+        }
+
+        private static long affectedRows(Statement target, Object result) {
+            if (result instanceof Integer n) return Math.max(0, n);
+            if (result instanceof Long n) return Math.max(0, n);
+            if (result instanceof int[] batch) {
+                long sum = 0;
+                for (int n : batch) if (n > 0) sum += n;
+                return sum;
+            }
+            if (result instanceof long[] batch) {
+                long sum = 0;
+                for (long n : batch) if (n > 0) sum += n;
+                return sum;
+            }
+            if (Boolean.FALSE.equals(result)) {
+                try {
+                    return Math.max(0, target.getUpdateCount());
+                } catch (Exception ignore) {
+                    return 0;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /** Offenes ResultSet: zählt {@code next()}-Treffer und meldet beim Schließen. */
+    private static final class Pending implements InvocationHandler {
+        final Tracker owner;
+        final Statement target;
+        final ResultSet rs;
+        final String sql;
+        final long start;
+        final QueryEvent event;
+        final ResultSet proxy;
+        long rows;
+        boolean done;
+
+        Pending(Tracker owner, Statement target, ResultSet rs, String sql, long start, QueryEvent event) {
+            this.owner = owner;
+            this.target = target;
+            this.rs = rs;
+            this.sql = sql;
+            this.start = start;
+            this.event = event;
+            this.proxy = (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, this);
+        }
+
+        void finish() {
+            if (done) return;
+            done = true;
+            if (owner.open == this) owner.open = null;
+            owner.done(target, sql, rows, System.nanoTime() - start, false, event);
+        }
+
+        @Override
+        public Object invoke(Object p, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "next" -> {
+                    boolean has = rs.next();
+                    if (has) rows++;
+                    return has;
+                }
+                case "close" -> {
+                    try {
+                        rs.close();
+                    } finally {
+                        finish();
+                    }
+                    return null;
+                }
+                case "equals" -> { return p == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(p); }
+                default -> { return call(rs, m, args); }
+            }
+        }
+    }
+
+    private static Object call(Object target, Method m, Object[] args) throws Throwable {
+        try {
+            return m.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package de.kassel.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tag-Filter über ALLE Ideen (nicht nur die geladenen Zeilen): je Tag eine {@link IdBitmap} der
+ * Idee-IDs aus {@code idea_tag}, dazu die Menge aller Ideen (für NOT). Ideen im Papierkorb
+ * gehören nicht dazu – weder in NOT-Filter noch in die Zähler. Ausdrücke aus
+ * {@link Expr} werden als Mengenoperationen ausgewertet (Mikrosekunden bis wenige ms),
+ * {@link #counts} liefert je Tag die Trefferzahl innerhalb eines Ergebnisses.
+ * <p>
+ * {@link #load()} liest alles einmal; danach hält {@link #refresh} den Index über die
+ * {@link ChangeEvent}s aktuell: betroffene Ideen werden nachgelesen (bei {@code IdeaUpdated} nur,
+ * ob sie in den Papierkorb gewandert oder zurückgekommen sind), beim Tag-Katalog nur die
+ * Namen (Bitmaps hängen an der Tag-ID), nur nach einem Import alles. Lesen und Aktualisieren
+ * sind synchronisiert – DB-Zugriffe laufen außerhalb der Sperre, also {@code refresh} im
+ * Hintergrund aufrufen.
+ */
+public final class TagFilterIndex {
+
+    /** Tag-Ausdruck; Namen ohne Rücksicht auf Groß-/Kleinschreibung. */
+    public sealed interface Expr permits Tag, And, Or, Not { }
+
+    public record Tag(String name) implements Expr { }
+
+    public record And(List<Expr> terms) implements Expr { }
+
+    public record Or(List<Expr> terms) implements Expr { }
+
+    public record Not(Expr term) implements Expr { }
+
+    /**
+     * Ausdruck der Seitenleiste: ausgewählte Tags verknüpft mit UND ({@code matchAll}) oder ODER,
+     * ausgeschlossene Tags per UND NICHT. {@code null}, wenn nichts gewählt ist.
+     */
+    public static Expr sidebar(List<String> included, boolean matchAll, List<String> excluded) {
+        var terms = new ArrayList<Expr>();
+        if (!included.isEmpty()) {
+            List<Expr> tags = included.stream().<Expr>map(Tag::new).toList();
+            terms.add(tags.size() == 1 ? tags.get(0) : matchAll ? new And(tags) : new Or(tags));
+        }
+        for (String name : excluded) terms.add(new Not(new Tag(name)));
+        if (terms.isEmpty()) return null;
+        return terms.size() == 1 ? terms.get(0) : new And(terms);
+    }
+
+    private final Map<Long, IdBitmap> byTag = new HashMap<>();       // Tag-ID -> Ideen
+    private final Map<Long, String> names = new HashMap<>();         // Tag-ID -> Anzeigename
+    private final Map<String, Long> idsByKey = new HashMap<>();      // Name (klein) -> Tag-ID
+    private IdBitmap allIdeas = new IdBitmap();
+    // reiht refresh()-Läufe hintereinander: sonst könnte ein älterer Stand einen neueren überschreiben
+    private final Object refreshLock = new Object();
+
+    private TagFilterIndex() {}
+
+    /** Baut den Index aus {@code idea} (ohne Papierkorb), {@code tag} und {@code idea_tag}. */
+    public static TagFilterIndex load() {
+        var index = new TagFilterIndex();
+        try (Connection c = DbManager.getConnection()) {
+            index.replaceWith(read(c));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return index;
+    }
+
+    // ---- Auswertung ----
+
+    /** Menge der Idee-IDs, die {@code expr} erfüllen. */
+    public synchronized IdBitmap evaluate(Expr expr) {
+        return switch (expr) {
+            case Tag t -> {
+                Long id = idsByKey.get(key(t.name()));
+                var ids = id == null ? null : byTag.get(id);
+                yield ids == null ? new IdBitmap() : ids.copy();
+            }
+            case And a -> {
+                // zuerst die positiven Terme (kleinste Menge zuerst), dann die NOTs abziehen
+                var positive = new ArrayList<IdBitmap>();
+                var negative = new ArrayList<IdBitmap>();
+                for (Expr term : a.terms()) {
+                    if (term instanceof Not n) negative.add(evaluate(n.term()));
+                    else positive.add(evaluate(term));
+                }
+                positive.sort((x, y) -> Long.compare(x.cardinality(), y.cardinality()));
+                IdBitmap acc = positive.isEmpty() ? allIdeas.copy() : positive.get(0);
+                for (int i = 1; i < positive.size() && !acc.isEmpty(); i++) acc = acc.and(positive.get(i));
+                for (var n : negative) {
+                    if (acc.isEmpty()) break;
+                    acc = acc.andNot(n);
+                }
+                yield acc;
+            }
+            case Or o -> {
+                var acc = new IdBitmap();
+                for (Expr term : o.terms()) acc = acc.or(evaluate(term));
+                yield acc;
+            }
+            case Not n -> allIdeas.andNot(evaluate(n.term()));
+        };
+    }
+
+    /** Trefferzahl je Tag (Anzeigename) innerhalb von {@code result}; ohne Ergebnis = alle Ideen des Tags. */
+    public synchronized Map<String, Long> counts(IdBitmap result) {
+        var out = new HashMap<String, Long>(names.size() * 2);
+        var probe = result == null ? null : result.toDense();
+        for (var e : names.entrySet()) {
+            var ids = byTag.get(e.getKey());
+            long n = ids == null ? 0 : probe == null ? ids.cardinality() : ids.andCardinality(probe);
+            out.put(e.getValue(), n);
+        }
+        return out;
+    }
+
+    // ---- Pflege ----
+
+    /** Arbeitet ein Bündel Änderungen ein (im Hintergrund aufrufen – liest aus der DB). */
+    public void refresh(List<ChangeEvent> events) {
+        boolean all = false;
+        boolean catalog = false;
+        var changed = new HashSet<Long>();
+        var updated = new HashSet<Long>();
+        var deleted = new HashSet<Long>();
+        for (var e : events) {
+            switch (e) {
+                case ChangeEvent.IdeaInserted i -> changed.add(i.ideaId());
+                case ChangeEvent.IdeaDeleted d -> deleted.add(d.ideaId());
+                case ChangeEvent.TagsChanged t -> {
+                    if (t.ideaId() == null) catalog = true;
+                    else changed.add(t.ideaId());
+                }
+                case ChangeEvent.IdeasImported b -> all = true;
+                case ChangeEvent.IdeaUpdated u -> updated.add(u.ideaId());   // Tags unverändert, evtl. Papierkorb
+                case ChangeEvent.ReminderChanged r -> { /* nicht relevant */ }
+            }
+        }
+        if (!all && !catalog && changed.isEmpty() && updated.isEmpty() && deleted.isEmpty()) return;
+        changed.removeAll(deleted);
+        updated.removeAll(deleted);
+        updated.removeAll(changed);
+        synchronized (refreshLock) {
+            try (Connection c = DbManager.getConnection()) {
+                if (all) {
+                    replaceWith(read(c));
+                    return;
+                }
+                var catalogNames = catalog ? readNames(c) : null;
+                var touched = new HashSet<Long>(changed);
+                touched.addAll(updated);
+                var active = loadActive(c, touched);
+                // Tags nur für geänderte und aus dem Papierkorb zurückgeholte Ideen lesen
+                var withTags = new HashSet<Long>(changed);
+                for (long id : restored(updated, active)) withTags.add(id);
+                var tagsOf = loadTags(c, withTags);
+                apply(catalogNames, withTags, deleted, touched, active, tagsOf);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /** Aktive Ideen aus {@code updated}, die noch nicht im Index sind (zurück aus dem Papierkorb). */
+    private synchronized List<Long> restored(Set<Long> updated, Set<Long> active) {
+        var out = new ArrayList<Long>();
+        for (long id : updated) if (active.contains(id) && !allIdeas.contains(id)) out.add(id);
+        return out;
+    }
+
+    private synchronized void apply(Map<Long, String> catalogNames, Set<Long> changed, Set<Long> deleted,
+                                    Set<Long> touched, Set<Long> active, Map<Long, List<Long>> tagsOf) {
+        if (catalogNames != null) {
+            // umbenannt: nur Namen; gelöscht: Bitmap weg (Zuordnungen per CASCADE mit)
+            byTag.keySet().retainAll(catalogNames.keySet());
+            setNames(catalogNames);
+        }
+        for (long id : deleted) {
+            allIdeas.remove(id);
+            removeFromAllTags(id);
+        }
+        for (long id : touched) {
+            if (active.contains(id) || !allIdeas.remove(id)) continue;
+            removeFromAllTags(id);                                  // in den Papierkorb verschoben
+        }
+        for (long id : changed) {
+            if (!active.contains(id)) continue;
+            removeFromAllTags(id);
+            allIdeas.add(id);
+            for (long tagId : tagsOf.getOrDefault(id, List.of())) {
+                byTag.computeIfAbsent(tagId, k -> new IdBitmap()).add(id);
+            }
+        }
+    }
+
+    /** Vollständiger Stand aus der DB (außerhalb jeder Sperre gelesen). */
+    private record Snapshot(IdBitmap allIdeas, Map<Long, IdBitmap> byTag, Map<Long, String> names) { }
+
+    private static Snapshot read(Connection c) throws SQLException {
+        var all = new IdBitmap();
+        try (var ps = c.prepareStatement("SELECT id FROM idea WHERE +deleted_at IS NULL ORDER BY id");
+             var rs = ps.executeQuery()) {
+            while (rs.next()) all.add(rs.getLong(1));
+        }
+        // in PK-Reihenfolge (idea_id, tag_id): kein Sortieren, jede Bitmap wächst nur am Ende;
+        // Zuordnungen von Ideen im Papierkorb fallen hier heraus statt per Join
+        var byTag = new HashMap<Long, IdBitmap>();
+        try (var ps = c.prepareStatement("SELECT idea_id, tag_id FROM idea_tag ORDER BY idea_id, tag_id");
+             var rs = ps.executeQuery()) {
+            while (rs.next()) {
+                long ideaId = rs.getLong(1);
+                if (all.contains(ideaId)) byTag.computeIfAbsent(rs.getLong(2), k -> new IdBitmap()).add(ideaId);
+            }
+        }
+        return new Snapshot(all, byTag, readNames(c));
+    }
+
+    private static Map<Long, String> readNames(Connection c) throws SQLException {
+        var out = new HashMap<Long, String>();
+        try (var ps = c.prepareStatement("SELECT id, name FROM tag");
+             var rs = ps.executeQuery()) {
+            while (rs.next()) out.put(rs.getLong(1), rs.getString(2));
+        }
+        return out;
+    }
+
+    private synchronized void replaceWith(Snapshot s) {
+        allIdeas = s.allIdeas();
+        byTag.clear();
+        byTag.putAll(s.byTag());
+        setNames(s.names());
+    }
+
+    private void setNames(Map<Long, String> catalog) {
+        names.clear();
+        names.putAll(catalog);
+        idsByKey.clear();
+        for (var e : catalog.entrySet()) idsByKey.putIfAbsent(key(e.getValue()), e.getKey());
+    }
+
+    /** Die IDs aus {@code ideaIds}, die existieren und nicht im Papierkorb liegen. */
+    private static Set<Long> loadActive(Connection c, Set<Long> ideaIds) throws SQLException {
+        var out = new HashSet<Long>();
+        if (ideaIds.isEmpty()) return out;
+        String sql = "SELECT id FROM idea WHERE id IN (%s) AND deleted_at IS NULL"
+                .formatted(InClause.placeholders(InClause.CHUNK_SIZE));
+        try (var ps = c.prepareStatement(sql)) {
+            for (long[] chunk : InClause.chunks(ideaIds)) {
+                for (int i = 0; i < chunk.length; i++) ps.setLong(i + 1, chunk[i]);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) out.add(rs.getLong(1));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Map<Long, List<Long>> loadTags(Connection c, Set<Long> ideaIds) throws SQLException {
+        var out = new HashMap<Long, List<Long>>();
+        if (ideaIds.isEmpty()) return out;
+        String sql = "SELECT idea_id, tag_id FROM idea_tag WHERE idea_id IN (%s)"
+                .formatted(InClause.placeholders(InClause.CHUNK_SIZE));
+        try (var ps = c.prepareStatement(sql)) {
+            for (long[] chunk : InClause.chunks(ideaIds)) {
+                for (int i = 0; i < chunk.length; i++) ps.setLong(i + 1, chunk[i]);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) out.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getLong(2));
+                }
+            }
+        }
+        return out;
+    }
+
+    private void removeFromAllTags(long id) {
+        for (var ids : byTag.values()) ids.remove(id);
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,7 +4,10 @@ import de.kassel.model.Tag;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class TagRepository {
@@ -56,6 +59,7 @@ public class TagRepository {
             ps.setString(1, t.name());
             if (t.color() == null) ps.setNull(2, Types.VARCHAR); else ps.setString(2, t.color());
             ps.executeUpdate();
+            ChangeBus.publish(new ChangeEvent.TagsChanged(null));
             try (var keys = ps.getGeneratedKeys()) {
                 if (keys.next()) return keys.getLong(1);
             }
@@ -70,7 +74,9 @@ public class TagRepository {
             ps.setString(1, t.name());
             if (t.color() == null) ps.setNull(2, Types.VARCHAR); else ps.setString(2, t.color());
             ps.setLong(3, t.id());
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.TagsChanged(null));
+            return n;
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
@@ -79,7 +85,9 @@ public class TagRepository {
         try (var c = DbManager.getConnection();
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.TagsChanged(null));
+            return n;
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
@@ -101,6 +109,37 @@ public class TagRepository {
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
+    /**
+     * Tags für viele Ideen auf einmal (statt {@link #findTagsForIdea} je Zeile).
+     * Ideen ohne Tags fehlen in der Map; Tags je Idee sind nach Name sortiert.
+     */
+    public Map<Long, List<Tag>> findTagsForIdeas(Collection<Long> ideaIds) {
+        Map<Long, List<Tag>> out = new HashMap<>();
+        if (ideaIds == null || ideaIds.isEmpty()) return out;
+
+        String sql = """
+            SELECT it.idea_id, t.id, t.name, t.color, t.created_at
+            FROM idea_tag it
+            JOIN tag t ON t.id = it.tag_id
+            WHERE it.idea_id IN (%s)
+            ORDER BY it.idea_id, t.name COLLATE NOCASE
+        """.formatted(InClause.placeholders(InClause.CHUNK_SIZE));
+        try (var c = DbManager.getConnection()) {
+            for (long[] chunk : InClause.chunks(ideaIds)) {
+                try (var ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.length; i++) ps.setLong(i + 1, chunk[i]);
+                    try (var rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            out.computeIfAbsent(rs.getLong("idea_id"), k -> new ArrayList<>())
+                                    .add(mapRow(rs));
+                        }
+                    }
+                }
+            }
+            return out;
+        } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+
     /** Tag an Idea hängen (idempotent – ignoriert Duplikate). */
     public int addTagToIdea(long ideaId, long tagId) {
         String sql = """
@@ -111,7 +150,9 @@ public class TagRepository {
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, ideaId);
             ps.setLong(2, tagId);
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.TagsChanged(ideaId));
+            return n;
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
@@ -122,7 +163,9 @@ public class TagRepository {
              var ps = c.prepareStatement(sql)) {
             ps.setLong(1, ideaId);
             ps.setLong(2, tagId);
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            if (n > 0) ChangeBus.publish(new ChangeEvent.TagsChanged(ideaId));
+            return n;
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
@@ -132,41 +175,53 @@ public class TagRepository {
         if (name.isEmpty()) throw new IllegalArgumentException("Tag-Name leer");
 
         try (var c = DbManager.getConnection()) {
-            // existiert?
-            try (var ps = c.prepareStatement("SELECT id, name FROM tag WHERE LOWER(name)=LOWER(?)")) {
-                ps.setString(1, name);
-                try (var rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return new Tag(rs.getLong("id"), rs.getString("name"), null, 0L);
-                    }
+            var created = new boolean[1];
+            var tag = ensureExists(c, name, created);
+            if (created[0]) ChangeBus.publish(new ChangeEvent.TagsChanged(null));
+            return tag;
+        } catch (java.sql.SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Wie {@link #ensureExists(String)}, aber auf einer bestehenden Verbindung (z. B. in einer Transaktion).
+     * {@code created[0]} wird gesetzt, wenn der Tag neu angelegt wurde (Event erst nach dem Commit senden).
+     */
+    private Tag ensureExists(Connection c, String name, boolean[] created) throws SQLException {
+        // existiert?
+        try (var ps = c.prepareStatement("SELECT id, name FROM tag WHERE name = ? COLLATE NOCASE")) {
+            ps.setString(1, name);
+            try (var rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Tag(rs.getLong("id"), rs.getString("name"), null, 0L);
                 }
             }
-            // neu anlegen
-            try (var ins = c.prepareStatement(
-                    "INSERT INTO tag(name, created_at) VALUES(?, strftime('%s','now'))",
-                    java.sql.Statement.RETURN_GENERATED_KEYS
-            )) {
-                ins.setString(1, name);
-                ins.executeUpdate();
-                try (var keys = ins.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        return new Tag(keys.getLong(1), name, null, 0L);
-                    }
+        }
+        // neu anlegen
+        try (var ins = c.prepareStatement(
+                "INSERT INTO tag(name, created_at) VALUES(?, strftime('%s','now'))",
+                java.sql.Statement.RETURN_GENERATED_KEYS
+        )) {
+            ins.setString(1, name);
+            ins.executeUpdate();
+            created[0] = true;
+            try (var keys = ins.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return new Tag(keys.getLong(1), name, null, 0L);
                 }
             }
-            // Fallback: erneut lesen
-            try (var ps = c.prepareStatement("SELECT id, name FROM tag WHERE LOWER(name)=LOWER(?)")) {
-                ps.setString(1, name);
-                try (var rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return new Tag(rs.getLong("id"), rs.getString("name"), null, 0L);
-                    }
+        }
+        // Fallback: erneut lesen
+        try (var ps = c.prepareStatement("SELECT id, name FROM tag WHERE name = ? COLLATE NOCASE")) {
+            ps.setString(1, name);
+            try (var rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Tag(rs.getLong("id"), rs.getString("name"), null, 0L);
                 }
             }
-            throw new RuntimeException("ensureExists failed for: " + name);
-        } catch (java.sql.SQLException e) {
-            throw new RuntimeException(e);
         }
+        throw new RuntimeException("ensureExists failed for: " + name);
     }
 
 
@@ -174,6 +229,7 @@ public class TagRepository {
     public void replaceIdeaTags(long ideaId, java.util.List<String> tagNames) {
         if (tagNames == null) tagNames = java.util.List.of();
 
+        var created = new boolean[1];
         try (var c = DbManager.getConnection()) {
             c.setAutoCommit(false);
             try (var del = c.prepareStatement("DELETE FROM idea_tag WHERE idea_id=?")) {
@@ -188,7 +244,7 @@ public class TagRepository {
                     String name = raw == null ? "" : raw.trim();
                     if (name.isEmpty()) continue;
 
-                    var tag = ensureExists(name);  // legt das Tag an/holt es
+                    var tag = ensureExists(c, name, created);  // gleiche Verbindung, sonst SQLITE_BUSY in der Transaktion
                     ins.setLong(1, ideaId);
                     ins.setLong(2, tag.id());
                     ins.addBatch();
@@ -200,6 +256,50 @@ public class TagRepository {
         } catch (Exception e) {
             throw new RuntimeException("replaceIdeaTags failed", e);
         }
+        if (created[0]) ChangeBus.publish(new ChangeEvent.TagsChanged(null));
+        ChangeBus.publish(new ChangeEvent.TagsChanged(ideaId));
+    }
+
+    // ---- Massenänderungen (Mehrfachauswahl) ----
+
+    /**
+     * Hängt den Tag {@code tagName} (bei Bedarf neu angelegt) an alle {@code ideaIds} – eine
+     * Transaktion, mengenbasiert; liefert die Zahl neuer Zuordnungen.
+     */
+    public int addTagToIdeas(Collection<Long> ideaIds, String tagName) {
+        String name = tagName == null ? "" : tagName.trim();
+        if (name.isEmpty()) throw new IllegalArgumentException("Tag-Name leer");
+        if (ideaIds == null || ideaIds.isEmpty()) return 0;
+        var created = new boolean[1];
+        List<Long> linked = DbManager.inWriteTransaction(c -> {
+            var tag = ensureExists(c, name, created);
+            return InClause.returningIds(c, """
+                    INSERT OR IGNORE INTO idea_tag(idea_id, tag_id)
+                    SELECT id, ? FROM idea WHERE id IN (%s)
+                    RETURNING idea_id
+                    """, ideaIds, tag.id());
+        });
+        publishTagsChanged(linked, created[0]);
+        return linked.size();
+    }
+
+    /** Löst den Tag {@code tagName} (Groß-/Kleinschreibung egal) von allen {@code ideaIds}. */
+    public int removeTagFromIdeas(Collection<Long> ideaIds, String tagName) {
+        if (ideaIds == null || ideaIds.isEmpty() || tagName == null || tagName.isBlank()) return 0;
+        List<Long> unlinked = DbManager.inWriteTransaction(c -> InClause.returningIds(c, """
+                DELETE FROM idea_tag
+                WHERE tag_id IN (SELECT id FROM tag WHERE name = ? COLLATE NOCASE)
+                  AND idea_id IN (%s)
+                RETURNING idea_id
+                """, ideaIds, tagName.trim()));
+        publishTagsChanged(unlinked, false);
+        return unlinked.size();
     }
 
+    private static void publishTagsChanged(List<Long> ideaIds, boolean catalogChanged) {
+        var events = new ArrayList<ChangeEvent>(ideaIds.size() + 1);
+        if (catalogChanged) events.add(new ChangeEvent.TagsChanged(null));
+        for (long id : ideaIds) events.add(new ChangeEvent.TagsChanged(id));
+        ChangeBus.publishAll(events);
+    }
 }
@@ -0,0 +1,69 @@
+package de.kassel.db;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Schreibt Text als UTF-8 über einen festen Direktpuffer in einen {@link FileChannel}.
+ * Speicherbedarf = Puffergröße, egal wie groß die Datei wird.
+ */
+final class Utf8ChannelWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)       // einzelne Surrogates aus kaputten Daten
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private long written;
+
+    Utf8ChannelWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /** Hängt {@code text} an (vollständige Einheit, z. B. eine Zeile – Surrogat-Paare nicht zerteilen). */
+    void write(CharSequence text) throws IOException {
+        CharBuffer in = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult r = encoder.encode(in, buffer, true);
+            if (r.isOverflow()) {
+                drain();
+            } else if (r.isUnderflow()) {
+                break;
+            } else {
+                r.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) drain();
+        encoder.reset();
+    }
+
+    /** Bisher geschriebene Bytes (inkl. Puffer). */
+    long bytesWritten() {
+        return written + buffer.position();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) written += channel.write(buffer);
+        buffer.clear();
+    }
+
+    /** Puffer leeren und Daten auf die Platte zwingen; den Kanal schließt der Aufrufer. */
+    void flushAndSync() throws IOException {
+        drain();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        drain();
+    }
+}
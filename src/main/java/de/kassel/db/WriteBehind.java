@@ -0,0 +1,287 @@
+package de.kassel.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind für kleine, häufige Änderungen (Status, Snooze, Erledigt): Aufrufe kehren
+ * sofort zurück, ein einziger Schreib-Thread sammelt sie und schreibt sie gebündelt in EINER
+ * Transaktion (Group Commit) – spätestens {@link #DEADLINE_MILLIS} nach der ersten offenen Änderung
+ * oder sobald {@link #MAX_PENDING} Einträge warten.
+ * <p>
+ * Mehrere Änderungen derselben Idee/Erinnerung vor dem Schreiben werden zusammengefasst (die
+ * letzte gewinnt je Feld). Die Futures aller Aufrufe eines Bündels werden nach dem COMMIT erfüllt
+ * (bzw. mit dem Fehler abgeschlossen); danach gehen die {@link ChangeEvent}s wie gewohnt raus.
+ * <p>
+ * Read-your-writes: {@link AsyncDb} ruft vor jeder Aufgabe {@link #flush()} auf – eine Abfrage,
+ * die nach einer Änderung gestartet wird, sieht sie also. Ohne offene Änderungen kostet das nur
+ * einen volatile-Lesezugriff. Beim Beenden schreibt {@link #shutdown()} (und notfalls ein
+ * Shutdown-Hook) alles Offene.
+ */
+public final class WriteBehind {
+
+    /** Längste Wartezeit einer Änderung bis zum Schreiben. */
+    static final long DEADLINE_MILLIS = 50;
+    /** Ab so vielen offenen Ideen+Erinnerungen wird sofort geschrieben. */
+    static final int MAX_PENDING = 1_000;
+
+    /** Offene Änderungen einer Idee. */
+    private static final class IdeaPatch {
+        String status;
+    }
+
+    /** Offene Änderungen einer Erinnerung. */
+    private static final class ReminderPatch {
+        Long dueAt;
+        boolean done;
+    }
+
+    /** Ein vom Schreib-Thread übernommenes Bündel. */
+    private record Batch(Map<Long, IdeaPatch> ideas, Map<Long, ReminderPatch> reminders,
+                         List<CompletableFuture<Void>> waiters) { }
+
+    private static final Object LOCK = new Object();
+    private static Map<Long, IdeaPatch> ideas = new LinkedHashMap<>();
+    private static Map<Long, ReminderPatch> reminders = new LinkedHashMap<>();
+    private static List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private static long firstQueuedNanos;
+    private static boolean flushRequested;
+    private static boolean closed;
+    // volatile: flush() prüft ohne LOCK, ob es selbst der Schreib-Thread ist
+    private static volatile Thread writer;
+    private static CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+    // true, solange etwas offen ist oder geschrieben wird – schneller Weg für flush()
+    private static volatile boolean busy;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WriteBehind::shutdown, "mindstore-write-behind-flush"));
+    }
+
+    private WriteBehind() {}
+
+    // ---- Änderungen ----
+
+    /** Wie {@link IdeaRepository#updateStatus}, aber gebündelt. */
+    public static CompletableFuture<Void> updateStatus(long ideaId, String status) {
+        synchronized (LOCK) {
+            idea(ideaId).status = status;
+            return queued();
+        }
+    }
+
+    /** Wie {@link ReminderRepository#snooze}; die neue Fälligkeit zählt ab dem Aufruf, nicht ab dem Schreiben. */
+    public static CompletableFuture<Void> snooze(long reminderId, int minutes) {
+        long dueAt = Instant.now().getEpochSecond() + minutes * 60L;
+        synchronized (LOCK) {
+            reminder(reminderId).dueAt = dueAt;
+            return queued();
+        }
+    }
+
+    /** Wie {@link ReminderRepository#markDone}, aber gebündelt. */
+    public static CompletableFuture<Void> markDone(long reminderId) {
+        synchronized (LOCK) {
+            reminder(reminderId).done = true;
+            return queued();
+        }
+    }
+
+    private static IdeaPatch idea(long id) {
+        ensureOpen();
+        return ideas.computeIfAbsent(id, k -> new IdeaPatch());
+    }
+
+    private static ReminderPatch reminder(long id) {
+        ensureOpen();
+        return reminders.computeIfAbsent(id, k -> new ReminderPatch());
+    }
+
+    private static void ensureOpen() {
+        if (closed) throw new IllegalStateException("WriteBehind ist bereits beendet");
+        if (writer == null) startWriter();
+    }
+
+    /** Unter LOCK. */
+    private static void startWriter() {
+        writer = Thread.ofPlatform().daemon().name("mindstore-write-behind").start(WriteBehind::run);
+    }
+
+    /** Unter LOCK: Future für den Aufrufer anlegen und den Schreib-Thread wecken. */
+    private static CompletableFuture<Void> queued() {
+        var f = new CompletableFuture<Void>();
+        waiters.add(f);
+        if (firstQueuedNanos == 0) firstQueuedNanos = System.nanoTime();
+        busy = true;
+        LOCK.notifyAll();
+        return f;
+    }
+
+    // ---- Schreiben erzwingen ----
+
+    /**
+     * Blockiert, bis alle bis jetzt eingereihten Änderungen geschrieben sind. Fehler beim Schreiben
+     * bekommen die jeweiligen Aufrufer über ihr Future, nicht {@code flush()}.
+     */
+    public static void flush() {
+        if (!busy || Thread.currentThread() == writer) return;
+        CompletableFuture<Void> done;
+        synchronized (LOCK) {
+            if (waiters.isEmpty()) {
+                done = inFlight;
+            } else {
+                done = new CompletableFuture<>();
+                waiters.add(done);
+                flushRequested = true;
+                LOCK.notifyAll();
+            }
+        }
+        try {
+            done.join();
+        } catch (RuntimeException ignore) {
+            // schon an die Aufrufer gemeldet
+        }
+    }
+
+    /** Schreibt alles Offene und nimmt danach keine Änderungen mehr an (MainApp.stop, Shutdown-Hook). */
+    public static void shutdown() {
+        Thread w;
+        synchronized (LOCK) {
+            if (closed) return;
+            closed = true;
+            w = writer;
+            LOCK.notifyAll();
+        }
+        if (w == null) return;
+        try {
+            w.join(TimeUnit.SECONDS.toMillis(5));
+            if (w.isAlive()) System.err.println("[MindStore] Offene Änderungen beim Beenden nicht geschrieben.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- Schreib-Thread ----
+
+    private static void run() {
+        while (true) {
+            Batch batch = take();
+            if (batch == null) return;
+            try {
+                write(batch);
+                batch.waiters().forEach(f -> f.complete(null));
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+                batch.waiters().forEach(f -> f.completeExceptionally(ex));
+                if (ex instanceof Error err) {
+                    replaceWriter();
+                    throw err;
+                }
+            }
+        }
+    }
+
+    /**
+     * Der Schreib-Thread endet mit einem {@link Error} (OOM, LinkageError …): Nachfolger starten,
+     * sonst blieben offene Änderungen liegen und jedes {@link #flush()} wartete ewig.
+     */
+    private static void replaceWriter() {
+        synchronized (LOCK) {
+            writer = null;
+            if (waiters.isEmpty()) busy = false;
+            else startWriter();                     // auch nach shutdown(): schreibt den Rest und endet
+        }
+    }
+
+    /** Wartet auf Frist, Füllstand, flush() oder Ende; {@code null}, wenn beendet und nichts mehr offen ist. */
+    private static Batch take() {
+        synchronized (LOCK) {
+            while (true) {
+                try {
+                    if (waiters.isEmpty()) {
+                        busy = false;
+                        if (closed) return null;
+                        LOCK.wait();
+                        continue;
+                    }
+                    long waitNanos = firstQueuedNanos + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS) - System.nanoTime();
+                    if (flushRequested || closed || waitNanos <= 0 || ideas.size() + reminders.size() >= MAX_PENDING) break;
+                    TimeUnit.NANOSECONDS.timedWait(LOCK, waitNanos);
+                } catch (InterruptedException e) {
+                    closed = true;                      // hartes Beenden: Rest noch schreiben, dann aufhören
+                }
+            }
+            var batch = new Batch(ideas, reminders, waiters);
+            ideas = new LinkedHashMap<>();
+            reminders = new LinkedHashMap<>();
+            waiters = new ArrayList<>();
+            firstQueuedNanos = 0;
+            flushRequested = false;
+            inFlight = new CompletableFuture<>();
+            batch.waiters().add(inFlight);
+            return batch;
+        }
+    }
+
+    /** Ein Bündel in einer Transaktion; Events erst nach dem COMMIT. */
+    private static void write(Batch batch) {
+        var changedIdeas = new ArrayList<Long>();
+        var changedReminders = new ArrayList<Long>();
+        try (Connection c = DbManager.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(true);
+            try (var st = c.createStatement();
+                 var status = c.prepareStatement("UPDATE idea SET status = ? WHERE id = ? AND status IS NOT ?");
+                 var due = c.prepareStatement("UPDATE reminder SET due_at = ? WHERE id = ? RETURNING idea_id");
+                 var done = c.prepareStatement("UPDATE reminder SET is_done = 1 WHERE id = ? RETURNING idea_id")) {
+                st.execute("BEGIN IMMEDIATE");
+                try {
+                    for (var e : batch.ideas().entrySet()) {
+                        long id = e.getKey();
+                        var p = e.getValue();
+                        if (p.status == null) continue;
+                        status.setString(1, p.status);
+                        status.setLong(2, id);
+                        status.setString(3, p.status);
+                        if (status.executeUpdate() > 0) changedIdeas.add(id);
+                    }
+                    for (var e : batch.reminders().entrySet()) {
+                        var p = e.getValue();
+                        if (p.dueAt != null) {
+                            due.setLong(1, p.dueAt);
+                            due.setLong(2, e.getKey());
+                            collectIdeaIds(due, changedReminders);
+                        }
+                        if (p.done) {
+                            done.setLong(1, e.getKey());
+                            collectIdeaIds(done, changedReminders);
+                        }
+                    }
+                    st.execute("COMMIT");
+                } catch (SQLException | RuntimeException ex) {
+                    try { st.execute("ROLLBACK"); } catch (SQLException ignore) { }
+                    throw ex;
+                }
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Gebündeltes Schreiben fehlgeschlagen", e);
+        }
+        for (long id : changedIdeas) ChangeBus.publish(new ChangeEvent.IdeaUpdated(id));
+        for (long id : changedReminders) ChangeBus.publish(new ChangeEvent.ReminderChanged(id));
+    }
+
+    private static void collectIdeaIds(PreparedStatement ps, List<Long> out) throws SQLException {
+        try (var rs = ps.executeQuery()) {
+            while (rs.next()) out.add(rs.getLong(1));
+        }
+    }
+}
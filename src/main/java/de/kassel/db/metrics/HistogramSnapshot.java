@@ -0,0 +1,33 @@
+package de.kassel.db.metrics;
+
+/**
+ * Momentaufnahme eines Latenz-Histogramms. {@code buckets[i]} zählt Dauern in
+ * {@code [2^(i-1), 2^i)} ns; Perzentile sind daher Obergrenzen (höchstens Faktor 2 zu hoch).
+ */
+public record HistogramSnapshot(long count, long totalNanos, long maxNanos, long[] buckets) {
+
+    public static final HistogramSnapshot EMPTY = new HistogramSnapshot(0, 0, 0, new long[LatencyHistogram.BUCKETS]);
+
+    public double avgMillis() {
+        return count == 0 ? 0.0 : totalNanos / 1_000_000.0 / count;
+    }
+
+    public double maxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    /** Obergrenze des {@code p}-Perzentils (0 < p <= 1) in Millisekunden, gedeckelt auf das Maximum. */
+    public double percentileMillis(double p) {
+        if (count == 0) return 0.0;
+        long rank = (long) Math.ceil(p * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long upper = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : 1L << i);
+                return Math.min(upper, maxNanos) / 1_000_000.0;
+            }
+        }
+        return maxMillis();
+    }
+}
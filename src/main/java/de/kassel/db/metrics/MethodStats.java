@@ -0,0 +1,23 @@
+package de.kassel.db.metrics;
+
+/** Kennzahlen einer Repository-Methode (z. B. {@code IdeaRepository.findPage}). */
+public record MethodStats(
+        String method,
+        long calls,
+        long errors,
+        long rows,              // gelesene Zeilen bzw. geänderte Zeilen
+        HistogramSnapshot latency
+) {
+    public double rowsPerCall() {
+        return calls == 0 ? 0.0 : (double) rows / calls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.ROOT,
+                "%s[calls=%d, errors=%d, rows/call=%.1f, avg=%.3fms, p50=%.3fms, p95=%.3fms, p99=%.3fms, max=%.3fms, total=%.1fms]",
+                method, calls, errors, rowsPerCall(), latency.avgMillis(), latency.percentileMillis(0.50),
+                latency.percentileMillis(0.95), latency.percentileMillis(0.99), latency.maxMillis(),
+                latency.totalNanos() / 1_000_000.0);
+    }
+}
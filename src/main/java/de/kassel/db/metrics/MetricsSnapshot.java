@@ -0,0 +1,21 @@
+package de.kassel.db.metrics;
+
+import java.util.List;
+
+/**
+ * Momentaufnahme aller Query-Metriken (siehe {@link QueryMetrics#snapshot()}).
+ * {@code methods} ist nach Gesamtzeit absteigend sortiert – die teuersten Aufrufer zuerst.
+ */
+public record MetricsSnapshot(
+        long capturedAtMillis,
+        List<MethodStats> methods,
+        HistogramSnapshot connectionWait
+) {
+    public long totalCalls() {
+        return methods.stream().mapToLong(MethodStats::calls).sum();
+    }
+
+    public long totalErrors() {
+        return methods.stream().mapToLong(MethodStats::errors).sum();
+    }
+}
@@ -0,0 +1,37 @@
+package de.kassel.db.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Event je SQL-Aufruf (Dauer = Ausführen bis Schließen des ResultSets).
+ * Aufzeichnen z. B. mit {@code jcmd <pid> JFR.start settings=profile} und in JMC nach
+ * "MindStore / Database" filtern.
+ */
+@Name("de.kassel.mindstore.Query")
+@Label("SQL Query")
+@Category({"MindStore", "Database"})
+@Description("Ein SQL-Aufruf aus einem Repository")
+@StackTrace(false)
+public final class QueryEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    @Description("Aufrufende Repository-Methode")
+    String method;
+
+    @Label("SQL Id")
+    @Description("Kurzer Hash des SQL-Texts")
+    String sqlId;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+}
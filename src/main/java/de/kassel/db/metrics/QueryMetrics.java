@@ -0,0 +1,133 @@
+package de.kassel.db.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Laufzeit-Kennzahlen aller SQL-Aufrufe der Repositories: Latenz-Histogramm und Zeilenzahl je
+ * aufrufender Methode, dazu die Wartezeit auf eine Pool-Verbindung.
+ * <p>
+ * Gefüttert wird das Ganze von den Statement-Proxies in {@code de.kassel.db}; lesen kann man per
+ * {@link #snapshot()}, per JMX ({@link QueryMetricsMXBean}) und per JFR ({@link QueryEvent}).
+ * Abschalten mit {@code -Dmindstore.metrics=false}.
+ */
+public final class QueryMetrics {
+
+    public static final String OBJECT_NAME = "de.kassel.mindstore:type=QueryMetrics";
+
+    private static final boolean ENABLED =
+            !"false".equalsIgnoreCase(System.getProperty("mindstore.metrics", "true"));
+
+    /** Zähler einer Methode; das Histogramm zählt zugleich die Aufrufe. */
+    private record MethodMetrics(LatencyHistogram latency, LongAdder rows, LongAdder errors) {
+        MethodMetrics() {
+            this(new LatencyHistogram(), new LongAdder(), new LongAdder());
+        }
+    }
+
+    private static final ConcurrentHashMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private static volatile LatencyHistogram connectionWait = new LatencyHistogram();
+    private static volatile boolean mbeanRegistered;
+
+    private QueryMetrics() {}
+
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    // ---- Erfassen (aus de.kassel.db) ----
+
+    /** Zu Beginn eines Aufrufs: JFR-Event starten, {@code null} wenn JFR es nicht aufzeichnet. */
+    public static QueryEvent begin() {
+        var event = new QueryEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    /** Ein abgeschlossener Aufruf ({@code nanos} = Ausführen bis ResultSet geschlossen). */
+    public static void record(String method, String sql, long rows, long nanos, boolean failed, QueryEvent event) {
+        var m = methods.computeIfAbsent(method, k -> new MethodMetrics());
+        m.latency().record(nanos);
+        m.rows().add(rows);
+        if (failed) m.errors().increment();
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.sqlId = sqlId(sql);
+                event.sql = sql;
+                event.rows = rows;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    public static void recordConnectionWait(long nanos) {
+        connectionWait.record(nanos);
+    }
+
+    /** Kurze, stabile Kennung eines SQL-Texts (für Events und Logs). */
+    public static String sqlId(String sql) {
+        return sql == null ? "-" : String.format("%08x", sql.strip().hashCode());
+    }
+
+    // ---- Auslesen ----
+
+    public static MetricsSnapshot snapshot() {
+        var list = new ArrayList<MethodStats>(methods.size());
+        methods.forEach((name, m) -> {
+            var latency = m.latency().snapshot();
+            list.add(new MethodStats(name, latency.count(), m.errors().sum(), m.rows().sum(), latency));
+        });
+        list.sort(Comparator.comparingLong((MethodStats s) -> s.latency().totalNanos()).reversed());
+        return new MetricsSnapshot(System.currentTimeMillis(), list, connectionWait.snapshot());
+    }
+
+    public static void reset() {
+        methods.clear();
+        connectionWait = new LatencyHistogram();
+    }
+
+    /** Meldet die MXBean an (idempotent). Fehler werden nur geloggt – Metriken laufen trotzdem. */
+    public static void registerMBean() {
+        if (mbeanRegistered) return;
+        synchronized (QueryMetrics.class) {
+            if (mbeanRegistered) return;
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .registerMBean(new MXBeanImpl(), new ObjectName(OBJECT_NAME));
+            } catch (InstanceAlreadyExistsException ignore) {
+                // z. B. zweiter Klassenlader im selben Prozess
+            } catch (Exception e) {
+                System.err.println("[MindStore] QueryMetrics-MBean nicht registriert: " + e.getMessage());
+            }
+            mbeanRegistered = true;
+        }
+    }
+
+    private static final class MXBeanImpl implements QueryMetricsMXBean {
+        @Override public long getQueryCount() { return snapshot().totalCalls(); }
+        @Override public long getErrorCount() { return snapshot().totalErrors(); }
+        @Override public long getConnectionAcquireCount() { return connectionWait.snapshot().count(); }
+        @Override public double getConnectionWaitAvgMillis() { return connectionWait.snapshot().avgMillis(); }
+        @Override public double getConnectionWaitP99Millis() { return connectionWait.snapshot().percentileMillis(0.99); }
+        @Override public double getConnectionWaitMaxMillis() { return connectionWait.snapshot().maxMillis(); }
+
+        @Override
+        public String[] getMethodReport() {
+            return snapshot().methods().stream()
+                    .map(MethodStats::toString)
+                    .toArray(String[]::new);
+        }
+
+        @Override public void reset() { QueryMetrics.reset(); }
+    }
+}
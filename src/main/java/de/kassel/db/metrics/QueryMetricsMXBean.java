@@ -0,0 +1,25 @@
+package de.kassel.db.metrics;
+
+/**
+ * JMX-Sicht auf {@link QueryMetrics} (ObjectName {@value QueryMetrics#OBJECT_NAME}),
+ * z. B. in JConsole/VisualVM unter "de.kassel.mindstore".
+ */
+public interface QueryMetricsMXBean {
+
+    long getQueryCount();
+
+    long getErrorCount();
+
+    long getConnectionAcquireCount();
+
+    double getConnectionWaitAvgMillis();
+
+    double getConnectionWaitP99Millis();
+
+    double getConnectionWaitMaxMillis();
+
+    /** Eine Zeile je Repository-Methode, teuerste (Gesamtzeit) zuerst. */
+    String[] getMethodReport();
+
+    void reset();
+}
@@ -0,0 +1,13 @@
+package de.kassel.model;
+
+/** Schlanke Projektion einer Idee für Listen/Board – ohne Body. */
+public record IdeaSummary(
+        long id,
+        String title,
+        Priority priority,
+        IdeaStatus status,
+        Integer effortMinutes,     // nullable
+        long createdAt,            // epoch seconds
+        Long updatedAt,            // nullable epoch seconds
+        Long deletedAt             // nullable epoch seconds (nur im Papierkorb gesetzt)
+) { }
@@ -0,0 +1,19 @@
+package de.kassel.model;
+
+/**
+ * Gespeicherte Ansicht der Navigation: Suchausdruck in der Abfragesprache des Suchfelds
+ * ({@code de.kassel.db.IdeaQuery}) plus Sortierung der Liste.
+ */
+public record SavedView(
+        long id,
+        String name,
+        String query,
+        String sort,          // IdeaSort-Name, z. B. "CREATED"
+        boolean descending,
+        int position
+) {
+    // Komfort-Konstruktor für Inserts
+    public SavedView(String name, String query, String sort, boolean descending) {
+        this(0L, name, query, sort, descending, 0);
+    }
+}
@@ -0,0 +1,12 @@
+package de.kassel.model;
+
+/** Treffer der Volltextsuche inkl. hervorgehobenem Titel und Body-Ausschnitt. */
+public record SearchHit(
+        Idea idea,
+        String titleHighlight,  // Titel mit «Treffer»-Markierungen
+        String snippet,         // Ausschnitt aus dem Body, ebenfalls markiert
+        double rank             // BM25, kleiner = besser
+) {
+    public static final String MARK_OPEN  = "«";
+    public static final String MARK_CLOSE = "»";
+}
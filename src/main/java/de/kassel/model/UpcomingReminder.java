@@ -0,0 +1,9 @@
+package de.kassel.model;
+
+/** Offene Erinnerung samt Titel der Idee (für die Reminder-Leiste). */
+public record UpcomingReminder(
+        long reminderId,
+        long ideaId,
+        String title,
+        long dueAt        // epoch seconds
+) { }
@@ -1,18 +1,31 @@
 package de.kassel.settings;
 
+import de.kassel.db.DbConfig;
+import de.kassel.db.DbManager;
+
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
 
 public class SettingsStore {
-    private static final String APP_DIR = System.getProperty("user.home") + "/.mindstore";
-    private static final File FILE = new File(APP_DIR, "settings.properties");
+    // In-Memory-DB: Einstellungen auch nur im Speicher halten
+    private static volatile AppSettings inMemory;
+
+    /** {@code settings.properties} im Datenverzeichnis (siehe {@link DbConfig}). */
+    private static File file() {
+        return DbManager.config().dataDir().resolve("settings.properties").toFile();
+    }
 
     public static AppSettings load() {
+        if (DbManager.config().inMemory()) {
+            var s = inMemory;
+            return s != null ? s : AppSettings.defaults();
+        }
         try {
-            if (!FILE.exists()) return AppSettings.defaults();
+            var file = file();
+            if (!file.exists()) return AppSettings.defaults();
             var p = new Properties();
-            try (var in = new InputStreamReader(new FileInputStream(FILE), StandardCharsets.UTF_8)) {
+            try (var in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
                 p.load(in);
             }
             int refresh = Integer.parseInt(p.getProperty("reminderRefreshSeconds", "30"));
@@ -26,13 +39,18 @@ public class SettingsStore {
     }
 
     public static void save(AppSettings s) {
+        if (DbManager.config().inMemory()) {
+            inMemory = s;
+            return;
+        }
         try {
-            new File(APP_DIR).mkdirs();
+            var file = file();
+            file.getParentFile().mkdirs();
             var p = new Properties();
             p.setProperty("reminderRefreshSeconds", Integer.toString(s.reminderRefreshSeconds()));
             p.setProperty("defaultSnoozeMinutes", Integer.toString(s.defaultSnoozeMinutes()));
             p.setProperty("startupView", s.startupView());
-            try (var out = new OutputStreamWriter(new FileOutputStream(FILE), StandardCharsets.UTF_8)) {
+            try (var out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
                 p.store(out, "MindStore Settings");
             }
         } catch (Exception ex) {
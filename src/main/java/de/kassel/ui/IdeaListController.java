@@ -1,12 +1,19 @@
 package de.kassel.ui;
 
+import de.kassel.db.AsyncDb;
+import de.kassel.db.ChangeBus;
+import de.kassel.db.ChangeEvent;
+import de.kassel.db.IdBitmap;
 import de.kassel.db.IdeaRepository;
+import de.kassel.db.IdeaSort;
 import de.kassel.db.TagRepository;
+import de.kassel.db.WriteBehind;
 import de.kassel.model.Idea;
 import de.kassel.model.IdeaRow;
+import de.kassel.model.IdeaStatus;
 
 import javafx.beans.binding.Bindings;
-import javafx.collections.FXCollections;
+import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
@@ -19,7 +26,6 @@ import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class IdeaListController {
 
@@ -32,11 +38,17 @@ public class IdeaListController {
     @FXML private TableColumn<IdeaRow, String>  colTags;
 
     private final IdeaRepository repo = new IdeaRepository();
+    private final TagRepository tagRepo = new TagRepository();
+    private final UiTasks tasks = new UiTasks(this::showError);
     private String statusFilter = null;
 
-    // Ungefilterte Masterliste (wird in reload() befüllt)
+    // Ungefilterte Masterliste (seitenweise vom Pager befüllt) und die angezeigte Sicht darauf
     private final javafx.collections.ObservableList<IdeaRow> masterRows =
             javafx.collections.FXCollections.observableArrayList();
+    private final FilteredList<IdeaRow> visibleRows = new FilteredList<>(masterRows);
+    private final IdeaPager pager = new IdeaPager(masterRows, tasks, this::showError);
+    private final RowFilterIndex filterIndex = new RowFilterIndex(masterRows);
+    private Runnable unsubscribe = () -> { };
 
     @FXML
     public void initialize() {
@@ -46,7 +58,18 @@ public class IdeaListController {
         if (colTags != null) {
             colTags.setCellValueFactory(new PropertyValueFactory<>("tags"));
         }
-        reload();
+        // Tags sind eine Aggregation -> keine SQL-Sortierung möglich
+        if (colTags != null) colTags.setSortable(false);
+        table.setItems(visibleRows);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        // Klick auf Spaltenkopf sortiert in SQL (ORDER BY), nicht im Speicher
+        table.setSortPolicy(tv -> {
+            applySortOrder();
+            return true;
+        });
+        // Daten lädt setStatusFilter(...) – der MainController ruft es direkt nach dem Laden auf
+        // Änderungen (auch aus anderen Views/Dialogen) direkt einarbeiten statt neu zu laden
+        unsubscribe = ChangeBus.subscribe(this::onChanges);
         table.setOnKeyPressed(evt -> {
             switch (evt.getCode()) {
                 case ENTER -> {
@@ -64,97 +87,131 @@ public class IdeaListController {
 
     public void setStatusFilter(String status) {
         this.statusFilter = status;
+        pager.setStatus(status);
+        table.getSortOrder().clear();
         reload();
         setupContextMenu();
     }
 
+    /** Vom MainController aufrufen, wenn die View ersetzt wird: offene DB-Aufgaben verwerfen. */
+    public void dispose() {
+        unsubscribe.run();
+        tasks.cancelAll();
+    }
+
     private boolean isTrashView() {
         return "trash".equalsIgnoreCase(statusFilter);
     }
 
 
-    /** Lädt Daten aus dem Repo und füllt masterRows; Table zeigt zunächst alles. */
+    /** Lädt die erste Seite im Hintergrund neu; weitere Seiten folgen beim Scrollen (IdeaPager). */
     private void reload() {
-        // 1️⃣ Auswahl je nach Status (inkl. Papierkorb)
-        var ideas =
-                (statusFilter == null || statusFilter.equals("all"))
-                        ? repo.findAll()
-                        : (statusFilter.equals("trash")
-                        ? repo.findTrash()
-                        : repo.findByStatus(statusFilter));
-
-        // 2️⃣ Tag-Namen vorbereiten
-        var tagRepo = new TagRepository();
-
-        // 3️⃣ Alte Liste löschen und neu füllen
-        masterRows.clear();
-        for (Idea i : ideas) {
-            String tagNames = tagRepo.findTagsForIdea(i.id()).stream()
-                    .map(de.kassel.model.Tag::name)
-                    .sorted(String.CASE_INSENSITIVE_ORDER)
-                    .collect(Collectors.joining(", "));
-
-            var row = new IdeaRow(
-                    i.id(),
-                    i.title(),
-                    i.priority().level(),
-                    i.status().db()
-            );
-            row.setTags(tagNames);
-            masterRows.add(row);
+        pager.reload();
+    }
+
+    /** Sortierung aus dem Spaltenkopf an den Pager weitergeben (nur die erste Sortierspalte zählt). */
+    private void applySortOrder() {
+        var order = table.getSortOrder();
+        if (order.isEmpty()) {
+            pager.sortBy(null, true);
+            return;
         }
+        var col = order.get(0);
+        IdeaSort sort = col == colTitle ? IdeaSort.TITLE
+                : col == colPriority ? IdeaSort.PRIORITY
+                : col == colStatus ? IdeaSort.STATUS
+                : null;
+        pager.sortBy(sort, col.getSortType() == TableColumn.SortType.DESCENDING);
+    }
 
-        // 4️⃣ Anzeigen (alle sichtbar, Filter wird von MainController später angewendet)
-        table.setItems(FXCollections.observableArrayList(masterRows));
+    /** Aktuelle Sortierung (z. B. zum Speichern als Ansicht). */
+    public IdeaSort currentSort() {
+        return pager.sort();
     }
 
-    /** Wird vom FXML (Suchfeld-Button) genutzt – filtert nur nach Text. */
-    @FXML
-    private void onApplyFilter() {
-        applyFilter(filterField.getText(), java.util.Collections.emptyList());
+    public boolean isSortDescending() {
+        return pager.descending();
     }
 
-    /** Extern vom MainController aufrufbar: Text + ausgewählte Tags anwenden. */
-    public void applyFilter(String query, java.util.List<String> selectedTags) {
-        String q = (query == null) ? "" : query.trim().toLowerCase();
-        boolean hasQuery = !q.isBlank();
-
-        var tagNeedles = (selectedTags == null)
-                ? java.util.List.<String>of()
-                : selectedTags.stream()
-                .filter(s -> s != null && !s.isBlank())
-                .map(String::toLowerCase)
-                .toList();
-        boolean hasTags = !tagNeedles.isEmpty();
-
-        var filtered = masterRows.stream().filter(r -> {
-            boolean matchesQuery = true;
-            if (hasQuery) {
-                String title  = (r.getTitle()  == null) ? "" : r.getTitle().toLowerCase();
-                String status = (r.getStatus() == null) ? "" : r.getStatus().toLowerCase();
-                String tags   = (r.getTags()   == null) ? "" : r.getTags().toLowerCase();
-                String prio   = String.valueOf(r.getPriority());
-
-                matchesQuery = title.contains(q) || status.contains(q) || tags.contains(q)
-                        || ("p" + prio).equals(q) || prio.equals(q);
-            }
+    /** Sortierung von außen setzen (gespeicherte Ansicht); Spaltensortierungen über den Spaltenkopf. */
+    public void sortBy(IdeaSort sort, boolean descending) {
+        TableColumn<IdeaRow, ?> col = switch (sort) {
+            case TITLE -> colTitle;
+            case PRIORITY -> colPriority;
+            case STATUS -> colStatus;
+            case CREATED, DELETED -> null;
+        };
+        if (col == null) {
+            table.getSortOrder().clear();
+            pager.sortBy(sort, descending);
+            return;
+        }
+        col.setSortType(descending ? TableColumn.SortType.DESCENDING : TableColumn.SortType.ASCENDING);
+        table.getSortOrder().setAll(java.util.List.of(col));   // löst applySortOrder() aus
+    }
+
+    /** Schreibzugriff im Hintergrund; die Liste aktualisiert sich über die ChangeEvents. */
+    private void write(Runnable write) {
+        tasks.write(AsyncDb.run(write));
+    }
 
-            boolean matchesTags = true;
-            if (hasTags) {
-                String tags = (r.getTags() == null) ? "" : r.getTags().toLowerCase();
-                // ANY-match: trifft, wenn irgendein ausgewählter Tag vorkommt
-                matchesTags = tagNeedles.stream().anyMatch(tags::contains);
-                // Für ALL-match stattdessen:
-                // matchesTags = tagNeedles.stream().allMatch(tags::contains);
+    /** Gebündelte Änderungen eines UI-Pulses als Diff auf die geladenen Zeilen anwenden. */
+    private void onChanges(java.util.List<ChangeEvent> events) {
+        var changed = new java.util.LinkedHashSet<Long>();
+        var deleted = new java.util.HashSet<Long>();
+        boolean tagCatalog = false;
+        boolean bulk = false;
+        for (var e : events) {
+            switch (e) {
+                case ChangeEvent.IdeaInserted i -> changed.add(i.ideaId());
+                case ChangeEvent.IdeaUpdated u -> changed.add(u.ideaId());
+                case ChangeEvent.IdeaDeleted d -> deleted.add(d.ideaId());
+                case ChangeEvent.TagsChanged t -> {
+                    if (t.ideaId() == null) tagCatalog = true;
+                    else changed.add(t.ideaId());
+                }
+                case ChangeEvent.ReminderChanged r -> { /* nicht in der Tabelle sichtbar */ }
+                case ChangeEvent.IdeasImported b -> bulk = true;
             }
+        }
+        if (bulk) {
+            reload(); // erste Seite neu, Einzel-Diffs erübrigen sich
+            return;
+        }
+        pager.remove(deleted);
+        pager.refresh(changed);
+        if (tagCatalog) pager.refreshTags();
+    }
 
-            return matchesQuery && matchesTags;
-        }).collect(Collectors.toCollection(FXCollections::observableArrayList));
+    private void showError(Throwable ex) {
+        ex.printStackTrace();
+        new Alert(Alert.AlertType.ERROR, "Datenbankfehler: " + ex.getMessage()).showAndWait();
+    }
 
-        table.setItems(filtered);
+    /** Wird vom FXML (Suchfeld-Button) genutzt – filtert nur nach Text. */
+    @FXML
+    private void onApplyFilter() {
+        applyFilter(filterField.getText(), null);
+    }
+
+    /**
+     * Extern vom MainController aufrufbar: Text + Tag-Ergebnis anwenden. Der Text wird über den
+     * {@link RowFilterIndex} (Trigramme) ausgewertet statt über alle Zeilen; {@code tagFilter} ist
+     * die Menge der Idee-IDs, die den Tag-Ausdruck der Seitenleiste erfüllen ({@code null} = kein
+     * Tag-Filter).
+     */
+    public void applyFilter(String query, IdBitmap tagFilter) {
+        String q = (query == null) ? "" : query.trim().toLowerCase(java.util.Locale.ROOT);
+
+        var predicate = filterIndex.filter(q, tagFilter);
+        visibleRows.setPredicate(predicate);
+        // Filter wirkt im Speicher -> restliche Seiten nachladen, damit nichts fehlt
+        pager.setDrain(predicate != null);
     }
 
     // -------- Kontextmenü + Doppelklick --------
+    // Alle Aktionen außer "Bearbeiten" wirken auf die gesamte Mehrfachauswahl: je Aktion EIN
+    // mengenbasiertes Statement in einer Transaktion, danach EIN gebündeltes ChangeEvent-Update.
     private void setupContextMenu() {
         final ContextMenu menu = new ContextMenu();
 
@@ -162,27 +219,17 @@ public class IdeaListController {
             // ---- Menü NUR für Papierkorb ----
             MenuItem restore = new MenuItem("Wiederherstellen");
             restore.setOnAction(e -> {
-                var sel = table.getSelectionModel().getSelectedItem();
-                if (sel == null) return;
-                repo.restore(sel.getId());      // ← muss in IdeaRepository existieren
-                reload();
+                var ids = selectedIds();
+                if (!ids.isEmpty()) bulk(() -> repo.restore(ids));
             });
 
             MenuItem deleteForever = new MenuItem("Endgültig löschen…");
             deleteForever.setOnAction(e -> {
-                var sel = table.getSelectionModel().getSelectedItem();
-                if (sel == null) return;
-
-                var alert = new Alert(Alert.AlertType.CONFIRMATION,
-                        "Eintrag endgültig löschen? Dies kann nicht rückgängig gemacht werden.",
-                        ButtonType.OK, ButtonType.CANCEL);
-                alert.setHeaderText(null);
-                alert.showAndWait().ifPresent(bt -> {
-                    if (bt == ButtonType.OK) {
-                        repo.deletePermanent(sel.getId()); // ← harte Löschung
-                        reload();
-                    }
-                });
+                var ids = selectedIds();
+                if (ids.isEmpty()) return;
+                if (confirm(entries(ids.size()) + " endgültig löschen? Dies kann nicht rückgängig gemacht werden.")) {
+                    bulk(() -> repo.deletePermanent(ids)); // ← harte Löschung
+                }
             });
 
             menu.getItems().setAll(restore, new SeparatorMenuItem(), deleteForever);
@@ -195,38 +242,64 @@ public class IdeaListController {
             Menu editStatus = new Menu("Status ändern");
             for (String s : java.util.List.of("inbox", "draft", "doing", "done", "archived")) {
                 MenuItem item = new MenuItem(s);
-                item.setOnAction(ev -> {
-                    var sel = table.getSelectionModel().getSelectedItem();
-                    if (sel == null) return;
-                    repo.updateStatus(sel.getId(), s);
-                    reload();
-                });
+                item.setOnAction(ev -> changeStatus(s));
                 editStatus.getItems().add(item);
             }
 
+            MenuItem addTag = new MenuItem("Tag hinzufügen…");
+            addTag.setOnAction(e -> addTagToSelection());
+            Menu removeTag = new Menu("Tag entfernen");
+            Menu tags = new Menu("Tags", null, addTag, removeTag);
+
+            Menu snooze = new Menu("Erinnerung verschieben");
+            for (var option : java.util.List.of(
+                    java.util.Map.entry("um 10 Minuten", 10),
+                    java.util.Map.entry("um 1 Stunde", 60),
+                    java.util.Map.entry("auf morgen", 24 * 60))) {
+                MenuItem item = new MenuItem(option.getKey());
+                item.setOnAction(e -> {
+                    var ids = selectedIds();
+                    if (!ids.isEmpty()) bulk(() -> new de.kassel.db.ReminderRepository().snoozeForIdeas(ids, option.getValue()));
+                });
+                snooze.getItems().add(item);
+            }
+
             MenuItem moveToTrash = new MenuItem("In Papierkorb verschieben…");
             moveToTrash.setOnAction(e -> {
-                var sel = table.getSelectionModel().getSelectedItem();
-                if (sel == null) return;
-
-                var alert = new Alert(Alert.AlertType.CONFIRMATION,
-                        "Eintrag wirklich in den Papierkorb verschieben?",
-                        ButtonType.OK, ButtonType.CANCEL);
-                alert.setHeaderText(null);
-                alert.showAndWait().ifPresent(bt -> {
-                    if (bt == ButtonType.OK) {
-                        repo.moveToTrash(sel.getId());
-                        reload();
-                    }
-                });
+                var ids = selectedIds();
+                if (ids.isEmpty()) return;
+                if (confirm(entries(ids.size()) + " wirklich in den Papierkorb verschieben?")) {
+                    bulk(() -> repo.moveToTrash(ids));
+                }
+            });
+
+            // "Bearbeiten" nur bei genau einer Zeile; "Tag entfernen" bietet die Tags der Auswahl an
+            menu.setOnShowing(e -> {
+                var selected = table.getSelectionModel().getSelectedItems();
+                edit.setDisable(selected.size() != 1);
+                removeTag.getItems().clear();
+                var names = new java.util.TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+                for (var r : selected) names.addAll(tagNames(r));
+                for (String name : names) {
+                    MenuItem item = new MenuItem(name);
+                    item.setOnAction(ev -> {
+                        var ids = selectedIds();
+                        bulk(() -> tagRepo.removeTagFromIdeas(ids, name));
+                    });
+                    removeTag.getItems().add(item);
+                }
+                removeTag.setDisable(names.isEmpty());
             });
 
-            menu.getItems().setAll(edit, editStatus, new SeparatorMenuItem(), moveToTrash);
+            menu.getItems().setAll(edit, editStatus, tags, snooze, new SeparatorMenuItem(), moveToTrash);
         }
 
         // RowFactory neu setzen, damit das gerade gebaute Menü greift
         table.setRowFactory(tv -> {
             var r = new TableRow<IdeaRow>();
+            // Nähert sich die sichtbare Zeile dem Ende, nächste Seite laden
+            r.indexProperty().addListener((obs, oldIdx, idx) ->
+                    pager.onRowShown(idx.intValue(), table.getItems().size()));
             r.contextMenuProperty().bind(
                     Bindings.when(r.emptyProperty())
                             .then((ContextMenu) null)
@@ -250,28 +323,93 @@ public class IdeaListController {
     private void editSelectedRow() {
         var row = table.getSelectionModel().getSelectedItem();
         if (row == null) return;
+        openIdea(row.getId());
+    }
 
-        var opt = repo.findById(row.getId());
-        if (opt.isEmpty()) {
-            new Alert(Alert.AlertType.ERROR,
-                    "Eintrag nicht gefunden (ID: " + row.getId() + ").").showAndWait();
+    /** Idee laden und im Bearbeiten-Dialog öffnen (auch von außen, z. B. Schnellsuche). */
+    public void openIdea(long id) {
+        tasks.load(AsyncDb.supply(() -> repo.findById(id)), opt -> {
+            if (opt.isEmpty()) {
+                new Alert(Alert.AlertType.ERROR,
+                        "Eintrag nicht gefunden (ID: " + id + ").").showAndWait();
+                return;
+            }
+            openEditDialog(opt.get());
+        });
+    }
+    private void deleteSelectedRow() {
+        var ids = selectedIds();
+        if (ids.isEmpty()) return;
+        if (confirm(entries(ids.size()) + " wirklich löschen?")) {
+            bulk(() -> repo.deletePermanent(ids));
+        }
+    }
+
+    // -------- Mehrfachauswahl --------
+
+    private List<Long> selectedIds() {
+        return table.getSelectionModel().getSelectedItems().stream().map(IdeaRow::getId).toList();
+    }
+
+    /**
+     * Eine Zeile: über {@link WriteBehind} (schnelles Durchklicken wird gebündelt geschrieben).
+     * Mehrere: ein {@code UPDATE … WHERE id IN (…)}. In beiden Fällen sofort anzeigen und bei
+     * einem Fehler wieder zurücknehmen.
+     */
+    private void changeStatus(String status) {
+        var selected = List.copyOf(table.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) return;
+        var before = selected.stream().map(IdeaRow::getStatus).toList();
+        selected.forEach(r -> r.setStatus(status));
+        var ids = selected.stream().map(IdeaRow::getId).toList();
+        java.util.function.Consumer<Throwable> revert = ex -> {
+            for (int i = 0; i < selected.size(); i++) {
+                var row = selected.get(i);
+                if (status.equals(row.getStatus())) row.setStatus(before.get(i));   // sonst schon neuer geklickt
+            }
+            // gebündelte Klicks derselben Zeile scheitern gemeinsam: den Stand der DB nachlesen
+            pager.refresh(ids);
+            showError(ex);
+        };
+        if (selected.size() == 1) {
+            tasks.write(WriteBehind.updateStatus(ids.get(0), status), v -> { }, revert);
             return;
         }
-        openEditDialog(opt.get());
+        tasks.write(AsyncDb.supply(() -> repo.changeStatus(ids, IdeaStatus.fromDb(status))), v -> { }, revert);
     }
-    private void deleteSelectedRow() {
-        var sel = table.getSelectionModel().getSelectedItem();
-        if (sel == null) return;
 
-        var alert = new Alert(Alert.AlertType.CONFIRMATION,
-                "Eintrag wirklich löschen?", ButtonType.OK, ButtonType.CANCEL);
+    private void addTagToSelection() {
+        var ids = selectedIds();
+        if (ids.isEmpty()) return;
+        var dialog = new TextInputDialog();
+        dialog.setTitle("Tag hinzufügen");
+        dialog.setHeaderText("Tag für " + entries(ids.size()));
+        dialog.setContentText("Name:");
+        dialog.showAndWait()
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .ifPresent(name -> bulk(() -> tagRepo.addTagToIdeas(ids, name)));
+    }
+
+    /** Massenänderung im Hintergrund; die Zeilen gleicht danach das gebündelte ChangeEvent ab. */
+    private void bulk(java.util.function.Supplier<Integer> change) {
+        tasks.write(AsyncDb.supply(change));
+    }
+
+    private boolean confirm(String text) {
+        var alert = new Alert(Alert.AlertType.CONFIRMATION, text, ButtonType.OK, ButtonType.CANCEL);
         alert.setHeaderText(null);
-        alert.showAndWait().ifPresent(bt -> {
-            if (bt == ButtonType.OK) {
-                repo.delete(sel.getId());
-                reload();
-            }
-        });
+        return alert.showAndWait().filter(bt -> bt == ButtonType.OK).isPresent();
+    }
+
+    private static String entries(int n) {
+        return n == 1 ? "Eintrag" : n + " Einträge";
+    }
+
+    private static List<String> tagNames(IdeaRow row) {
+        String tags = row.getTags();
+        if (tags == null || tags.isBlank()) return List.of();
+        return java.util.Arrays.stream(tags.split(",")).map(String::trim).filter(t -> !t.isEmpty()).toList();
     }
 
     private void openEditDialog(de.kassel.model.Idea idea) {
@@ -295,39 +433,42 @@ public class IdeaListController {
                 dialog.setResultConverter(bt -> bt == ButtonType.OK ? dlg.buildUpdatedOrShowError(idea) : null);
 
                 dialog.showAndWait().ifPresent(updated -> {
-                    // 1) Idee speichern
-                    repo.update(updated);
-
-                    // 2) Tags sichern
+                    // Dialog-Werte noch auf dem FX-Thread einsammeln
                     var selectedTags = dlg.getSelectedTagNames();
-                    new de.kassel.db.TagRepository().replaceIdeaTags(updated.id(), selectedTags);
-
-                    // 3) Reminder upsert/entfernen
                     Long when = dlg.getReminderEpochOrNull();
-                    var remRepo = new de.kassel.db.ReminderRepository();
-                    if (when != null) {
-                        remRepo.upsertForIdea(updated.id(), when, updated.title());
-                    } else {
-                        remRepo.deleteForIdea(updated.id());
-                    }
-
-                    // 4) Attachments verarbeiten
-                    var attRepo = new de.kassel.db.AttachmentRepository();
-
-                    // 4a) zuerst löschen (nur bestehende IDs)
-                    for (Long idToDel : dlg.getDeletedAttachmentIds()) {
-                        if (idToDel != null) {
-                            attRepo.deleteById(idToDel);
+                    var deletedAttachmentIds = dlg.getDeletedAttachmentIds();
+                    var newAttachmentPaths = dlg.getNewAttachmentPaths();
+
+                    write(() -> {
+                        // 1) Idee speichern
+                        repo.update(updated);
+
+                        // 2) Tags sichern
+                        tagRepo.replaceIdeaTags(updated.id(), selectedTags);
+
+                        // 3) Reminder upsert/entfernen
+                        var remRepo = new de.kassel.db.ReminderRepository();
+                        if (when != null) {
+                            remRepo.upsertForIdea(updated.id(), when, updated.title());
+                        } else {
+                            remRepo.deleteForIdea(updated.id());
                         }
-                    }
 
-                    // 4b) neue Dateien aus dem Dialog speichern (Repo übernimmt Kopieren & Insert)
-                    for (java.nio.file.Path src : dlg.getNewAttachmentPaths()) {
-                        attRepo.insertFromPath(updated.id(), src);
-                    }
+                        // 4) Attachments verarbeiten
+                        var attRepo = new de.kassel.db.AttachmentRepository();
+
+                        // 4a) zuerst löschen (nur bestehende IDs)
+                        for (Long idToDel : deletedAttachmentIds) {
+                            if (idToDel != null) {
+                                attRepo.deleteById(idToDel);
+                            }
+                        }
 
-                    // 5) UI aktualisieren
-                    reload();
+                        // 4b) neue Dateien aus dem Dialog speichern (Repo übernimmt Kopieren & Insert)
+                        for (java.nio.file.Path src : newAttachmentPaths) {
+                            attRepo.insertFromPath(updated.id(), src);
+                        }
+                    });
                 });
             }
         } catch (Exception ex) {
@@ -0,0 +1,262 @@
+package de.kassel.ui;
+
+import de.kassel.db.AsyncDb;
+import de.kassel.db.IdeaRepository;
+import de.kassel.db.IdeaSort;
+import de.kassel.db.TagRepository;
+import de.kassel.model.IdeaRow;
+import de.kassel.model.IdeaSummary;
+import de.kassel.model.Tag;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Lazy-Datenquelle für die Ideen-Tabelle: lädt Seiten per Keyset ({@link IdeaRepository#findPage})
+ * und hängt sie an {@code rows} an, sobald der Nutzer in die Nähe des Listenendes scrollt.
+ * <p>
+ * Nur auf dem FX-Thread benutzen. Ein {@link #reload()} verwirft alle noch laufenden Seiten
+ * (Generationszähler), die erste Seite ersetzt dann den bisherigen Inhalt. Änderungen aus dem
+ * {@link de.kassel.db.ChangeBus} werden per {@link #refresh}/{@link #remove} direkt in
+ * {@code rows} eingearbeitet, ohne neu zu laden.
+ */
+final class IdeaPager {
+
+    static final int PAGE_SIZE = 200;
+    /** Nachladen, wenn eine Zeile so nah am Ende sichtbar wird. */
+    private static final int PREFETCH_ROWS = 50;
+
+    /** Eine geladene Seite; {@code last} ist die Keyset-Grenze für die nächste. */
+    private record Page(List<IdeaSummary> ideas, List<IdeaRow> rows, IdeaSummary last, boolean hasMore) { }
+
+    /** Nachgeladene Zeilen zu geänderten IDs; fehlende IDs gibt es nicht mehr. */
+    private record Changed(Collection<Long> requested, List<IdeaSummary> ideas, Map<Long, String> tags) { }
+
+    private final IdeaRepository repo = new IdeaRepository();
+    private final TagRepository tagRepo = new TagRepository();
+    private final ObservableList<IdeaRow> rows;
+    private final UiTasks tasks;
+    private final Consumer<Throwable> onError;
+    // Summary je geladener Zeile (für Sortierposition und Filter-Zugehörigkeit bei Änderungen)
+    private final Map<Long, IdeaSummary> loaded = new HashMap<>();
+
+    private String status;
+    private IdeaSort sort = IdeaSort.CREATED;
+    private boolean descending = true;
+
+    private IdeaSummary last;
+    private boolean hasMore;
+    private boolean loading;
+    private boolean drain;      // alle Seiten laden (z. B. während ein Filter aktiv ist)
+    private int generation;
+
+    IdeaPager(ObservableList<IdeaRow> rows, UiTasks tasks, Consumer<Throwable> onError) {
+        this.rows = rows;
+        this.tasks = tasks;
+        this.onError = onError;
+    }
+
+    void setStatus(String status) {
+        this.status = status;
+        this.sort = "trash".equalsIgnoreCase(status) ? IdeaSort.DELETED : IdeaSort.CREATED;
+        this.descending = true;
+    }
+
+    /** Neue Sortierung; lädt nur neu, wenn sie sich tatsächlich geändert hat. */
+    void sortBy(IdeaSort sort, boolean descending) {
+        if (sort == null) {
+            sort = "trash".equalsIgnoreCase(status) ? IdeaSort.DELETED : IdeaSort.CREATED;
+            descending = true;
+        }
+        if (sort == this.sort && descending == this.descending) return;
+        this.sort = sort;
+        this.descending = descending;
+        reload();
+    }
+
+    IdeaSort sort() {
+        return sort;
+    }
+
+    boolean descending() {
+        return descending;
+    }
+
+    /** Ab der ersten Seite neu laden; der alte Inhalt bleibt bis dahin sichtbar. */
+    void reload() {
+        generation++;
+        last = null;
+        hasMore = false;
+        loading = false;
+        fetch();
+    }
+
+    /** Mit {@code true} werden alle restlichen Seiten nacheinander geladen. */
+    void setDrain(boolean drain) {
+        this.drain = drain;
+        if (drain) loadMore();
+    }
+
+    /** Aus der RowFactory: Zeile {@code index} von {@code visibleCount} wird angezeigt. */
+    void onRowShown(int index, int visibleCount) {
+        if (index >= 0 && index >= visibleCount - PREFETCH_ROWS) loadMore();
+    }
+
+    private void loadMore() {
+        if (hasMore && !loading) fetch();
+    }
+
+    private void fetch() {
+        loading = true;
+        final int gen = generation;
+        final String st = status;
+        final IdeaSort so = sort;
+        final boolean desc = descending;
+        final IdeaSummary after = last;
+        tasks.load(AsyncDb.supply(() -> loadPage(st, so, desc, after)), page -> {
+            if (gen != generation) return;
+            if (after == null) {
+                loaded.clear();
+                rows.setAll(page.rows());
+            } else {
+                rows.addAll(page.rows());
+            }
+            for (var i : page.ideas()) loaded.put(i.id(), i);
+            last = page.last();
+            hasMore = page.hasMore();
+            loading = false;
+            if (drain) loadMore();
+        }, ex -> {
+            if (gen == generation) loading = false;
+            onError.accept(ex);
+        });
+    }
+
+    /** Läuft im Hintergrund-Thread – keine UI-Zugriffe! */
+    private Page loadPage(String status, IdeaSort sort, boolean descending, IdeaSummary after) {
+        var ideas = repo.findPage(status, sort, descending, after, PAGE_SIZE);
+        boolean more = ideas.size() > PAGE_SIZE;
+        if (more) ideas = ideas.subList(0, PAGE_SIZE);
+
+        // Tag-Namen nur für diese Seite laden
+        var tagsByIdea = tagRepo.findTagsForIdeas(
+                ideas.stream().map(IdeaSummary::id).toList());
+
+        var out = new ArrayList<IdeaRow>(ideas.size());
+        for (IdeaSummary i : ideas) {
+            out.add(new IdeaRow(i.id(), i.title(), i.priority().level(), i.status().db(),
+                    tagNames(tagsByIdea.get(i.id()))));
+        }
+        return new Page(ideas, out, ideas.isEmpty() ? after : ideas.get(ideas.size() - 1), more);
+    }
+
+    private static String tagNames(List<Tag> tags) {
+        return tags == null ? "" : tags.stream().map(Tag::name).collect(Collectors.joining(", "));
+    }
+
+    // ---- Inkrementelle Änderungen ----
+
+    /** Endgültig gelöschte Ideen entfernen. */
+    void remove(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        var gone = new HashSet<>(ids);
+        rows.removeIf(r -> gone.contains(r.getId()));
+        loaded.keySet().removeAll(gone);
+    }
+
+    /** Geänderte/neue Ideen nachladen und einsortieren (oder entfernen, wenn sie nicht mehr passen). */
+    void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        var requested = List.copyOf(ids);
+        tasks.load(AsyncDb.supply(() -> {
+            var ideas = repo.findSummariesByIds(requested);
+            var tags = new HashMap<Long, String>();
+            tagRepo.findTagsForIdeas(requested).forEach((id, list) -> tags.put(id, tagNames(list)));
+            return new Changed(requested, ideas, tags);
+        }), this::apply, onError);
+    }
+
+    /** Tag-Katalog geändert (umbenannt/gelöscht): nur die Tag-Spalte der geladenen Zeilen auffrischen. */
+    void refreshTags() {
+        var ids = List.copyOf(loaded.keySet());
+        if (ids.isEmpty()) return;
+        tasks.load(AsyncDb.supply(() -> tagRepo.findTagsForIdeas(ids)), byIdea -> {
+            for (var r : rows) {
+                if (loaded.containsKey(r.getId())) r.setTags(tagNames(byIdea.get(r.getId())));
+            }
+        }, onError);
+    }
+
+    private void apply(Changed changed) {
+        var found = new HashSet<Long>();
+        for (var s : changed.ideas()) {
+            found.add(s.id());
+            apply(s, changed.tags().getOrDefault(s.id(), ""));
+        }
+        var missing = new ArrayList<Long>();
+        for (Long id : changed.requested()) if (!found.contains(id)) missing.add(id);
+        remove(missing);
+    }
+
+    private void apply(IdeaSummary s, String tags) {
+        int idx = indexOf(s.id());
+        var before = loaded.get(s.id());
+        if (!belongsHere(s)) {
+            if (idx >= 0) rows.remove(idx);
+            loaded.remove(s.id());
+            return;
+        }
+        var cmp = sort.comparator(descending);
+        if (idx >= 0 && before != null && cmp.compare(before, s) == 0) {
+            // gleiche Position -> Zeile in place aktualisieren
+            var row = rows.get(idx);
+            row.setTitle(s.title());
+            row.setPriority(s.priority().level());
+            row.setStatus(s.status().db());
+            row.setTags(tags);
+            loaded.put(s.id(), s);
+            return;
+        }
+        if (idx >= 0) {
+            rows.remove(idx);
+            loaded.remove(s.id());
+        }
+        int pos = insertionPoint(s, cmp);
+        // hinter der letzten geladenen Zeile: kommt mit einer späteren Seite
+        if (pos == rows.size() && hasMore) return;
+        rows.add(pos, new IdeaRow(s.id(), s.title(), s.priority().level(), s.status().db(), tags));
+        loaded.put(s.id(), s);
+    }
+
+    private boolean belongsHere(IdeaSummary s) {
+        if ("trash".equalsIgnoreCase(status)) return s.deletedAt() != null;
+        if (s.deletedAt() != null) return false;
+        return status == null || "all".equalsIgnoreCase(status) || s.status().db().equalsIgnoreCase(status);
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getId() == id) return i;
+        }
+        return -1;
+    }
+
+    /** Binäre Suche über die (sortiert geladenen) Zeilen. */
+    private int insertionPoint(IdeaSummary s, java.util.Comparator<IdeaSummary> cmp) {
+        int lo = 0, hi = rows.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            var other = loaded.get(rows.get(mid).getId());
+            if (other != null && cmp.compare(other, s) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
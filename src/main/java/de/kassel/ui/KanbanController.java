@@ -1,14 +1,25 @@
 package de.kassel.ui;
 
+import de.kassel.db.AsyncDb;
+import de.kassel.db.ChangeBus;
+import de.kassel.db.ChangeEvent;
 import de.kassel.db.IdeaRepository;
-import de.kassel.model.Idea;
 import de.kassel.model.IdeaStatus;
+import de.kassel.model.IdeaSummary;
 import javafx.fxml.FXML;
-import javafx.scene.Node;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class KanbanController {
 
@@ -18,17 +29,35 @@ public class KanbanController {
     @FXML private VBox colDone;
     @FXML private VBox colArchived;
 
+    // Max. Karten je Spalte beim Öffnen; Done/Archived wachsen nur per "Mehr laden"
+    private static final Map<IdeaStatus, Integer> INITIAL_LIMITS = Map.of(
+            IdeaStatus.INBOX,    500,
+            IdeaStatus.DRAFT,    500,
+            IdeaStatus.DOING,    500,
+            IdeaStatus.DONE,     50,
+            IdeaStatus.ARCHIVED, 50
+    );
+    private static final int PAGE_SIZE = 100;
+    // Reihenfolge innerhalb einer Spalte, wie in findBoardColumns (neueste zuerst)
+    private static final Comparator<IdeaSummary> NEWEST_FIRST = Comparator
+            .comparingLong(IdeaSummary::createdAt)
+            .thenComparingLong(IdeaSummary::id)
+            .reversed();
+
     private final IdeaRepository repo = new IdeaRepository();
+    private final UiTasks tasks = new UiTasks();
+    private final Map<IdeaStatus, Column> columns = new EnumMap<>(IdeaStatus.class);
+    private Runnable unsubscribe = () -> { };
 
     @FXML
     public void initialize() {
-        // optionale Spalten-Header
-        addHeader(colInbox,    "Inbox");
-        addHeader(colDraft,    "Draft");
-        addHeader(colDoing,    "Doing");
-        addHeader(colDone,     "Done");
-        addHeader(colArchived, "Archived");
+        addColumn(IdeaStatus.INBOX,    colInbox,    "Inbox",    false);
+        addColumn(IdeaStatus.DRAFT,    colDraft,    "Draft",    false);
+        addColumn(IdeaStatus.DOING,    colDoing,    "Doing",    false);
+        addColumn(IdeaStatus.DONE,     colDone,     "Done",     true);
+        addColumn(IdeaStatus.ARCHIVED, colArchived, "Archived", true);
 
+        unsubscribe = ChangeBus.subscribe(this::onChanges);
         refresh();
     }
 
@@ -37,63 +66,174 @@ public class KanbanController {
         refresh();
     }
 
+    /** Vom MainController aufrufen, wenn das Board ersetzt wird. */
+    public void dispose() {
+        unsubscribe.run();
+        tasks.cancelAll();
+    }
+
     private void refresh() {
-        // Spalten leeren (Header in Position 0 behalten)
-        clearColumn(colInbox);
-        clearColumn(colDraft);
-        clearColumn(colDoing);
-        clearColumn(colDone);
-        clearColumn(colArchived);
-
-        // Daten laden und verteilen
-        addIdeas(colInbox,    repo.findByStatus("inbox"));
-        addIdeas(colDraft,    repo.findByStatus("draft"));
-        addIdeas(colDoing,    repo.findByStatus("doing"));
-        addIdeas(colDone,     repo.findByStatus("done"));
-        addIdeas(colArchived, repo.findByStatus("archived"));
+        // alle Spalten mit einer Abfrage im Hintergrund laden
+        tasks.latest("refresh", AsyncDb.supply(() -> repo.findBoardColumns(INITIAL_LIMITS)), byStatus -> {
+            for (var e : columns.entrySet()) {
+                e.getValue().setPage(byStatus.get(e.getKey()), INITIAL_LIMITS.get(e.getKey()), false);
+            }
+        });
+    }
+
+    private void loadMore(IdeaStatus status) {
+        var col = columns.get(status);
+        var items = col.list.getItems();
+        if (items.isEmpty()) return;
+        var last = items.get(items.size() - 1);
+        col.moreBtn.setDisable(true);
+        tasks.load(AsyncDb.supply(() -> repo.findByStatusAfter(status, last, PAGE_SIZE)),
+                page -> col.setPage(page, PAGE_SIZE, true));
+    }
+
+    // ---- Änderungen aus dem ChangeBus ----
+
+    private void onChanges(List<ChangeEvent> events) {
+        var changed = new LinkedHashSet<Long>();
+        var deleted = new HashSet<Long>();
+        if (events.stream().anyMatch(e -> e instanceof ChangeEvent.IdeasImported)) {
+            refresh(); // Bulk-Import: alle Spalten neu statt Karte für Karte
+            return;
+        }
+        for (var e : events) {
+            if (e instanceof ChangeEvent.IdeaInserted i) changed.add(i.ideaId());
+            else if (e instanceof ChangeEvent.IdeaUpdated u) changed.add(u.ideaId());
+            else if (e instanceof ChangeEvent.IdeaDeleted d) deleted.add(d.ideaId());
+            // Tags/Reminder sind auf den Karten nicht zu sehen
+        }
+        for (Long id : deleted) removeCard(id);
+        if (changed.isEmpty()) return;
+
+        var ids = List.copyOf(changed);
+        tasks.load(AsyncDb.supply(() -> repo.findSummariesByIds(ids)), ideas -> {
+            var found = new HashSet<Long>();
+            for (var s : ideas) {
+                found.add(s.id());
+                placeCard(s);
+            }
+            for (Long id : ids) if (!found.contains(id)) removeCard(id);
+        });
+    }
+
+    /** Karte in ihre (neue) Spalte einsortieren; Papierkorb-Ideen verschwinden vom Board. */
+    private void placeCard(IdeaSummary s) {
+        var target = s.deletedAt() == null ? columns.get(s.status()) : null;
+        for (var col : columns.values()) {
+            var items = col.list.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).id() != s.id()) continue;
+                if (col == target) {
+                    items.set(i, s); // gleiche Spalte, created_at unverändert -> gleiche Position
+                    return;
+                }
+                items.remove(i);
+                col.updateHeader();
+                break;
+            }
+        }
+        if (target != null) target.insert(s);
     }
 
-    private void addIdeas(VBox column, List<Idea> ideas) {
-        for (Idea i : ideas) {
-            column.getChildren().add(makeCard(i));
+    private void removeCard(long id) {
+        for (var col : columns.values()) {
+            if (col.list.getItems().removeIf(it -> it.id() == id)) col.updateHeader();
         }
     }
 
-    /** Mini-Karte für eine Idee. */
-    private Node makeCard(Idea idea) {
-        var box = new VBox(4);
-        box.setStyle("""
-            -fx-background-color: -fx-base;
-            -fx-background-radius: 8;
-            -fx-padding: 10;
-            -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.08), 6,0,0,2);
-        """);
-
-        var title = new Label(idea.title());
-        title.setStyle("-fx-font-weight: bold;");
-
-        var meta = new Label(
-                "P" + idea.priority().level() + " • " + idea.status().name()
-        );
-        meta.setStyle("-fx-opacity: 0.7; -fx-font-size: 11;");
-
-        box.getChildren().addAll(title, meta);
-
-        // (später) DnD-Handler + Doppelklick zum Bearbeiten ergänzen
-        box.setUserData(idea); // merken für spätere Aktionen
-        return box;
+    // ---- Spalten-Aufbau ----
+
+    private void addColumn(IdeaStatus status, VBox box, String title, boolean pageable) {
+        var col = new Column(title);
+        box.getChildren().setAll(col.header, col.list);
+        VBox.setVgrow(col.list, Priority.ALWAYS);
+        if (pageable) {
+            col.moreBtn.setOnAction(e -> loadMore(status));
+            col.moreBtn.setMaxWidth(Double.MAX_VALUE);
+            box.getChildren().add(col.moreBtn);
+        }
+        columns.put(status, col);
     }
 
-    private void addHeader(VBox column, String text) {
-        var header = new Label(text);
-        header.setStyle("-fx-font-weight: bold; -fx-padding: 0 0 6 0;");
-        column.getChildren().add(header);
+    /** Eine Board-Spalte: Überschrift, virtualisierte Kartenliste, optional "Mehr laden". */
+    private static final class Column {
+        final String title;
+        final Label header = new Label();
+        final ListView<IdeaSummary> list = new ListView<>();
+        final Button moreBtn = new Button("Mehr laden…");
+        boolean hasMore;
+
+        Column(String title) {
+            this.title = title;
+            header.getStyleClass().add("kanban-header");
+            list.getStyleClass().add("kanban-list");
+            list.setCellFactory(lv -> new CardCell());
+            moreBtn.setVisible(false);
+            moreBtn.setManaged(false);
+            updateHeader();
+        }
+
+        /** Übernimmt eine Seite (bis zu limit+1 Einträge, der Überhang signalisiert "es gibt mehr"). */
+        void setPage(List<IdeaSummary> page, int limit, boolean append) {
+            hasMore = page.size() > limit;
+            var visible = hasMore ? page.subList(0, limit) : page;
+            if (append) list.getItems().addAll(visible);
+            else list.getItems().setAll(visible);
+            moreBtn.setVisible(hasMore);
+            moreBtn.setManaged(hasMore);
+            moreBtn.setDisable(false);
+            updateHeader();
+        }
+
+        /** Einsortieren; liegt die Karte hinter der letzten geladenen, kommt sie mit "Mehr laden". */
+        void insert(IdeaSummary s) {
+            var items = list.getItems();
+            int lo = 0, hi = items.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (NEWEST_FIRST.compare(items.get(mid), s) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            if (lo == items.size() && hasMore) return;
+            items.add(lo, s);
+            updateHeader();
+        }
+
+        void updateHeader() {
+            header.setText(title + " (" + list.getItems().size() + (hasMore ? "+" : "") + ")");
+        }
     }
 
-    private void clearColumn(VBox column) {
-        // Header (Index 0) stehen lassen
-        if (column.getChildren().size() > 1) {
-            column.getChildren().remove(1, column.getChildren().size());
+    /** Mini-Karte für eine Idee; Knoten werden beim Scrollen wiederverwendet. */
+    private static final class CardCell extends ListCell<IdeaSummary> {
+        private final Label title = new Label();
+        private final Label meta = new Label();
+        private final VBox box = new VBox(4, title, meta);
+
+        CardCell() {
+            box.getStyleClass().add("idea-card");
+            title.getStyleClass().add("idea-card-title");
+            meta.getStyleClass().add("idea-card-meta");
+            title.setWrapText(true);
+        }
+
+        @Override
+        protected void updateItem(IdeaSummary idea, boolean empty) {
+            super.updateItem(idea, empty);
+            if (empty || idea == null) {
+                setGraphic(null);
+                setUserData(null);
+                return;
+            }
+            title.setText(idea.title());
+            meta.setText("P" + idea.priority().level() + " • " + idea.status().name());
+            // (später) DnD-Handler + Doppelklick zum Bearbeiten ergänzen
+            setUserData(idea); // merken für spätere Aktionen
+            setGraphic(box);
         }
     }
 }
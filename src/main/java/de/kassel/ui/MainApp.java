@@ -13,13 +13,19 @@ import javafx.scene.input.KeyCombination;
 import java.util.Objects;
 
 public class MainApp extends Application {
+    private MainController controller;
+
     @Override
     public void start(Stage stage) throws Exception {
         //de.kassel.db.DbManager.initIfNeeded(); // falls du diese Methode schon hast – ansonsten optional
 
+        // Repository-Änderungen gebündelt auf dem FX-Thread zustellen (ein Bündel pro Puls)
+        de.kassel.db.ChangeBus.setDeliveryExecutor(javafx.application.Platform::runLater);
+
         // DB initialisieren + Diagnose
         try (var c = DbManager.getConnection()) {
             System.out.println("SQLite URL = " + c.getMetaData().getURL());
+            DbManager.seedIfEmpty(c);   // erster Start: ein paar Demo-Ideen
         } catch (Exception e) {
             System.err.println("DB-Init failed: " + e.getClass().getName() + " - " + e.getMessage());
             if (e.getCause() != null) {
@@ -32,7 +38,7 @@ public class MainApp extends Application {
                 java.util.Objects.requireNonNull(MainApp.class.getResource("/de/kassel/ui/MainView.fxml"))
         );
         Parent root = loader.load();
-        MainController controller = loader.getController();
+        controller = loader.getController();
         Scene scene = new Scene(root, 900, 600);
 
 // Ctrl+N → Neue Idee
@@ -40,6 +46,11 @@ public class MainApp extends Application {
                 new KeyCodeCombination(KeyCode.N, KeyCombination.CONTROL_DOWN),
                 () -> controller.onNewIdea()
         );
+// Ctrl+P → Schnellsuche (Ideen + Tags, tippfehlertolerant)
+        scene.getAccelerators().put(
+                new KeyCodeCombination(KeyCode.P, KeyCombination.CONTROL_DOWN),
+                () -> controller.onQuickOpen()
+        );
 
         scene.getStylesheets().add(
                 java.util.Objects.requireNonNull(MainApp.class.getResource("/de/kassel/ui/app.css")).toExternalForm()
@@ -50,5 +61,15 @@ public class MainApp extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (controller != null) controller.dispose();
+        // offene gebündelte Änderungen schreiben, laufende DB-Aufgaben abschließen,
+        // dann Pool-Verbindungen schließen (WAL-Checkpoint beim letzten close)
+        de.kassel.db.WriteBehind.shutdown();
+        de.kassel.db.AsyncDb.shutdown();
+        DbManager.shutdown();
+    }
+
     public static void main(String[] args) { launch(args); }
 }
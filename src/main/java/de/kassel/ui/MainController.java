@@ -1,8 +1,5 @@
 package de.kassel.ui;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.collections.ListChangeListener;
 import java.nio.file.Path;
 import java.nio.file.Files;
@@ -16,7 +13,6 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.util.Duration;
 import java.util.*;
 import javafx.scene.layout.Region;
 import java.time.*;
@@ -26,6 +22,20 @@ import java.util.Locale;
 import java.util.UUID;
 import java.util.Objects;
 
+import de.kassel.db.AsyncDb;
+import de.kassel.db.ChangeBus;
+import de.kassel.db.ChangeEvent;
+import de.kassel.db.IdBitmap;
+import de.kassel.db.IdeaQuery;
+import de.kassel.db.IdeaRepository;
+import de.kassel.db.IdeaSort;
+import de.kassel.db.QuickOpenIndex;
+import de.kassel.db.ReminderScheduler;
+import de.kassel.db.SavedViewRepository;
+import de.kassel.db.SmartViews;
+import de.kassel.db.TagFilterIndex;
+import de.kassel.db.WriteBehind;
+import de.kassel.model.SavedView;
 import de.kassel.settings.SettingsStore;
 import de.kassel.settings.AppSettings;
 
@@ -33,6 +43,11 @@ public class MainController {
 
     // Referenz auf den aktuell geladenen Listen-Controller (für Filter-Aufrufe)
     private IdeaListController currentList;
+    // aktuell geladenes Board (nur zum Aufräumen beim View-Wechsel)
+    private KanbanController currentBoard;
+
+    // DB-Aufgaben des Hauptfensters (Tags, Reminder, Speichern)
+    private final UiTasks tasks = new UiTasks();
 
     private static final java.util.Map<String, String> NAV_TO_STATUS = java.util.Map.of(
             "Inbox",       "inbox",
@@ -44,10 +59,16 @@ public class MainController {
             "Papierkorb",  "trash"
     );
 
+    private static final List<String> BUILTIN_NAV =
+            List.of("Inbox", "Draft", "Doing", "Done", "Archived", "Alle Ideen", "Papierkorb", "Board");
+
     @FXML private TextField       searchField;
     @FXML private Label           statusLabel;
+    @FXML private Button          importButton;
+    @FXML private Button          exportButton;
     @FXML private ListView<String> navList;
     @FXML private ListView<String> tagList;
+    @FXML private ToggleButton    tagMatchAll;
     @FXML private StackPane       contentPane;
 
     // Reminder UI
@@ -55,7 +76,38 @@ public class MainController {
 
     //Settings
     private de.kassel.settings.AppSettings settings;
-    private javafx.animation.Timeline reminderTimeline;
+    // Reminder-Leiste: Scheduler weckt genau zu Fälligkeiten bzw. bei Änderungen (kein Polling)
+    private static final long REMINDER_PREVIEW_SECONDS = 3 * 24 * 60 * 60; // 3 Tage Vorschau
+    private ReminderScheduler reminderScheduler;
+
+    // Tag-Filter der Seitenleiste: Bitmaps je Tag über alle Ideen (null, solange noch geladen wird)
+    private TagFilterIndex tagIndex;
+    // ChangeEvents, die während des Ladens eintreffen – danach nachgespielt (null = geladen)
+    private List<ChangeEvent> tagIndexBacklog = new ArrayList<>();
+    // per Rechtsklick ausgeschlossene Tags (UND NICHT)
+    private final Set<String> excludedTags = new LinkedHashSet<>();
+    // Treffer je Tag im aktuellen Tag-Ergebnis (Anzeige in der Tag-Liste)
+    private Map<String, Long> tagCounts = Map.of();
+    // letztes Tag-Ergebnis – Tippen im Suchfeld wertet den Ausdruck nicht jedes Mal neu aus
+    private TagFilterIndex.Expr tagExpr;
+    private IdBitmap tagResult;
+    private boolean tagResultStale = true;
+    // Suchfeld in Abfragesprache (tag:, status:, p1, "…"): Ergebnis kommt per SQL im Hintergrund
+    private boolean queryActive;
+    private long filterGeneration;       // verwirft Abfrage-Ergebnisse, die inzwischen überholt sind
+
+    // Gespeicherte Ansichten (unter den festen Einträgen der Navigation); Mitglieder und Zähler
+    // hält SmartViews über die ChangeEvents aktuell – kein Polling, keine Neuabfrage
+    private SmartViews smartViews;
+    private List<ChangeEvent> smartViewsBacklog = new ArrayList<>();   // wie tagIndexBacklog
+    private final Map<String, SavedView> savedViews = new LinkedHashMap<>();   // Name -> Ansicht
+    private Map<Long, Long> viewCounts = Map.of();
+    private SavedView activeView;
+
+    // Schnellsuche (Strg+P): Trigramm-Index über Titel und Tags (null, solange noch geladen wird)
+    private QuickOpenIndex quickOpen;
+    private List<ChangeEvent> quickOpenBacklog = new ArrayList<>();    // wie tagIndexBacklog
+    private QuickOpenPalette quickOpenPalette;
 
     // Lädt die Listen-View, setzt Status-Filter und wendet aktuelle Filter (Suche/Tags) an
     private void loadIdeaListForStatus(String status) {
@@ -66,6 +118,7 @@ public class MainController {
             Parent view = loader.load();
 
             // Controller merken und sofort konfigurieren
+            disposeCurrentView();
             currentList = loader.getController();
             if (currentList != null) {
                 currentList.setStatusFilter(status);
@@ -82,7 +135,7 @@ public class MainController {
     @FXML
     public void initialize() {
         // Navigation befüllen (muss VOR der Auswahl passieren)
-        navList.getItems().setAll("Inbox","Draft","Doing","Done","Archived","Alle Ideen","Papierkorb","Board");
+        navList.getItems().setAll(BUILTIN_NAV);
 
 // 1) gewünschte Startansicht als NAV-LABEL ermitteln (z. B. "Inbox", "Board", …)
         String preferred = resolveStartViewFromSettings();
@@ -105,23 +158,64 @@ public class MainController {
 
 // 4) Listener für spätere Wechsel
         navList.getSelectionModel().selectedItemProperty().addListener((obs, oldV, newV) -> {
+            if (newV == null) return;
             statusLabel.setText("Ansicht: " + newV);
+            activeView = savedViews.get(newV);
             if ("Board".equalsIgnoreCase(newV)) {
                 loadKanban();
                 return;
             }
             loadIdeaListForStatus(NAV_TO_STATUS.getOrDefault(newV, "all"));
+            if (activeView != null && currentList != null) currentList.sortBy(sortOf(activeView), activeView.descending());
         });
 
-        // Tags aus DB laden und sortieren
-        var tagRepo = new de.kassel.db.TagRepository();
-        var tagNames = tagRepo.findAll().stream()
-                .map(de.kassel.model.Tag::name)
-                .sorted(String.CASE_INSENSITIVE_ORDER)
-                .toList();
+        // Änderungen aus den Repositories – vor dem Laden der Indizes abonnieren, damit nichts
+        // zwischen Lesen und Übernahme verloren geht (siehe *Backlog)
+        ChangeBus.subscribe(this::onChanges);
+
+        // gespeicherte Ansichten laden und einmal auswerten (Hintergrund), danach inkrementell
+        setupNavCells();
+        var viewRepo = new SavedViewRepository();
+        tasks.load(AsyncDb.supply(() -> SmartViews.load(viewRepo.findAll())), views -> {
+            smartViews = views;
+            for (var v : views.views()) {
+                savedViews.put(v.name(), v);
+                navList.getItems().add(v.name());
+            }
+            viewCounts = views.counts();
+            var backlog = smartViewsBacklog;
+            smartViewsBacklog = null;
+            if (!backlog.isEmpty()) refreshSmartViews(backlog);
+        }, ex -> {
+            smartViewsBacklog = null;
+            statusLabel.setText("Ansichten konnten nicht geladen werden: " + ex.getMessage());
+        });
 
-        tagList.getItems().setAll(tagNames);
+        // Tags aus DB laden (Hintergrund) und sortieren
         tagList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        setupTagCells();
+        refreshTagList();
+        tasks.load(AsyncDb.supply(TagFilterIndex::load), index -> {
+            tagIndex = index;
+            var backlog = tagIndexBacklog;
+            tagIndexBacklog = null;
+            tagResultStale = true;
+            applyActiveFilters();
+            if (!backlog.isEmpty()) refreshTagIndex(backlog);
+        }, ex -> {
+            tagIndexBacklog = null;
+            statusLabel.setText("Tag-Filter konnte nicht geladen werden: " + ex.getMessage());
+        });
+        tagMatchAll.selectedProperty().addListener((obs, o, n) -> applyActiveFilters());
+        tasks.load(AsyncDb.supply(QuickOpenIndex::load), index -> {
+            quickOpen = index;
+            var backlog = quickOpenBacklog;
+            quickOpenBacklog = null;
+            if (!backlog.isEmpty()) refreshQuickOpen(backlog);
+        }, ex -> {
+            quickOpenBacklog = null;
+            statusLabel.setText("Schnellsuche konnte nicht geladen werden: " + ex.getMessage());
+        });
 
         // Live-Filter: Suche
         searchField.textProperty().addListener((obs, o, n) -> applyActiveFilters());
@@ -131,7 +225,7 @@ public class MainController {
                 (ListChangeListener<String>) c -> applyActiveFilters()
         );
 
-        // Toggle-Auswahl per erneutem Klick (an/abwählen)
+        // Toggle-Auswahl per erneutem Klick (an/abwählen), Rechtsklick schließt aus
         tagList.addEventFilter(MouseEvent.MOUSE_PRESSED, e -> {
             var node = e.getPickResult().getIntersectedNode();
             // bis zur ListCell „hochklettern“
@@ -140,8 +234,15 @@ public class MainController {
             }
             if (node instanceof javafx.scene.control.ListCell<?> cell) {
                 e.consume(); // eigenes Toggle-Handling übernehmen
-                int index = cell.getIndex();
-                if (index >= 0) {
+                int index = cell.isEmpty() ? -1 : cell.getIndex();
+                if (index >= 0 && e.isSecondaryButtonDown()) {
+                    String name = tagList.getItems().get(index);
+                    if (!excludedTags.remove(name)) {
+                        excludedTags.add(name);
+                        tagList.getSelectionModel().clearSelection(index);
+                    }
+                } else if (index >= 0) {
+                    excludedTags.remove(tagList.getItems().get(index));
                     var sm = tagList.getSelectionModel();
                     if (sm.getSelectedIndices().contains(index)) {
                         sm.clearSelection(index);      // abwählen
@@ -155,15 +256,16 @@ public class MainController {
 
         // hübsche Reminder-Zellen mit Buttons
         setupReminderCells();
-        refreshReminders();
+        reminderScheduler = new ReminderScheduler(REMINDER_PREVIEW_SECONDS,
+                upcoming -> javafx.application.Platform.runLater(() -> showReminders(upcoming)));
+        reminderScheduler.start();
+    }
 
-        // alle 60s refresher (und 1x direkt)
-        var timeline = new Timeline(
-                new KeyFrame(Duration.seconds(0), e -> refreshReminders()),
-                new KeyFrame(Duration.seconds(15))
-        );
-        timeline.setCycleCount(Animation.INDEFINITE);
-        timeline.play();
+    /** Beim Beenden der App (MainApp.stop). */
+    public void dispose() {
+        if (reminderScheduler != null) reminderScheduler.stop();
+        disposeCurrentView();
+        tasks.cancelAll();
     }
 
     @FXML
@@ -190,32 +292,38 @@ public class MainController {
                 if (result.isPresent() && result.get() != null) {
                     var idea = result.get();
 
-                    // 1) Idee speichern → neue ID holen
-                    var ideaRepo = new de.kassel.db.IdeaRepository();
-                    long newId = ideaRepo.insert(idea);
-
-// 2) Tags übernehmen
+                    // Dialog-Werte noch auf dem FX-Thread einsammeln
                     var selectedTags = dlg.getSelectedTagNames();
-                    new de.kassel.db.TagRepository().replaceIdeaTags(newId, selectedTags);
-
-// 3) Reminder (optional)
                     var when = dlg.getReminderEpochOrNull();
-                    if (when != null) {
-                        new de.kassel.db.ReminderRepository()
-                                .upsertForIdea(newId, when, /* note: */ idea.title());
-                    }
-
-// 4) NEUE Attachments aus dem Dialog übernehmen
-                    var atRepo = new de.kassel.db.AttachmentRepository();
-                    for (var p : dlg.getNewAttachmentPaths()) {
-                        atRepo.insertFromPath(newId, p);
-                    }
-
-
-                    // 4) UI-Feedback + Refresh (Status-Ansicht beibehalten)
-                    statusLabel.setText("Idee gespeichert: " + idea.title());
-                    var currentNav = navList.getSelectionModel().getSelectedItem();
-                    loadIdeaListForStatus(NAV_TO_STATUS.getOrDefault(currentNav, "all"));
+                    var newAttachments = dlg.getNewAttachmentPaths();
+
+                    statusLabel.setText("Speichere: " + idea.title() + " …");
+                    tasks.write(AsyncDb.run(() -> {
+                        // 1) Idee speichern → neue ID holen
+                        var ideaRepo = new de.kassel.db.IdeaRepository();
+                        long newId = ideaRepo.insert(idea);
+
+                        // 2) Tags übernehmen
+                        new de.kassel.db.TagRepository().replaceIdeaTags(newId, selectedTags);
+
+                        // 3) Reminder (optional)
+                        if (when != null) {
+                            new de.kassel.db.ReminderRepository()
+                                    .upsertForIdea(newId, when, /* note: */ idea.title());
+                        }
+
+                        // 4) NEUE Attachments aus dem Dialog übernehmen
+                        var atRepo = new de.kassel.db.AttachmentRepository();
+                        for (var p : newAttachments) {
+                            atRepo.insertFromPath(newId, p);
+                        }
+                    }), v -> {
+                        // 5) UI-Feedback – Liste/Board/Reminder aktualisieren sich über die ChangeEvents
+                        statusLabel.setText("Idee gespeichert: " + idea.title());
+                    }, ex -> {
+                        ex.printStackTrace();
+                        statusLabel.setText("Fehler beim Speichern: " + ex.getMessage());
+                    });
                 }
             }
         } catch (Exception ex) {
@@ -258,7 +366,6 @@ public class MainController {
                     // speichern + anwenden
                     settings = result.get();
                     de.kassel.settings.SettingsStore.save(settings);
-                    setupReminderRefreshTimer(settings.reminderRefreshSeconds());
                     statusLabel.setText("Einstellungen gespeichert.");
                 }
             }
@@ -269,14 +376,286 @@ public class MainController {
     }
 
 
-    /** Wendet aktuellen Suchtext + gewählte Tags auf die geladene Liste an. */
-    private void applyActiveFilters() {
-        if (currentList == null) return;
+    /**
+     * Bulk-Import aus CSV/JSON Lines im Hintergrund; Fortschritt in der Statuszeile. Ein abgebrochener
+     * Import derselben Datei setzt beim nächsten Mal fort, Listen laden über {@code IdeasImported} neu.
+     */
+    @FXML
+    private void onImport() {
+        var chooser = new javafx.stage.FileChooser();
+        chooser.setTitle("Ideen importieren");
+        chooser.getExtensionFilters().addAll(
+                new javafx.stage.FileChooser.ExtensionFilter("CSV / JSON Lines", "*.csv", "*.tsv", "*.jsonl", "*.ndjson", "*.json"),
+                new javafx.stage.FileChooser.ExtensionFilter("Alle Dateien", "*.*"));
+        var chosen = chooser.showOpenDialog(statusLabel.getScene().getWindow());
+        if (chosen == null) return;
+
+        Path file = chosen.toPath();
+        importButton.setDisable(true);
+        statusLabel.setText("Importiere " + file.getFileName() + " …");
+        var lastUpdate = new java.util.concurrent.atomic.AtomicLong();
+        tasks.load(AsyncDb.supply(() -> de.kassel.db.IdeaImporter.importFile(file, p -> {
+            long now = System.nanoTime();
+            long last = lastUpdate.get();
+            if (now - last < 200_000_000L || !lastUpdate.compareAndSet(last, now)) return; // höchstens 5x/s
+            String text = String.format(Locale.ROOT, "Import %s: %d%% – %,d Ideen (%,.0f/s)",
+                    file.getFileName(), Math.round(p.fraction() * 100), p.imported(), p.perSecond());
+            javafx.application.Platform.runLater(() -> statusLabel.setText(text));
+        })), result -> {
+            importButton.setDisable(false);
+            statusLabel.setText("Import " + file.getFileName() + ": " + result);
+            if (!result.problems().isEmpty()) {
+                var alert = new Alert(Alert.AlertType.WARNING,
+                        String.join("\n", result.problems()) + (result.skipped() > result.problems().size() ? "\n…" : ""));
+                alert.setHeaderText(result.skipped() + " Datensätze übersprungen");
+                alert.showAndWait();
+            }
+        }, ex -> {
+            ex.printStackTrace();
+            importButton.setDisable(false);
+            statusLabel.setText("Import fehlgeschlagen: " + ex.getMessage());
+        });
+    }
 
+    /**
+     * Export aller Ideen als JSON Lines/CSV (gestreamt, im Hintergrund); Anhänge auf Wunsch
+     * in einen Ordner neben der Datei.
+     */
+    @FXML
+    private void onExport() {
+        var chooser = new javafx.stage.FileChooser();
+        chooser.setTitle("Ideen exportieren");
+        chooser.setInitialFileName("ideen.jsonl");
+        chooser.getExtensionFilters().addAll(
+                new javafx.stage.FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+                new javafx.stage.FileChooser.ExtensionFilter("CSV", "*.csv"));
+        var chosen = chooser.showSaveDialog(statusLabel.getScene().getWindow());
+        if (chosen == null) return;
+
+        var withFiles = new ButtonType("Mit Anhängen");
+        var withoutFiles = new ButtonType("Ohne Anhänge");
+        var ask = new Alert(Alert.AlertType.CONFIRMATION,
+                "Anhang-Dateien in einen Ordner neben der Exportdatei kopieren?", withFiles, withoutFiles, ButtonType.CANCEL);
+        ask.setHeaderText("Export nach " + chosen.getName());
+        var answer = ask.showAndWait().orElse(ButtonType.CANCEL);
+        if (answer == ButtonType.CANCEL) return;
+
+        Path file = chosen.toPath();
+        var options = de.kassel.db.IdeaExporter.Options.defaults(file).withAttachmentFiles(answer == withFiles);
+        exportButton.setDisable(true);
+        statusLabel.setText("Exportiere nach " + file.getFileName() + " …");
+        tasks.load(AsyncDb.supply(() -> de.kassel.db.IdeaExporter.export(file, options, p -> {
+            String text = String.format(Locale.ROOT, "Export %s: %d%% – %,d Ideen",
+                    file.getFileName(), Math.round(p.fraction() * 100), p.ideas());
+            javafx.application.Platform.runLater(() -> statusLabel.setText(text));
+        })), result -> {
+            exportButton.setDisable(false);
+            statusLabel.setText("Export " + file.getFileName() + ": " + result);
+        }, ex -> {
+            ex.printStackTrace();
+            exportButton.setDisable(false);
+            statusLabel.setText("Export fehlgeschlagen: " + ex.getMessage());
+        });
+    }
+
+    /**
+     * Wendet aktuellen Suchtext + Tag-Ausdruck auf die geladene Liste an. Der Tag-Ausdruck
+     * (gewählte Tags mit ODER bzw. UND, ausgeschlossene mit UND NICHT) wird über den
+     * {@link TagFilterIndex} ausgewertet; dessen Zähler landen in der Tag-Liste.
+     * <p>
+     * Freie Wörter filtern wie bisher sofort im Speicher. Sobald das Suchfeld die Abfragesprache
+     * nutzt ({@link IdeaQuery}: Felder, Phrasen, OR, NICHT), läuft die Suche als SQL im Hintergrund
+     * und die Liste bekommt die passenden IDs.
+     */
+    private void applyActiveFilters() {
+        long generation = ++filterGeneration;
         String q = (searchField.getText() == null) ? "" : searchField.getText().trim();
+        IdeaQuery.Node query;
+        try {
+            query = IdeaQuery.parse(q);
+        } catch (IdeaQuery.SyntaxException ex) {
+            statusLabel.setText("Suche: " + ex.getMessage());
+            return;                                   // bisherigen Filter stehen lassen
+        }
         var selectedTags = new java.util.ArrayList<>(tagList.getSelectionModel().getSelectedItems());
+        var expr = TagFilterIndex.sidebar(selectedTags, tagMatchAll.isSelected(), List.copyOf(excludedTags));
+
+        if (tagIndex != null && (tagResultStale || !Objects.equals(expr, tagExpr))) {
+            tagExpr = expr;
+            tagResult = expr == null ? null : tagIndex.evaluate(expr);
+            tagResultStale = false;
+            tagCounts = tagIndex.counts(tagResult);
+            tagList.refresh();
+        }
+        if (currentList == null) return;
+        // Index noch nicht geladen: Tag-Filter folgt, sobald er da ist
+        IdBitmap tags = tagIndex == null ? null : tagResult;
+        if (activeView != null && smartViews != null) tags = intersect(tags, smartViews.members(activeView.id()));
+        queryActive = query != null && !IdeaQuery.isPlainText(query);
+        if (!queryActive) {
+            currentList.applyFilter(q, tags);
+            return;
+        }
+        var list = currentList;
+        boolean trash = "Papierkorb".equals(navList.getSelectionModel().getSelectedItem());
+        var repo = new IdeaRepository();
+        IdBitmap restrict = tags;
+        tasks.latest("query", AsyncDb.supply(() -> repo.findIdsMatching(query, trash)), ids -> {
+            if (generation != filterGeneration || list != currentList) return;
+            var visible = intersect(ids, restrict);
+            list.applyFilter("", visible);
+            statusLabel.setText("Suche: " + visible.cardinality() + " Treffer");
+        }, ex -> statusLabel.setText("Suche fehlgeschlagen: " + ex.getMessage()));
+    }
+
+    private static IdBitmap intersect(IdBitmap a, IdBitmap b) {
+        if (a == null) return b;
+        return b == null ? a : a.and(b);
+    }
+
+    /** Tag-Zellen: Trefferzahl im aktuellen Ergebnis, ausgeschlossene Tags mit "−" markiert. */
+    private void setupTagCells() {
+        tagList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(String name, boolean empty) {
+                super.updateItem(name, empty);
+                if (empty || name == null) {
+                    setText(null);
+                    return;
+                }
+                Long n = tagCounts.get(name);
+                setText((excludedTags.contains(name) ? "− " : "") + name + (n == null ? "" : " (" + n + ")"));
+            }
+        });
+    }
+
+    // -------- Schnellsuche --------
+
+    /** Strg+P (MainApp): Palette über Ideentitel und Tag-Namen. */
+    public void onQuickOpen() {
+        if (quickOpen == null) {
+            statusLabel.setText("Schnellsuche wird noch aufgebaut…");
+            return;
+        }
+        if (quickOpenPalette == null) {
+            quickOpenPalette = new QuickOpenPalette(navList.getScene().getWindow(), quickOpen, this::openHit);
+        }
+        quickOpenPalette.show();
+    }
+
+    /** Idee: im Bearbeiten-Dialog öffnen (aus dem Board in die Liste wechseln); Tag: als Filter wählen. */
+    private void openHit(QuickOpenIndex.Hit hit) {
+        if (hit.kind() == QuickOpenIndex.Kind.TAG) {
+            excludedTags.remove(hit.label());
+            var sm = tagList.getSelectionModel();
+            sm.clearSelection();
+            sm.select(hit.label());
+            tagList.scrollTo(hit.label());
+            applyActiveFilters();
+            return;
+        }
+        if (currentList == null) navList.getSelectionModel().select("Alle Ideen");
+        if (currentList != null) currentList.openIdea(hit.id());
+    }
+
+    // -------- Gespeicherte Ansichten --------
+
+    /** Navigation: gespeicherte Ansichten mit Live-Zähler; Kontextmenü zum Speichern/Löschen. */
+    private void setupNavCells() {
+        navList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(String name, boolean empty) {
+                super.updateItem(name, empty);
+                if (empty || name == null) {
+                    setText(null);
+                    return;
+                }
+                var view = savedViews.get(name);
+                Long n = view == null ? null : viewCounts.get(view.id());
+                setText(n == null ? name : name + " (" + n + ")");
+            }
+        });
+
+        MenuItem save = new MenuItem("Suche als Ansicht speichern…");
+        save.setOnAction(e -> saveSearchAsView());
+        MenuItem delete = new MenuItem("Ansicht löschen");
+        delete.setOnAction(e -> deleteSelectedView());
+        var menu = new ContextMenu(save, delete);
+        menu.setOnShowing(e -> {
+            save.setDisable(smartViews == null);
+            delete.setDisable(!savedViews.containsKey(navList.getSelectionModel().getSelectedItem()));
+        });
+        navList.setContextMenu(menu);
+    }
+
+    /**
+     * Suchfeld (Abfragesprache) samt aktueller Sortierung als Ansicht speichern. In einer
+     * gespeicherten Ansicht wird deren Abfrage mit der Suche verknüpft (verfeinern).
+     */
+    private void saveSearchAsView() {
+        String q = searchField.getText() == null ? "" : searchField.getText().trim();
+        if (activeView != null) q = q.isEmpty() ? activeView.query() : "(" + activeView.query() + ") (" + q + ")";
+        try {
+            if (IdeaQuery.parse(q) == null) {
+                statusLabel.setText("Erst eine Suche eingeben, z. B. tag:kunde status:doing");
+                return;
+            }
+        } catch (IdeaQuery.SyntaxException ex) {
+            statusLabel.setText("Suche: " + ex.getMessage());
+            return;
+        }
+        var dialog = new TextInputDialog();
+        dialog.setTitle("Ansicht speichern");
+        dialog.setHeaderText("Suche: " + q);
+        dialog.setContentText("Name:");
+        var name = dialog.showAndWait().map(String::trim).filter(n -> !n.isEmpty()).orElse(null);
+        if (name == null) return;
+        if (BUILTIN_NAV.contains(name) || savedViews.containsKey(name)) {
+            statusLabel.setText("Name bereits vergeben: " + name);
+            return;
+        }
+        IdeaSort sort = currentList == null ? IdeaSort.CREATED : currentList.currentSort();
+        boolean descending = currentList == null || currentList.isSortDescending();
+        var views = smartViews;
+        var repo = new SavedViewRepository();
+        var view = new SavedView(name, q, sort.name(), descending);
+        tasks.write(AsyncDb.supply(() -> {
+            var saved = repo.insert(view);
+            views.add(saved);
+            return saved;
+        }), saved -> {
+            savedViews.put(saved.name(), saved);
+            viewCounts = views.counts();
+            navList.getItems().add(saved.name());
+            statusLabel.setText("Ansicht gespeichert: " + saved.name());
+        }, ex -> statusLabel.setText("Ansicht nicht gespeichert: " + ex.getMessage()));
+    }
+
+    private void deleteSelectedView() {
+        var view = savedViews.get(navList.getSelectionModel().getSelectedItem());
+        if (view == null) return;
+        var ask = new Alert(Alert.AlertType.CONFIRMATION, "Ansicht \"" + view.name() + "\" löschen?",
+                ButtonType.OK, ButtonType.CANCEL);
+        ask.setHeaderText(null);
+        if (ask.showAndWait().filter(bt -> bt == ButtonType.OK).isEmpty()) return;
+        var repo = new SavedViewRepository();
+        tasks.write(AsyncDb.run(() -> repo.deleteById(view.id())), v -> {
+            smartViews.remove(view.id());
+            savedViews.remove(view.name());
+            if (view.name().equals(navList.getSelectionModel().getSelectedItem())) {
+                navList.getSelectionModel().select("Alle Ideen");
+            }
+            navList.getItems().remove(view.name());
+            statusLabel.setText("Ansicht gelöscht: " + view.name());
+        }, ex -> statusLabel.setText("Ansicht nicht gelöscht: " + ex.getMessage()));
+    }
 
-        currentList.applyFilter(q, selectedTags);
+    private static IdeaSort sortOf(SavedView view) {
+        try {
+            return IdeaSort.valueOf(view.sort());
+        } catch (IllegalArgumentException ex) {
+            return IdeaSort.CREATED;
+        }
     }
 
     private void loadKanban() {
@@ -285,7 +664,9 @@ public class MainController {
             var loader = new FXMLLoader(Objects.requireNonNull(url));
             Parent view = loader.load();
 
+            disposeCurrentView();
             currentList = null; // Board nutzt die Listen-Filter nicht
+            currentBoard = loader.getController();
             contentPane.getChildren().setAll(view);
             statusLabel.setText("Ansicht: Board");
         } catch (Exception e) {
@@ -294,6 +675,14 @@ public class MainController {
         }
     }
 
+    /** Laufende DB-Aufgaben der bisherigen View abbrechen, bevor sie ersetzt wird. */
+    private void disposeCurrentView() {
+        if (currentList != null) currentList.dispose();
+        if (currentBoard != null) currentBoard.dispose();
+        currentList = null;
+        currentBoard = null;
+    }
+
     // -------- Reminder UI --------
 
     /** Anzeige-Datensatz für das Reminder-ListView. */
@@ -368,52 +757,103 @@ public class MainController {
                     statusLabel.setText("Geöffnet: " + item.title);
                 });
 
-                snoozeBtn.setOnAction(e -> {
-                    new de.kassel.db.ReminderRepository().snooze(item.id, 10);
-                    refreshReminders();
-                });
+                // gebündelt geschrieben (WriteBehind); Erledigtes verschwindet sofort aus der Leiste
+                snoozeBtn.setOnAction(e -> tasks.write(WriteBehind.snooze(item.id, 10)));
 
                 doneBtn.setOnAction(e -> {
-                    new de.kassel.db.ReminderRepository().markDone(item.id);
-                    refreshReminders();
+                    reminderList.getItems().remove(item);
+                    tasks.write(WriteBehind.markDone(item.id));
                 });
             }
         });
     }
 
 
-    private void refreshReminders() {
-        long now = System.currentTimeMillis() / 1000L;
-        long horizon = 3* 24 * 60 * 60; // 30 Minuten Vorschau
+    // -------- ChangeEvents --------
 
-        var repo = new de.kassel.db.ReminderRepository();
-        var due = repo.findDueOrUpcoming(now, horizon); // List<Reminder>
+    private void onChanges(List<ChangeEvent> events) {
+        // Reminder hält der ReminderScheduler selbst aktuell
+        boolean tagCatalog = events.stream()
+                .anyMatch(e -> e instanceof ChangeEvent.TagsChanged t && t.ideaId() == null);
+        if (tagCatalog) refreshTagList();
 
-        // Titel der Idea nachladen
-        var ideaRepo = new de.kassel.db.IdeaRepository();
-        var rows = new java.util.ArrayList<ReminderRow>();
+        refreshTagIndex(events);
 
-        for (var r : due) {
-            var optIdea = ideaRepo.findById(r.ideaId());
-            optIdea.ifPresent(idea ->
-                    rows.add(new ReminderRow(r.id(), r.ideaId(), idea.title(), r.dueAt())));
+        refreshQuickOpen(events);
+        refreshSmartViews(events);
+    }
+
+    private void refreshQuickOpen(List<ChangeEvent> events) {
+        var quick = quickOpen;
+        if (quick == null) {
+            if (quickOpenBacklog != null) quickOpenBacklog.addAll(events);
+            return;
         }
+        tasks.load(AsyncDb.run(() -> quick.refresh(events)), v -> { });
+    }
 
-        reminderList.getItems().setAll(rows);
-        reminderList.getItems().sort(Comparator.comparingLong(r -> r.dueAt));
+    /** Gespeicherte Ansichten: nur die geänderten Ideen gegen jede Abfrage prüfen. */
+    private void refreshSmartViews(List<ChangeEvent> events) {
+        var views = smartViews;
+        if (views == null) {
+            if (smartViewsBacklog != null) smartViewsBacklog.addAll(events);
+            return;
+        }
+        boolean ideas = events.stream().anyMatch(e -> !(e instanceof ChangeEvent.ReminderChanged));
+        if (ideas) {
+            tasks.load(AsyncDb.supply(() -> views.refresh(events)), touched -> {
+                if (touched.isEmpty()) return;
+                viewCounts = views.counts();
+                navList.refresh();
+                if (activeView != null && touched.contains(activeView.id())) applyActiveFilters();
+            });
+        }
+    }
+
+    /** Tag-Bitmaps nachziehen (liest betroffene Ideen im Hintergrund), dann Filter + Zähler neu. */
+    private void refreshTagIndex(List<ChangeEvent> events) {
+        var index = tagIndex;
+        if (index == null) {
+            if (tagIndexBacklog != null) tagIndexBacklog.addAll(events);
+            return;
+        }
+        // IdeaUpdated zählt mit: Papierkorb hin/zurück ändert die Menge aller Ideen
+        boolean relevant = events.stream().anyMatch(e -> !(e instanceof ChangeEvent.ReminderChanged));
+        if (relevant) {
+            tasks.load(AsyncDb.run(() -> index.refresh(events)), v -> {
+                tagResultStale = true;
+                applyActiveFilters();
+            });
+        }
+    }
 
+    /** Tag-Namen laden und als Diff übernehmen, damit die aktuelle Auswahl erhalten bleibt. */
+    private void refreshTagList() {
+        var tagRepo = new de.kassel.db.TagRepository();
+        tasks.latest("tags", AsyncDb.supply(() -> tagRepo.findAll().stream()
+                        .map(de.kassel.model.Tag::name)
+                        .sorted(String.CASE_INSENSITIVE_ORDER)
+                        .toList()),
+                this::applyTagNames);
     }
 
-    private void setupReminderRefreshTimer(int seconds) {
-        if (reminderTimeline != null) {
-            reminderTimeline.stop();
+    private void applyTagNames(List<String> names) {
+        var items = tagList.getItems();
+        var keep = new HashSet<>(names);
+        items.removeIf(n -> !keep.contains(n));
+        excludedTags.retainAll(keep);
+        // items ist jetzt eine Teilfolge von names (gleiche Sortierung) -> Lücken auffüllen
+        for (int i = 0; i < names.size(); i++) {
+            if (i >= items.size() || !items.get(i).equals(names.get(i))) items.add(i, names.get(i));
         }
-        reminderTimeline = new javafx.animation.Timeline(
-                new javafx.animation.KeyFrame(javafx.util.Duration.seconds(0), e -> refreshReminders()),
-                new javafx.animation.KeyFrame(javafx.util.Duration.seconds(Math.max(5, seconds)))
-        );
-        reminderTimeline.setCycleCount(javafx.animation.Animation.INDEFINITE);
-        reminderTimeline.play();
+    }
+
+    private void showReminders(List<de.kassel.model.UpcomingReminder> upcoming) {
+        var rows = new java.util.ArrayList<ReminderRow>(upcoming.size());
+        for (var r : upcoming) {
+            rows.add(new ReminderRow(r.reminderId(), r.ideaId(), r.title(), r.dueAt()));
+        }
+        reminderList.getItems().setAll(rows);
     }
 
     private String resolveStartViewFromSettings() {
@@ -3,6 +3,7 @@ package de.kassel.ui;
 import de.kassel.model.Idea;
 import de.kassel.model.IdeaStatus;
 import de.kassel.model.Priority;
+import de.kassel.db.AsyncDb;
 import de.kassel.db.TagRepository;
 import de.kassel.model.Tag;
 
@@ -45,6 +46,15 @@ public class NewIdeaDialogController {
 
     private final ObservableList<AttachmentRow> attachments = FXCollections.observableArrayList();
 
+    private final UiTasks tasks = new UiTasks();
+    // Alle Tags (asynchron geladen); setInitial() wartet darauf, bevor es selektiert
+    private java.util.concurrent.CompletableFuture<java.util.List<Tag>> allTagsLoaded;
+    private boolean allTagsShown;
+    // Bearbeiten: Tags/Reminder noch nicht nachgeladen -> OK gesperrt, sonst würden sie beim
+    // Speichern mit der leeren Auswahl überschrieben
+    private final javafx.beans.property.BooleanProperty detailsLoaded =
+            new javafx.beans.property.SimpleBooleanProperty(true);
+
     /** Zeilendarstellung für die ListView (id=null => neu; sonst vorhanden). */
     public static class AttachmentRow {
         public final Long id;    // null => neu
@@ -74,10 +84,9 @@ public class NewIdeaDialogController {
             }
         });
 
-        // Tags
-        var allTags = tagRepo.findAll();
-        tagsList.setItems(FXCollections.observableArrayList(allTags));
+        // Tags (im Hintergrund laden)
         tagsList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        allTagsLoaded = tasks.load(AsyncDb.supply(tagRepo::findAll), this::showAllTags);
         tagsList.setCellFactory(lv -> new ListCell<>() {
             @Override protected void updateItem(Tag item, boolean empty) {
                 super.updateItem(item, empty);
@@ -140,7 +149,7 @@ public class NewIdeaDialogController {
     }
 
     public void bindOkDisable(Button okButton) {
-        okButton.disableProperty().bind(titleField.textProperty().isEmpty());
+        okButton.disableProperty().bind(titleField.textProperty().isEmpty().or(detailsLoaded.not()));
     }
 
     /** Dialog für Bearbeiten vorbefüllen. */
@@ -152,22 +161,53 @@ public class NewIdeaDialogController {
         statusBox.getSelectionModel().select(idea.status());
         effortField.setText(idea.effortMinutes() == null ? "" : String.valueOf(idea.effortMinutes()));
 
+        // Tags, Attachments und Reminder im Hintergrund laden
+        detailsLoaded.set(false);
+        attachments.clear();
+        deletedAttachmentIds.clear();
+        var details = AsyncDb.supply(() -> new InitialDetails(
+                new java.util.ArrayList<>(),
+                tagRepo.findTagsForIdea(idea.id()),
+                attachmentRepo.listForIdea(idea.id()),
+                new de.kassel.db.ReminderRepository().findByIdeaId(idea.id())
+        ));
+        // erst übernehmen, wenn auch die Tag-Liste da ist (sonst gibt es nichts zu selektieren)
+        tasks.load(allTagsLoaded.thenCombine(details, (all, d) -> {
+            d.allTags().addAll(all);
+            return d;
+        }), this::applyInitialDetails);
+    }
+
+    /** Tag-Auswahl einmalig befüllen (Reihenfolge der FX-Callbacks ist nicht garantiert). */
+    private void showAllTags(java.util.List<Tag> allTags) {
+        if (allTagsShown) return;
+        allTagsShown = true;
+        tagsList.getItems().addAll(0, allTags);
+    }
+
+    /** Nachgeladene Daten für den Bearbeiten-Dialog. */
+    private record InitialDetails(
+            java.util.List<Tag> allTags,
+            java.util.List<Tag> tags,
+            java.util.List<de.kassel.model.Attachment> attachments,
+            java.util.Optional<de.kassel.model.Reminder> reminder
+    ) { }
+
+    private void applyInitialDetails(InitialDetails d) {
+        showAllTags(d.allTags());
+
         // Tags selektieren
-        var current = tagRepo.findTagsForIdea(idea.id());
         var selModel = tagsList.getSelectionModel();
         selModel.clearSelection();
-        for (var t : current) {
+        for (var t : d.tags()) {
             tagsList.getItems().stream()
                     .filter(it -> it.id() == t.id())
                     .findFirst()
                     .ifPresent(selModel::select);
         }
 
-        // Attachments laden
-        attachments.clear();
-        deletedAttachmentIds.clear();
-        var existing = attachmentRepo.listForIdea(idea.id());
-        for (var a : existing) {
+        // Attachments übernehmen
+        for (var a : d.attachments()) {
             attachments.add(new AttachmentRow(
                     a.id(),
                     Paths.get(a.filePath()),
@@ -175,14 +215,14 @@ public class NewIdeaDialogController {
             ));
         }
 
-        // Reminder laden (optional)
-        var remOpt = new de.kassel.db.ReminderRepository().findByIdeaId(idea.id());
-        remOpt.ifPresent(rem -> {
+        // Reminder (optional)
+        d.reminder().ifPresent(rem -> {
             var zdt = java.time.Instant.ofEpochSecond(rem.dueAt())
                     .atZone(java.time.ZoneId.systemDefault());
             reminderDate.setValue(zdt.toLocalDate());
             reminderTime.setText(zdt.toLocalTime().toString().substring(0, 5));
         });
+        detailsLoaded.set(true);
     }
 
     // ---- Tags ----
@@ -193,12 +233,13 @@ public class NewIdeaDialogController {
         String name = raw.trim();
         if (name.isEmpty()) return;
 
-        var tag = tagRepo.ensureExists(name);
-        if (tagsList.getItems().stream().noneMatch(t -> t.id() == tag.id())) {
-            tagsList.getItems().add(tag);
-        }
-        tagsList.getSelectionModel().select(tag);
         newTagField.clear();
+        tasks.load(AsyncDb.supply(() -> tagRepo.ensureExists(name)), tag -> {
+            if (tagsList.getItems().stream().noneMatch(t -> t.id() == tag.id())) {
+                tagsList.getItems().add(tag);
+            }
+            tagsList.getSelectionModel().select(tag);
+        }, ex -> errorLabel.setText("Tag konnte nicht angelegt werden: " + ex.getMessage()));
     }
 
     public java.util.List<String> getSelectedTagNames() {
@@ -0,0 +1,106 @@
+package de.kassel.ui;
+
+import de.kassel.db.QuickOpenIndex;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+
+import java.util.function.Consumer;
+
+/**
+ * Schnellsuche (Strg+P): Eingabefeld plus Trefferliste aus dem {@link QuickOpenIndex}. Gesucht wird
+ * bei jedem Tastendruck direkt auf dem FX-Thread (Index im Speicher, wenige ms); Enter oder
+ * Doppelklick öffnet den markierten Treffer, Esc schließt.
+ */
+final class QuickOpenPalette {
+
+    private static final int MAX_RESULTS = 20;
+
+    private final Stage stage = new Stage(StageStyle.UTILITY);
+    private final TextField input = new TextField();
+    private final ListView<QuickOpenIndex.Hit> results = new ListView<>();
+    private final QuickOpenIndex index;
+    private final Consumer<QuickOpenIndex.Hit> onOpen;
+
+    QuickOpenPalette(Window owner, QuickOpenIndex index, Consumer<QuickOpenIndex.Hit> onOpen) {
+        this.index = index;
+        this.onOpen = onOpen;
+
+        input.setPromptText("Idee oder Tag – Tippfehler erlaubt");
+        results.setPrefHeight(360);
+        results.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(QuickOpenIndex.Hit hit, boolean empty) {
+                super.updateItem(hit, empty);
+                if (empty || hit == null) {
+                    setText(null);
+                    return;
+                }
+                setText(hit.kind() == QuickOpenIndex.Kind.TAG ? "# " + hit.label() : hit.label());
+            }
+        });
+
+        input.textProperty().addListener((obs, o, n) -> {
+            results.getItems().setAll(index.search(n, MAX_RESULTS));
+            if (!results.getItems().isEmpty()) results.getSelectionModel().select(0);
+        });
+        // Pfeiltasten bewegen die Auswahl, ohne das Eingabefeld zu verlassen
+        input.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            var sm = results.getSelectionModel();
+            switch (e.getCode()) {
+                case DOWN -> {
+                    sm.selectNext();
+                    results.scrollTo(sm.getSelectedIndex());
+                    e.consume();
+                }
+                case UP -> {
+                    sm.selectPrevious();
+                    results.scrollTo(sm.getSelectedIndex());
+                    e.consume();
+                }
+                case ENTER -> {
+                    openSelected();
+                    e.consume();
+                }
+                case ESCAPE -> {
+                    stage.hide();
+                    e.consume();
+                }
+                default -> { /* tippen */ }
+            }
+        });
+        results.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) openSelected();
+        });
+
+        var root = new VBox(6, input, results);
+        root.setPadding(new Insets(8));
+        stage.setTitle("Schnell öffnen");
+        stage.initOwner(owner);
+        stage.initModality(Modality.WINDOW_MODAL);
+        stage.setScene(new Scene(root, 520, 400));
+    }
+
+    void show() {
+        input.clear();
+        results.getItems().clear();
+        stage.show();
+        stage.toFront();
+        input.requestFocus();
+    }
+
+    private void openSelected() {
+        var hit = results.getSelectionModel().getSelectedItem();
+        if (hit == null) return;
+        stage.hide();
+        onOpen.accept(hit);
+    }
+}
@@ -0,0 +1,321 @@
+package de.kassel.ui;
+
+import de.kassel.db.IdBitmap;
+import de.kassel.model.IdeaRow;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * In-Memory-Index über die geladenen Zeilen der Ideen-Tabelle für den Live-Filter
+ * (Suchtext) – statt bei jedem Tastendruck alle Zeilen klein zu schreiben und per
+ * {@code contains} zu prüfen. Tags filtert der {@link de.kassel.db.TagFilterIndex} über alle
+ * Ideen; hier kommt nur dessen Ergebnis als ID-Menge an.
+ * <p>
+ * Je Zeile gibt es einen Slot mit vorab klein geschriebenem Text (Titel + Tags), Status-Ordinal
+ * und Priorität; dazu Trigramm-Postings (aufsteigende Slot-Listen).
+ * Eine Suche schneidet die Postings der Trigramme des Suchtexts (kürzeste zuerst) und prüft nur
+ * die verbleibenden Kandidaten. Wird der Suchtext nur länger, wird vom letzten Ergebnis aus
+ * weiter eingeschränkt.
+ * <p>
+ * Geänderte Zeilen (Pager aktualisiert in place) bekommen beim nächsten Filtern einen neuen
+ * Slot, der alte wird tot – die Postings bleiben so sortiert und nur anhängend; bei vielen toten
+ * Slots wird neu aufgebaut. Nur auf dem FX-Thread benutzen.
+ */
+final class RowFilterIndex {
+
+    /** Trennt Titel und Tags im Suchtext, damit kein Treffer über die Grenze entsteht. */
+    private static final char SEPARATOR = '\u0001';
+    /** Neu aufbauen, wenn mehr tote als lebende Slots da sind (und es sich lohnt). */
+    private static final int COMPACT_MIN_DEAD = 10_000;
+
+    private final ObservableList<IdeaRow> rows;
+
+    // ---- Slots ----
+    private final List<IdeaRow> slotRows = new ArrayList<>();
+    private final IdentityHashMap<IdeaRow, Integer> slotOf = new IdentityHashMap<>();
+    private final IdentityHashMap<IdeaRow, InvalidationListener> watchers = new IdentityHashMap<>();
+    private final BitSet alive = new BitSet();
+    private final List<String> text = new ArrayList<>();
+    private byte[] statusOrdinal = new byte[1024];
+    private byte[] priority = new byte[1024];
+    private final List<String> statusNames = new ArrayList<>();      // Ordinal -> Status (klein)
+    private final Set<IdeaRow> dirty = new LinkedHashSet<>();
+    private int dead;
+
+    // ---- Postings ----
+    private final Map<Long, IntList> trigrams = new HashMap<>();
+
+    // ---- letztes Ergebnis (für inkrementelles Einschränken) ----
+    private String lastQuery = "";
+    private BitSet lastTextMatches;
+    private int lastSlotCount;
+    private long lastGeneration = -1;
+    private long generation;          // steigt bei jedem Neuaufbau
+
+    RowFilterIndex(ObservableList<IdeaRow> rows) {
+        this.rows = rows;
+        rows.addListener((ListChangeListener<IdeaRow>) c -> {
+            while (c.next()) {
+                for (var r : c.getRemoved()) unindex(r);
+                for (var r : c.getAddedSubList()) slotFor(r);
+            }
+        });
+        for (var r : rows) slotFor(r);
+    }
+
+    /**
+     * Prädikat für die FilteredList: trifft Zeilen, deren Titel/Status/Tags {@code query} enthalten
+     * (oder deren Priorität {@code query} ist, z. B. "p2") UND deren ID in {@code tagFilter} liegt.
+     * {@code null}, wenn weder Suchtext noch Tag-Filter gesetzt sind. Suchtext klein geschrieben.
+     */
+    Predicate<IdeaRow> filter(String query, IdBitmap tagFilter) {
+        boolean hasQuery = query != null && !query.isEmpty();
+        if (!hasQuery && tagFilter == null) return null;
+        if (!hasQuery) return r -> tagFilter.contains(r.getId());
+        refreshDirty();
+        compactIfNeeded();
+
+        BitSet result = textMatches(query);
+        lastQuery = query;
+        lastTextMatches = (BitSet) result.clone();
+        lastSlotCount = slotRows.size();
+        lastGeneration = generation;
+        result.or(statusMatches(query));
+        result.or(priorityMatches(query));
+
+        // Zeilen, die erst nach diesem Aufruf dazukommen (nächste Seite), direkt prüfen
+        final int covered = slotRows.size();
+        final long gen = generation;
+        return r -> {
+            if (tagFilter != null && !tagFilter.contains(r.getId())) return false;
+            if (!dirty.isEmpty() && dirty.contains(r)) return matches(r, query);
+            Integer slot = slotOf.get(r);
+            if (slot == null || slot >= covered || gen != generation) return matches(r, query);
+            return result.get(slot);
+        };
+    }
+
+    // ---- Abfrage ----
+
+    private BitSet textMatches(String q) {
+        // Suchtext nur verlängert -> nur die bisherigen Treffer (plus neuere Slots) prüfen
+        BitSet candidates;
+        if (lastTextMatches != null && lastGeneration == generation && !lastQuery.isEmpty() && q.contains(lastQuery)) {
+            candidates = (BitSet) lastTextMatches.clone();
+            candidates.set(lastSlotCount, slotRows.size());
+            candidates.and(alive);
+        } else {
+            candidates = (BitSet) alive.clone();
+        }
+        if (q.length() >= 3 && q.indexOf(SEPARATOR) < 0) {
+            candidates.and(trigramCandidates(q));
+        }
+        var out = new BitSet();
+        for (int s = candidates.nextSetBit(0); s >= 0; s = candidates.nextSetBit(s + 1)) {
+            if (text.get(s).contains(q)) out.set(s);
+        }
+        return out;
+    }
+
+    /** Slots, die alle Trigramme von {@code q} enthalten (notwendig, nicht hinreichend). */
+    private BitSet trigramCandidates(String q) {
+        var lists = new ArrayList<IntList>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            var p = trigrams.get(trigram(q, i));
+            if (p == null) return new BitSet();          // ein Trigramm kommt nirgends vor
+            if (!lists.contains(p)) lists.add(p);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] acc = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int n = acc.length;
+        for (int k = 1; k < lists.size() && n > 0; k++) n = intersect(acc, n, lists.get(k));
+        var out = new BitSet();
+        for (int i = 0; i < n; i++) out.set(acc[i]);
+        return out;
+    }
+
+    /** Schneidet {@code acc[0..n)} mit {@code p} (beide aufsteigend) in place; liefert die neue Länge. */
+    private static int intersect(int[] acc, int n, IntList p) {
+        int out = 0, j = 0;
+        for (int i = 0; i < n && j < p.size; i++) {
+            int v = acc[i];
+            // galoppieren statt linear, die zweite Liste ist meist viel länger
+            int step = 1;
+            while (j + step < p.size && p.values[j + step] < v) {
+                j += step;
+                step <<= 1;
+            }
+            int hi = Math.min(j + step, p.size - 1);
+            int k = Arrays.binarySearch(p.values, j, hi + 1, v);
+            if (k >= 0) {
+                acc[out++] = v;
+                j = k + 1;
+            } else {
+                j = -k - 1;
+            }
+        }
+        return out;
+    }
+
+    private BitSet statusMatches(String q) {
+        var ordinals = new BitSet();
+        for (int o = 0; o < statusNames.size(); o++) {
+            if (statusNames.get(o).contains(q)) ordinals.set(o);
+        }
+        var out = new BitSet();
+        if (ordinals.isEmpty()) return out;
+        for (int s = alive.nextSetBit(0); s >= 0; s = alive.nextSetBit(s + 1)) {
+            if (ordinals.get(statusOrdinal[s])) out.set(s);
+        }
+        return out;
+    }
+
+    private BitSet priorityMatches(String q) {
+        var out = new BitSet();
+        String digits = q.startsWith("p") ? q.substring(1) : q;
+        if (digits.length() != 1 || !Character.isDigit(digits.charAt(0))) return out;
+        byte p = (byte) (digits.charAt(0) - '0');
+        for (int s = alive.nextSetBit(0); s >= 0; s = alive.nextSetBit(s + 1)) {
+            if (priority[s] == p) out.set(s);
+        }
+        return out;
+    }
+
+    /** Direkte Prüfung einer einzelnen Zeile (neu oder gerade geändert) – gleiche Semantik wie der Index. */
+    private static boolean matches(IdeaRow r, String q) {
+        String prio = String.valueOf(r.getPriority());
+        return haystack(r).contains(q)
+                || lower(r.getStatus()).contains(q)
+                || ("p" + prio).equals(q) || prio.equals(q);
+    }
+
+    // ---- Pflege ----
+
+    private int slotFor(IdeaRow r) {
+        Integer existing = slotOf.get(r);
+        if (existing != null) return existing;
+        int slot = slotRows.size();
+        slotRows.add(r);
+        slotOf.put(r, slot);
+        alive.set(slot);
+        ensureCapacity(slot + 1);
+
+        String h = haystack(r);
+        text.add(h);
+        statusOrdinal[slot] = (byte) statusOrdinal(lower(r.getStatus()));
+        priority[slot] = (byte) r.getPriority();
+        for (int i = 0; i + 3 <= h.length(); i++) {
+            long key = trigram(h, i);
+            var p = trigrams.computeIfAbsent(key, k -> new IntList());
+            if (p.size == 0 || p.values[p.size - 1] != slot) p.add(slot);   // Trigramm doppelt in derselben Zeile
+        }
+
+        watchers.computeIfAbsent(r, row -> {
+            InvalidationListener l = o -> dirty.add(row);
+            row.titleProperty().addListener(l);
+            row.tagsProperty().addListener(l);
+            row.statusProperty().addListener(l);
+            row.priorityProperty().addListener(l);
+            return l;
+        });
+        return slot;
+    }
+
+    private void unindex(IdeaRow r) {
+        Integer slot = slotOf.remove(r);
+        if (slot != null) kill(slot);
+        dirty.remove(r);
+        var l = watchers.remove(r);
+        if (l != null) {
+            r.titleProperty().removeListener(l);
+            r.tagsProperty().removeListener(l);
+            r.statusProperty().removeListener(l);
+            r.priorityProperty().removeListener(l);
+        }
+    }
+
+    private void kill(int slot) {
+        if (!alive.get(slot)) return;
+        alive.clear(slot);
+        slotRows.set(slot, null);
+        text.set(slot, "");
+        dead++;
+    }
+
+    /** Geänderte Zeilen neu verschlagworten (neuer Slot, alter wird tot). */
+    private void refreshDirty() {
+        if (dirty.isEmpty()) return;
+        for (var r : dirty) {
+            Integer slot = slotOf.remove(r);
+            if (slot == null) continue;               // inzwischen entfernt
+            kill(slot);
+            slotFor(r);
+        }
+        dirty.clear();
+    }
+
+    private void compactIfNeeded() {
+        if (dead < COMPACT_MIN_DEAD || dead < alive.cardinality()) return;
+        for (var r : List.copyOf(watchers.keySet())) unindex(r);
+        slotRows.clear();
+        slotOf.clear();
+        alive.clear();
+        text.clear();
+        trigrams.clear();
+        dead = 0;
+        generation++;
+        for (var r : rows) slotFor(r);
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= statusOrdinal.length) return;
+        int cap = Math.max(n, statusOrdinal.length * 2);
+        statusOrdinal = Arrays.copyOf(statusOrdinal, cap);
+        priority = Arrays.copyOf(priority, cap);
+    }
+
+    private int statusOrdinal(String status) {
+        int o = statusNames.indexOf(status);
+        if (o >= 0) return o;
+        statusNames.add(status);
+        return statusNames.size() - 1;
+    }
+
+    // ---- Hilfen ----
+
+    private static String haystack(IdeaRow r) {
+        return lower(r.getTitle()) + SEPARATOR + lower(r.getTags());
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(CharSequence s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** Wachsende, aufsteigend befüllte int-Liste (ohne Boxing). */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+}
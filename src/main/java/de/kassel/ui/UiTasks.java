@@ -0,0 +1,112 @@
+package de.kassel.ui;
+
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Hintergrund-Aufgaben eines Controllers (eine Instanz pro View).
+ * <p>
+ * Ergebnisse werden per {@link Platform#runLater} auf den FX-Thread gebracht. Nach
+ * {@link #cancelAll()} (View wurde ersetzt/geschlossen) werden keine Callbacks mehr ausgeführt.
+ * Schreibzugriffe laufen über {@link #write} und werden nie abgebrochen.
+ */
+final class UiTasks {
+
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<?>> latest = new ConcurrentHashMap<>();
+    private final Consumer<Throwable> defaultErrorHandler;
+    private volatile boolean disposed;
+
+    UiTasks() {
+        this(Throwable::printStackTrace);
+    }
+
+    UiTasks(Consumer<Throwable> defaultErrorHandler) {
+        this.defaultErrorHandler = defaultErrorHandler;
+    }
+
+    /** Ergebnis auf dem FX-Thread an {@code onSuccess} übergeben. */
+    <T> CompletableFuture<T> load(CompletableFuture<T> future, Consumer<? super T> onSuccess) {
+        return load(future, onSuccess, defaultErrorHandler);
+    }
+
+    <T> CompletableFuture<T> load(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                  Consumer<Throwable> onError) {
+        if (disposed) {
+            future.cancel(false);
+            return future;
+        }
+        pending.add(future);
+        future.whenComplete((value, ex) -> {
+            pending.remove(future);
+            if (disposed || future.isCancelled()) return;
+            Platform.runLater(() -> {
+                if (disposed || future.isCancelled()) return;
+                if (ex == null) {
+                    onSuccess.accept(value);
+                } else {
+                    Throwable cause = unwrap(ex);
+                    if (!(cause instanceof CancellationException)) onError.accept(cause);
+                }
+            });
+        });
+        return future;
+    }
+
+    /**
+     * Wie {@link #load}, aber "neuester gewinnt": eine noch laufende Aufgabe mit gleichem
+     * Schlüssel wird abgebrochen (z. B. mehrere reload() kurz hintereinander).
+     */
+    <T> CompletableFuture<T> latest(String key, CompletableFuture<T> future, Consumer<? super T> onSuccess) {
+        return latest(key, future, onSuccess, defaultErrorHandler);
+    }
+
+    <T> CompletableFuture<T> latest(String key, CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                    Consumer<Throwable> onError) {
+        var previous = latest.put(key, future);
+        if (previous != null && previous != future) previous.cancel(false);
+        future.whenComplete((v, ex) -> latest.remove(key, future));
+        return load(future, onSuccess, onError);
+    }
+
+    /**
+     * Schreibzugriff: wird NICHT in die abbrechbaren Aufgaben aufgenommen, {@link #cancelAll()}
+     * kann ihn also nicht verwerfen. Nach dem Schließen der View entfällt nur {@code onSuccess};
+     * Fehler gehen immer an {@code onError}.
+     */
+    <T> CompletableFuture<T> write(CompletableFuture<T> future) {
+        return write(future, v -> { }, defaultErrorHandler);
+    }
+
+    <T> CompletableFuture<T> write(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                   Consumer<Throwable> onError) {
+        future.whenComplete((value, ex) -> Platform.runLater(() -> {
+            if (ex == null) {
+                if (!disposed) onSuccess.accept(value);
+            } else {
+                Throwable cause = unwrap(ex);
+                if (!(cause instanceof CancellationException)) onError.accept(cause);
+            }
+        }));
+        return future;
+    }
+
+    /** Alle offenen Aufgaben verwerfen; weitere Ergebnisse werden ignoriert. */
+    void cancelAll() {
+        disposed = true;
+        for (var f : pending) f.cancel(false);
+        pending.clear();
+        latest.clear();
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+    }
+}
@@ -4,9 +4,12 @@ module de.kassel.mindstore {
     requires javafx.fxml;
     requires java.management;
     requires java.desktop;
+    requires jdk.jfr;
+    requires java.logging;
 
     opens de.kassel.ui to javafx.fxml; // FXML-Controller
     exports de.kassel.ui;
 
     exports de.kassel.model; // falls außerhalb verwendet
+    exports de.kassel.db.metrics; // JMX (MXBean-Interface) und JFR-Events
 }
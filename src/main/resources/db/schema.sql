@@ -1,4 +1,8 @@
--- KEIN BEGIN/COMMIT hier!
+-- KEIN BEGIN/COMMIT hier! Jeder Abschnitt läuft in einer eigenen Transaktion (SchemaMigrator).
+-- Abschnitte beginnen mit "-- migrate:<version> <name>" und werden nur einmal ausgeführt.
+-- Bereits ausgelieferte Abschnitte NICHT mehr ändern (Prüfsumme) - Änderungen als neuen Abschnitt anhängen.
+
+-- migrate:1 baseline
 
 CREATE TABLE IF NOT EXISTS idea (
   id             INTEGER PRIMARY KEY,
@@ -15,6 +19,12 @@ CREATE TABLE IF NOT EXISTS idea (
 
 CREATE INDEX IF NOT EXISTS idx_idea_status_priority ON idea(status, priority);
 CREATE INDEX IF NOT EXISTS idx_idea_created_at     ON idea(created_at);
+-- Board/Statuslisten: neueste zuerst je Status (rowid als Tie-Breaker steckt implizit im Index)
+CREATE INDEX IF NOT EXISTS idx_idea_status_created ON idea(status, created_at);
+-- Listen-Sortierung per Spaltenkopf (Keyset auf Sortierspalte + rowid)
+CREATE INDEX IF NOT EXISTS idx_idea_title_nocase   ON idea(title COLLATE NOCASE);
+CREATE INDEX IF NOT EXISTS idx_idea_priority       ON idea(priority);
+CREATE INDEX IF NOT EXISTS idx_idea_status         ON idea(status);
 
 CREATE TRIGGER IF NOT EXISTS trg_idea_set_updated_at
 AFTER UPDATE ON idea
@@ -54,6 +64,9 @@ CREATE TABLE IF NOT EXISTS reminder (
   ,FOREIGN KEY(idea_id) REFERENCES idea(id) ON DELETE CASCADE
 );
 
+-- offene Erinnerungen nach Fälligkeit (ReminderScheduler)
+CREATE INDEX IF NOT EXISTS idx_reminder_open_due ON reminder(is_done, due_at);
+
 CREATE TRIGGER IF NOT EXISTS trg_reminder_updated
 AFTER UPDATE ON reminder
 FOR EACH ROW
@@ -73,3 +86,96 @@ CREATE TABLE IF NOT EXISTS attachment (
 );
 
 CREATE INDEX IF NOT EXISTS idx_attachment_idea_id ON attachment(idea_id);
+
+
+-- Volltextindex (FTS5) über Titel, Body und Tag-Namen (rowid = idea.id)
+CREATE VIRTUAL TABLE IF NOT EXISTS idea_fts USING fts5(
+  title,
+  body,
+  tags,                                          -- Tag-Namen, leerzeichengetrennt
+  tokenize = 'unicode61 remove_diacritics 2',
+  prefix = '2 3'                                 -- Präfix-Index für "abc*"-Suchen
+);
+
+CREATE TRIGGER IF NOT EXISTS trg_idea_fts_insert
+AFTER INSERT ON idea
+FOR EACH ROW
+BEGIN
+  INSERT INTO idea_fts(rowid, title, body, tags)
+  VALUES (NEW.id, NEW.title, COALESCE(NEW.body, ''), '');
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_idea_fts_update
+AFTER UPDATE OF title, body ON idea
+FOR EACH ROW
+BEGIN
+  UPDATE idea_fts SET title = NEW.title, body = COALESCE(NEW.body, '')
+  WHERE rowid = NEW.id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_idea_fts_delete
+AFTER DELETE ON idea
+FOR EACH ROW
+BEGIN
+  DELETE FROM idea_fts WHERE rowid = OLD.id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_idea_tag_fts_insert
+AFTER INSERT ON idea_tag
+FOR EACH ROW
+BEGIN
+  UPDATE idea_fts
+  SET tags = (SELECT COALESCE(group_concat(t.name, ' '), '')
+              FROM idea_tag it JOIN tag t ON t.id = it.tag_id
+              WHERE it.idea_id = NEW.idea_id)
+  WHERE rowid = NEW.idea_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_idea_tag_fts_delete
+AFTER DELETE ON idea_tag
+FOR EACH ROW
+BEGIN
+  UPDATE idea_fts
+  SET tags = (SELECT COALESCE(group_concat(t.name, ' '), '')
+              FROM idea_tag it JOIN tag t ON t.id = it.tag_id
+              WHERE it.idea_id = OLD.idea_id)
+  WHERE rowid = OLD.idea_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_tag_fts_rename
+AFTER UPDATE OF name ON tag
+FOR EACH ROW
+BEGIN
+  UPDATE idea_fts
+  SET tags = (SELECT COALESCE(group_concat(t.name, ' '), '')
+              FROM idea_tag it JOIN tag t ON t.id = it.tag_id
+              WHERE it.idea_id = idea_fts.rowid)
+  WHERE rowid IN (SELECT idea_id FROM idea_tag WHERE tag_id = NEW.id);
+END;
+
+-- migrate:4 settings
+CREATE TABLE IF NOT EXISTS settings (
+  key   TEXT PRIMARY KEY,
+  value TEXT
+);
+
+-- migrate:5 query_indexes
+-- Abfragesprache des Suchfelds (IdeaQueryCompiler): jeder Operator indexgestützt.
+-- tag:name  -> Tag per Name ohne Groß-/Kleinschreibung, dann seine Ideen (PK ist idea_id-first)
+CREATE INDEX IF NOT EXISTS idx_tag_name_nocase ON tag(name COLLATE NOCASE);
+CREATE INDEX IF NOT EXISTS idx_idea_tag_tag    ON idea_tag(tag_id, idea_id);
+-- effort<30, updated>2026-01 (priority, status, created_at haben schon Indizes)
+CREATE INDEX IF NOT EXISTS idx_idea_effort     ON idea(effort_minutes);
+CREATE INDEX IF NOT EXISTS idx_idea_updated_at ON idea(updated_at);
+
+-- migrate:6 saved_views
+-- Gespeicherte Ansichten der Navigation: Abfrage (Syntax des Suchfelds) + Sortierung
+CREATE TABLE IF NOT EXISTS saved_view (
+  id         INTEGER PRIMARY KEY AUTOINCREMENT,
+  name       TEXT    NOT NULL UNIQUE,
+  query      TEXT    NOT NULL,
+  sort       TEXT    NOT NULL DEFAULT 'CREATED',   -- IdeaSort
+  descending INTEGER NOT NULL DEFAULT 1,
+  position   INTEGER NOT NULL DEFAULT 0,
+  created_at INTEGER NOT NULL DEFAULT (strftime('%s','now'))
+);